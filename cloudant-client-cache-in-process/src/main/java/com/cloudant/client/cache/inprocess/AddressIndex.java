@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.cloudant.client.cache.inprocess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongPredicate;
+import java.util.function.ObjLongConsumer;
+
+/*
+ * An open addressing hash table mapping keys to primitive long addresses. Keys are held in one
+ * Object[] and addresses in a parallel long[] so that an entry costs two array slots rather than
+ * a map node and a boxed Long. Linear probing is used with backward shift deletion so there are
+ * no tombstones.
+ *
+ * This class is not thread safe; callers are expected to provide their own locking.
+ */
+final class AddressIndex<K> {
+
+    /**
+     * Value returned by lookups when a key is not present.
+     */
+    static final long ABSENT = -1L;
+
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private Object[] keys;
+    private long[] addresses;
+    private int mask;
+    private int resizeThreshold;
+    private int size;
+
+    AddressIndex(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    long get(Object key) {
+        int i = indexOf(key);
+        return (i < 0) ? ABSENT : addresses[i];
+    }
+
+    /**
+     * @return the previous address for the key or {@link #ABSENT}
+     */
+    long put(K key, long address) {
+        int i = slotFor(key);
+        while (keys[i] != null) {
+            if (keys[i].equals(key)) {
+                long previous = addresses[i];
+                addresses[i] = address;
+                return previous;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        addresses[i] = address;
+        if (++size > resizeThreshold) {
+            resize(keys.length * 2);
+        }
+        return ABSENT;
+    }
+
+    /**
+     * @return the address that was removed or {@link #ABSENT}
+     */
+    long remove(Object key) {
+        int i = indexOf(key);
+        if (i < 0) {
+            return ABSENT;
+        }
+        long previous = addresses[i];
+        deleteSlot(i);
+        return previous;
+    }
+
+    /**
+     * Remove every entry whose address matches the predicate.
+     *
+     * @return the number of entries removed
+     */
+    int removeIf(LongPredicate addressPredicate) {
+        // Deletion shifts entries backwards, so collect first and then remove.
+        List<Object> matches = new ArrayList<Object>();
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null && addressPredicate.test(addresses[i])) {
+                matches.add(keys[i]);
+            }
+        }
+        for (Object key : matches) {
+            remove(key);
+        }
+        return matches.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    void forEach(ObjLongConsumer<K> action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                action.accept((K) keys[i], addresses[i]);
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        Arrays.fill(keys, null);
+        size = 0;
+    }
+
+    private int indexOf(Object key) {
+        int i = slotFor(key);
+        while (keys[i] != null) {
+            if (keys[i].equals(key)) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void deleteSlot(int i) {
+        keys[i] = null;
+        size--;
+        // Shift back any following entries in the probe sequence that would otherwise become
+        // unreachable through the newly emptied slot.
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (keys[j] == null) {
+                return;
+            }
+            int ideal = slotFor(keys[j]);
+            boolean movable = (j > i) ? (ideal <= i || ideal > j) : (ideal <= i && ideal > j);
+            if (movable) {
+                keys[i] = keys[j];
+                addresses[i] = addresses[j];
+                keys[j] = null;
+                i = j;
+            }
+        }
+    }
+
+    private int slotFor(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void resize(int capacity) {
+        Object[] oldKeys = keys;
+        long[] oldAddresses = addresses;
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                put((K) oldKeys[i], oldAddresses[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        addresses = new long[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = 16;
+        while (capacity * LOAD_FACTOR < expectedSize && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
@@ -0,0 +1,565 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+
+package com.cloudant.client.cache.inprocess;
+
+import com.cloudant.client.cache.CacheEntry;
+import com.cloudant.client.cache.CacheWithLifetimes;
+import com.cloudant.client.cache.LoadingCache;
+import com.cloudant.client.cache.Resizable;
+import com.cloudant.client.cache.SingleFlightLoader;
+import com.cloudant.client.cache.Ticker;
+import com.cloudant.client.cache.Util;
+import com.google.common.cache.CacheStats;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * <P>
+ * A cache that runs in the same process as the executing program and stores entries in primitive
+ * arrays rather than in per-entry objects, for caches holding millions of entries.
+ * </P>
+ * <P>
+ * The cache is divided into segments, each with its own lock. A segment holds its keys, values
+ * and expiration times in parallel arrays indexed by slot, with an open addressing hash table
+ * mapping keys to slots, so no {@link CacheEntry} or map node is allocated per entry and the
+ * garbage collector has far fewer objects to trace than with {@link InProcessCache}. When a
+ * segment is full, an entry is replaced using the CLOCK algorithm, an approximation of least
+ * recently used replacement: the first entry found by the clock hand which has expired or has
+ * not been read since the hand last passed it is replaced.
+ * </P>
+ * <P>
+ * Expired entries remain in the cache until they are replaced, deleted or overwritten, so that
+ * they can still be retrieved with {@link #getCacheEntry(Object)} for revalidation, and are
+ * included in {@link #size()}.
+ * </P>
+ * <P>
+ * The maximum size can be reduced with {@link #setMaximumSize(long)} and grown again up to the
+ * number of objects the cache was constructed with, which are allocated up front.
+ * </P>
+ *
+ * @param <K> the type of the cache keys
+ * @param <V> the type of the cache values
+ */
+public class CompactInProcessCache<K, V> implements CacheWithLifetimes<K, V>, LoadingCache<K,
+        V>, Resizable {
+
+    // Segments of at least this many slots are used by default, up to MAX_DEFAULT_SEGMENTS
+    private static final int MIN_DEFAULT_SEGMENT_SIZE = 64;
+    private static final int MAX_DEFAULT_SEGMENTS = 16;
+
+    private final Segment<K, V>[] segments;
+    private final int capacity;
+    private volatile long maximumSize;
+    private final int segmentMask;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final SingleFlightLoader<K, V> loader = new SingleFlightLoader<K, V>(this);
+    private long defaultLifetime;  // default object lifetime in milliseconds
+    private volatile int lifetimeJitter;  // percentage to randomly shorten lifetimes by
+    private volatile Ticker ticker = Ticker.DEFAULT;
+
+    /**
+     * Construct a new instance with a number of segments chosen for the capacity.
+     *
+     * @param maxObjects      maximum number of objects which can be stored before
+     *                        replacement starts
+     * @param defaultLifespan Default life time in milliseconds for cached objects
+     */
+    public CompactInProcessCache(int maxObjects, long defaultLifespan) {
+        this(maxObjects, Integer.highestOneBit(Math.max(1, Math.min(MAX_DEFAULT_SEGMENTS,
+                maxObjects / MIN_DEFAULT_SEGMENT_SIZE))), defaultLifespan);
+    }
+
+    /**
+     * Construct a new instance. More segments allow more concurrent access, but as replacement
+     * is per segment the entries replaced are a less accurate approximation of the least
+     * recently used.
+     *
+     * @param maxObjects      maximum number of objects which can be stored before
+     *                        replacement starts
+     * @param segmentCount    number of segments, a power of two no greater than maxObjects
+     * @param defaultLifespan Default life time in milliseconds for cached objects
+     */
+    @SuppressWarnings("unchecked")
+    public CompactInProcessCache(int maxObjects, int segmentCount, long defaultLifespan) {
+        if (segmentCount < 1 || Integer.bitCount(segmentCount) != 1) {
+            throw new IllegalArgumentException("segmentCount must be a power of two");
+        }
+        if (maxObjects < segmentCount) {
+            throw new IllegalArgumentException("maxObjects must be at least segmentCount");
+        }
+        segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            // Spread the remainder so that the capacities add up to maxObjects
+            segments[i] = new Segment<K, V>(maxObjects / segmentCount + ((i < maxObjects %
+                    segmentCount) ? 1 : 0));
+        }
+        segmentMask = segmentCount - 1;
+        capacity = maxObjects;
+        maximumSize = maxObjects;
+        defaultLifetime = defaultLifespan;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <P>
+     * The size is divided between the segments, and each segment replaces entries using the
+     * CLOCK algorithm until it is within its share.
+     * </P>
+     *
+     * @throws IllegalArgumentException if the size is less than the number of segments or
+     *                                  greater than the number of objects the cache was
+     *                                  constructed with
+     */
+    @Override
+    public synchronized void setMaximumSize(long maximumSize) {
+        if (maximumSize < segments.length || maximumSize > capacity) {
+            throw new IllegalArgumentException("The maximum size must be from " + segments
+                    .length + " to " + capacity);
+        }
+        long currentTime = ticker.currentTimeMillis();
+        for (int i = 0; i < segments.length; i++) {
+            Segment<K, V> segment = segments[i];
+            segment.lock.lock();
+            try {
+                evictionCount.add(segment.setLimit((int) (maximumSize / segments.length + ((i <
+                        maximumSize % segments.length) ? 1 : 0)), currentTime));
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setLifetimeJitter(int percent) {
+        if (percent < 0 || percent > 100) {
+            throw new IllegalArgumentException("The lifetime jitter must be from 0 to 100 " +
+                    "percent");
+        }
+        lifetimeJitter = percent;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setTicker(Ticker ticker) {
+        this.ticker = (ticker == null) ? Ticker.DEFAULT : ticker;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                segment.clear();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void delete(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            segment.remove(key);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void deleteAll(List<K> keys) {
+        for (K key : keys) {
+            delete(key);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <P>
+     * Each segment's entries are copied while the segment is locked, one segment at a time as
+     * the stream is consumed.
+     * </P>
+     */
+    @Override
+    public Stream<Map.Entry<K, CacheEntry<V>>> entries() {
+        return Arrays.stream(segments).flatMap(segment -> {
+            long currentTime = ticker.currentTimeMillis();
+            segment.lock.lock();
+            try {
+                return segment.unexpiredEntries(currentTime).stream();
+            } finally {
+                segment.lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V get(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        V value;
+        segment.lock.lock();
+        try {
+            value = segment.get(key, ticker.currentTimeMillis());
+        } finally {
+            segment.lock.unlock();
+        }
+        if (value == null) {
+            missCount.increment();
+        } else {
+            hitCount.increment();
+        }
+        return value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<K, V> getAll(List<K> keys) {
+        Map<K, V> hashMap = new HashMap<K, V>();
+        for (K key : keys) {
+            V value = get(key);
+            if (value != null) {
+                hashMap.put(key, value);
+            }
+        }
+        return hashMap;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        return this.loader.get(key, loader);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<K, V> getAll(List<K> keys, Function<? super List<K>, ? extends Map<K, V>>
+            bulkLoader) {
+        return loader.getAll(keys, bulkLoader);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CacheEntry<V> getCacheEntry(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            return segment.getCacheEntry(key);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <P>
+     * The statistics are returned as a Guava {@link CacheStats} instance containing the hit,
+     * miss and eviction counts. Load statistics are always zero.
+     * </P>
+     */
+    @Override
+    public InProcessCacheStats getStatistics() {
+        return new InProcessCacheStats(new CacheStats(hitCount.sum(), missCount.sum(), 0, 0, 0,
+                evictionCount.sum()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void put(K key, V value) {
+        put(key, value, defaultLifetime);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void put(K key, V value, long lifetime) {
+        long currentTime = ticker.currentTimeMillis();
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            putLocked(segment, key, value, currentTime + Util.jitter(lifetime,
+                    lifetimeJitter), currentTime);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void putAll(Map<K, V> map) {
+        putAll(map, defaultLifetime);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void putAll(Map<K, V> map, long lifetime) {
+        long currentTime = ticker.currentTimeMillis();
+        int jitter = lifetimeJitter;
+        for (Map.Entry<K, V> entry : map.entrySet()) {
+            Segment<K, V> segment = segmentFor(entry.getKey());
+            segment.lock.lock();
+            try {
+                putLocked(segment, entry.getKey(), entry.getValue(), currentTime + Util.jitter
+                        (lifetime, jitter), currentTime);
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long size() {
+        long size = 0;
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.index.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Return string summarizing the cache. The contents are not included as the cache may be
+     * very large.
+     *
+     * @return string containing output
+     */
+    public String toString() {
+        return "CompactInProcessCache with " + size() + " entries in " + segments.length + " " +
+                "segments";
+    }
+
+    private void putLocked(Segment<K, V> segment, K key, V value, long expirationTime, long
+            currentTime) {
+        if (segment.put(key, value, expirationTime, currentTime)) {
+            evictionCount.increment();
+        }
+    }
+
+    private Segment<K, V> segmentFor(Object key) {
+        // Use a different mix to the segment's hash table so that keys spread over its slots
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return segments[h & segmentMask];
+    }
+
+    /*
+     * A fixed capacity part of the cache. Keys, values and expiration times are stored in
+     * parallel arrays indexed by slot, with the referenced flags used by the CLOCK replacement.
+     * Free slots are kept on a stack. All methods must be called with the lock held.
+     */
+    private static final class Segment<K, V> {
+
+        final ReentrantLock lock = new ReentrantLock();
+        final AddressIndex<K> index;
+        private final Object[] keys;
+        private final Object[] values;
+        private final long[] expirationTimes;
+        private final boolean[] referenced;
+        private final int[] freeSlots;
+        private int freeCount;
+        private int hand;
+        private int limit;  // maximum number of slots in use, up to the capacity
+
+        Segment(int capacity) {
+            index = new AddressIndex<K>(capacity);
+            keys = new Object[capacity];
+            values = new Object[capacity];
+            expirationTimes = new long[capacity];
+            referenced = new boolean[capacity];
+            freeSlots = new int[capacity];
+            limit = capacity;
+            clear();
+        }
+
+        /*
+         * Return the value if present and unexpired, marking it as referenced.
+         */
+        @SuppressWarnings("unchecked")
+        V get(Object key, long currentTime) {
+            int slot = (int) index.get(key);
+            if (slot < 0 || expirationTimes[slot] < currentTime) {
+                return null;
+            }
+            referenced[slot] = true;
+            return (V) values[slot];
+        }
+
+        @SuppressWarnings("unchecked")
+        CacheEntry<V> getCacheEntry(Object key) {
+            int slot = (int) index.get(key);
+            return (slot < 0) ? null : new CacheEntry<V>((V) values[slot],
+                    expirationTimes[slot]);
+        }
+
+        /*
+         * Store a value, returning true if another entry was replaced to make room for it.
+         */
+        boolean put(K key, V value, long expirationTime, long currentTime) {
+            int slot = (int) index.get(key);
+            boolean evicted = false;
+            if (slot < 0) {
+                if (keys.length - freeCount >= limit) {
+                    free(nextVictim(currentTime));
+                    evicted = true;
+                }
+                slot = freeSlots[--freeCount];
+                keys[slot] = key;
+                // New entries start unreferenced so that entries never read are replaced first
+                referenced[slot] = false;
+                index.put(key, slot);
+            }
+            values[slot] = value;
+            expirationTimes[slot] = expirationTime;
+            return evicted;
+        }
+
+        /*
+         * Change the maximum number of slots in use, returning the number of entries replaced
+         * to shrink to it.
+         */
+        int setLimit(int limit, long currentTime) {
+            this.limit = limit;
+            int evicted = 0;
+            while (keys.length - freeCount > limit) {
+                free(nextVictim(currentTime));
+                evicted++;
+            }
+            return evicted;
+        }
+
+        void remove(Object key) {
+            int slot = (int) index.remove(key);
+            if (slot >= 0) {
+                release(slot);
+            }
+        }
+
+        void clear() {
+            index.clear();
+            Arrays.fill(keys, null);
+            Arrays.fill(values, null);
+            for (int i = 0; i < freeSlots.length; i++) {
+                freeSlots[i] = freeSlots.length - 1 - i;
+            }
+            freeCount = freeSlots.length;
+            hand = 0;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Map.Entry<K, CacheEntry<V>>> unexpiredEntries(long currentTime) {
+            List<Map.Entry<K, CacheEntry<V>>> entries = new ArrayList<Map.Entry<K,
+                    CacheEntry<V>>>();
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] != null && expirationTimes[slot] >= currentTime) {
+                    entries.add(new AbstractMap.SimpleImmutableEntry<K, CacheEntry<V>>((K)
+                            keys[slot], new CacheEntry<V>((V) values[slot],
+                            expirationTimes[slot])));
+                }
+            }
+            return entries;
+        }
+
+        /*
+         * Advance the clock hand to the slot to replace, clearing the referenced flags it passes.
+         * Called when at least one slot is in use, so the hand stops within two revolutions.
+         */
+        private int nextVictim(long currentTime) {
+            while (true) {
+                int slot = hand;
+                hand = (hand + 1 == keys.length) ? 0 : hand + 1;
+                if (keys[slot] == null) {
+                    continue;
+                }
+                if (expirationTimes[slot] < currentTime || !referenced[slot]) {
+                    return slot;
+                }
+                referenced[slot] = false;
+            }
+        }
+
+        private void free(int slot) {
+            index.remove(keys[slot]);
+            release(slot);
+        }
+
+        private void release(int slot) {
+            keys[slot] = null;
+            values[slot] = null;
+            freeSlots[freeCount++] = slot;
+        }
+    }
+}
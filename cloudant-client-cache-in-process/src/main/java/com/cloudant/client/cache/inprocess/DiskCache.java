@@ -0,0 +1,600 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.cloudant.client.cache.inprocess;
+
+import com.cloudant.client.cache.CacheEntry;
+import com.cloudant.client.cache.CacheWithLifetimes;
+import com.cloudant.client.cache.Serializer;
+import com.cloudant.client.cache.Stats;
+import com.cloudant.client.cache.Ticker;
+import com.cloudant.client.cache.Util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * <P>
+ * A cache that persists entries to memory-mapped files in a directory so that the contents
+ * survive a restart of the process. It is intended as a second level behind a faster cache, for
+ * example using {@link com.cloudant.client.cache.TieredCache} with an {@link InProcessCache}.
+ * </P>
+ * <P>
+ * Entries are appended to fixed size log segment files. Each record holds the serialized key, the
+ * serialized value and the absolute expiration time, so expiration times are preserved across
+ * restarts. Deletions are recorded as tombstones. An on-heap index maps each key to the location
+ * of its latest record and is rebuilt by scanning the segments when the cache is opened.
+ * </P>
+ * <P>
+ * When the number of segments exceeds the configured maximum the oldest segment is compacted:
+ * unexpired entries whose latest record is in that segment are copied forward to the newest
+ * segment and the file is deleted. At most half of a segment is used for copied entries; any
+ * remaining entries in the oldest segment are evicted.
+ * </P>
+ * <P>
+ * Keys and values must be {@link java.io.Serializable}. Only one cache instance may use a
+ * directory at a time.
+ * </P>
+ *
+ * @param <K> the type of the cache keys
+ * @param <V> the type of the cache values
+ */
+public class DiskCache<K, V> implements CacheWithLifetimes<K, V> {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    // Record layout: length (written last, 0 marks the end of the log), expiration time, key
+    // length, value length (-1 for a tombstone), key bytes, value bytes.
+    private static final int RECORD_HEADER_SIZE = 4 + 8 + 4 + 4;
+    private static final int TOMBSTONE = -1;
+
+    private final File directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final TreeMap<Integer, Segment> segments = new TreeMap<Integer, Segment>();
+    private final AddressIndex<K> index = new AddressIndex<K>(1024);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Segment activeSegment;
+    private long defaultLifetime;  // default object lifetime in milliseconds
+    private volatile Ticker ticker = Ticker.DEFAULT;
+    private volatile int lifetimeJitter;  // percentage to randomly shorten lifetimes by
+
+    /**
+     * Open a cache in the specified directory, recovering any entries persisted by a previous
+     * instance.
+     *
+     * @param directory       directory to store the segment files in, created if it does not
+     *                        exist
+     * @param segmentSize     size in bytes of each segment file
+     * @param maxSegments     maximum number of segment files before the oldest is compacted, must
+     *                        be at least 2
+     * @param defaultLifespan Default life time in milliseconds for cached objects
+     * @throws IOException if the directory or segment files could not be opened
+     */
+    public DiskCache(File directory, int segmentSize, int maxSegments, long defaultLifespan)
+            throws IOException {
+        if (maxSegments < 2) {
+            throw new IllegalArgumentException("maxSegments must be at least 2");
+        }
+        if (segmentSize <= RECORD_HEADER_SIZE) {
+            throw new IllegalArgumentException("segmentSize must be greater than " +
+                    RECORD_HEADER_SIZE + " bytes");
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create cache directory " + directory);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        this.defaultLifetime = defaultLifespan;
+        recover();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setLifetimeJitter(int percent) {
+        if (percent < 0 || percent > 100) {
+            throw new IllegalArgumentException("The lifetime jitter must be from 0 to 100 " +
+                    "percent");
+        }
+        lifetimeJitter = percent;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setTicker(Ticker ticker) {
+        this.ticker = (ticker == null) ? Ticker.DEFAULT : ticker;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <P>
+     * All segment files are deleted.
+     * </P>
+     */
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            index.clear();
+            for (Segment segment : segments.values()) {
+                segment.delete();
+            }
+            segments.clear();
+            activeSegment = newSegment(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Force any changes to storage and close the segment files. The cache must not be used
+     * after it is closed.
+     */
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            for (Segment segment : segments.values()) {
+                segment.close();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void delete(K key) {
+        byte[] keyBytes = Serializer.serializeToByteArray(key);
+        lock.writeLock().lock();
+        try {
+            deleteLocked(key, keyBytes);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void deleteAll(List<K> keys) {
+        Map<K, byte[]> keyBytes = new HashMap<K, byte[]>();
+        for (K key : keys) {
+            keyBytes.put(key, Serializer.serializeToByteArray(key));
+        }
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<K, byte[]> entry : keyBytes.entrySet()) {
+                deleteLocked(entry.getKey(), entry.getValue());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <P>
+     * The keys are copied while the cache is locked, then each value is read from its segment
+     * and deserialized as the stream is consumed, skipping entries removed in the meantime.
+     * </P>
+     */
+    @Override
+    public Stream<Map.Entry<K, CacheEntry<V>>> entries() {
+        final List<K> keys = new ArrayList<K>();
+        lock.readLock().lock();
+        try {
+            index.forEach((key, address) -> keys.add(key));
+        } finally {
+            lock.readLock().unlock();
+        }
+        long currentTime = ticker.currentTimeMillis();
+        return keys.stream()
+                .<Map.Entry<K, CacheEntry<V>>>map(key -> {
+                    CacheEntry<V> cacheEntry = readEntry(key, currentTime);
+                    return (cacheEntry == null) ? null : new AbstractMap.SimpleImmutableEntry<K,
+                            CacheEntry<V>>(key, cacheEntry);
+                })
+                .filter(Objects::nonNull);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V get(K key) {
+        CacheEntry<V> cacheEntry = readEntry(key, ticker.currentTimeMillis());
+        return (cacheEntry == null) ? null : cacheEntry.getValue();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<K, V> getAll(List<K> keys) {
+        Map<K, V> hashMap = new HashMap<K, V>();
+        for (K key : keys) {
+            V value = get(key);
+            if (value != null) {
+                hashMap.put(key, value);
+            }
+        }
+        return hashMap;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CacheEntry<V> getCacheEntry(K key) {
+        return readEntry(key, Long.MIN_VALUE);
+    }
+
+    /**
+     * This cache implementation does not provide any statistics. Calling {@link Stats#getStats()
+     * } will return {@code null}.
+     *
+     * @return a Stats implementation that always returns {@code null} for calls to getStats()
+     */
+    @Override
+    public Stats<Void> getStatistics() {
+        return () -> null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void put(K key, V value) {
+        put(key, value, defaultLifetime);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void put(K key, V value, long lifetime) {
+        putCacheEntry(key, new CacheEntry<V>(value, Util.jitter(lifetime, lifetimeJitter) +
+                ticker.currentTimeMillis()));
+    }
+
+    /**
+     * Cache a key-value pair keeping the absolute expiration time of the supplied
+     * {@link CacheEntry}.
+     *
+     * @param key        key associated with value
+     * @param cacheEntry the value and expiration time to store
+     */
+    public void putCacheEntry(K key, CacheEntry<V> cacheEntry) {
+        byte[] keyBytes = Serializer.serializeToByteArray(key);
+        byte[] valueBytes = Serializer.serializeToByteArray(cacheEntry.getValue());
+        lock.writeLock().lock();
+        try {
+            putLocked(key, keyBytes, valueBytes, cacheEntry.getExpirationTime());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void putAll(Map<K, V> map) {
+        putAll(map, defaultLifetime);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void putAll(Map<K, V> map, long lifetime) {
+        long currentTime = ticker.currentTimeMillis();
+        int jitter = lifetimeJitter;
+        for (Map.Entry<K, V> entry : map.entrySet()) {
+            putCacheEntry(entry.getKey(), new CacheEntry<V>(entry.getValue(), currentTime + Util
+                    .jitter(lifetime, jitter)));
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Return string summarizing the cache.
+     *
+     * @return string containing output
+     */
+    public String toString() {
+        lock.readLock().lock();
+        try {
+            return "DiskCache in " + directory + " with " + index.size() + " entries in " +
+                    segments.size() + " segments";
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /*
+     * Read the entry for a key, returning null if it is not present or expires before the
+     * specified time. The expiration time is checked before the value is read.
+     */
+    private CacheEntry<V> readEntry(K key, long notExpiredBefore) {
+        long expirationTime;
+        byte[] valueBytes;
+        lock.readLock().lock();
+        try {
+            long address = index.get(key);
+            if (address == AddressIndex.ABSENT) {
+                return null;
+            }
+            ByteBuffer buffer = segments.get(segmentOf(address)).buffer;
+            int offset = offsetOf(address);
+            expirationTime = buffer.getLong(offset + 4);
+            if (expirationTime < notExpiredBefore) {
+                return null;
+            }
+            int keyLength = buffer.getInt(offset + 12);
+            valueBytes = new byte[buffer.getInt(offset + 16)];
+            ByteBuffer view = buffer.duplicate();
+            view.position(offset + RECORD_HEADER_SIZE + keyLength);
+            view.get(valueBytes);
+        } finally {
+            lock.readLock().unlock();
+        }
+        V value = Serializer.deserializeFromByteArray(valueBytes);
+        return new CacheEntry<V>(value, expirationTime);
+    }
+
+    private void deleteLocked(K key, byte[] keyBytes) {
+        if (index.remove(key) != AddressIndex.ABSENT && keyBytes != null) {
+            // Record the deletion so the entry is not resurrected when the cache is reopened
+            append(keyBytes, null, 0);
+        }
+    }
+
+    private void putLocked(K key, byte[] keyBytes, byte[] valueBytes, long expirationTime) {
+        // Records must leave room for the end of log marker
+        if (keyBytes == null || valueBytes == null ||
+                RECORD_HEADER_SIZE + keyBytes.length + valueBytes.length + 4 > segmentSize) {
+            // The entry can not be stored so make sure a stale value is not left behind
+            deleteLocked(key, keyBytes);
+            return;
+        }
+        index.put(key, append(keyBytes, valueBytes, expirationTime));
+    }
+
+    /*
+     * Append a record to the active segment, rolling to a new segment if needed, and return its
+     * address.
+     */
+    private long append(byte[] keyBytes, byte[] valueBytes, long expirationTime) {
+        int valueLength = (valueBytes == null) ? 0 : valueBytes.length;
+        int recordSize = RECORD_HEADER_SIZE + keyBytes.length + valueLength;
+        // Leave room for the 0 length end of log marker
+        if (activeSegment.buffer.remaining() < recordSize + 4) {
+            roll(recordSize + 4);
+        }
+        MappedByteBuffer buffer = activeSegment.buffer;
+        int offset = buffer.position();
+        buffer.position(offset + 4);
+        buffer.putLong(expirationTime);
+        buffer.putInt(keyBytes.length);
+        buffer.putInt((valueBytes == null) ? TOMBSTONE : valueLength);
+        buffer.put(keyBytes);
+        if (valueBytes != null) {
+            buffer.put(valueBytes);
+        }
+        // Writing the length last commits the record
+        buffer.putInt(offset, recordSize - 4);
+        return addressOf(activeSegment.id, offset);
+    }
+
+    /*
+     * Start a new active segment, compacting the oldest segment if there are too many, while
+     * keeping the specified number of bytes free in the new segment.
+     */
+    private void roll(int reserve) {
+        try {
+            activeSegment.buffer.force();
+            activeSegment = newSegment(activeSegment.id + 1);
+            if (segments.size() > maxSegments) {
+                compact(segments.firstEntry().getValue(),
+                        Math.min(segmentSize / 2, segmentSize - reserve));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /*
+     * Copy forward the unexpired entries of the oldest segment, up to the budget in bytes, to the
+     * new active segment then delete it.
+     */
+    private void compact(Segment oldest, final int budget) {
+        final int oldestId = oldest.id;
+        final List<K> carried = new ArrayList<K>();
+        final List<Long> carriedAddresses = new ArrayList<Long>();
+        final List<K> evicted = new ArrayList<K>();
+        final long currentTime = ticker.currentTimeMillis();
+        final int[] used = {0};
+        index.forEach((key, address) -> {
+            if (segmentOf(address) != oldestId) {
+                return;
+            }
+            int offset = offsetOf(address);
+            int recordSize = oldest.buffer.getInt(offset) + 4;
+            if (oldest.buffer.getLong(offset + 4) >= currentTime &&
+                    used[0] + recordSize <= budget) {
+                used[0] += recordSize;
+                carried.add(key);
+                carriedAddresses.add(address);
+            } else {
+                evicted.add(key);
+            }
+        });
+        for (K key : evicted) {
+            index.remove(key);
+        }
+        for (int i = 0; i < carried.size(); i++) {
+            int offset = offsetOf(carriedAddresses.get(i));
+            int recordSize = oldest.buffer.getInt(offset) + 4;
+            ByteBuffer record = oldest.buffer.duplicate();
+            record.position(offset).limit(offset + recordSize);
+            int newOffset = activeSegment.buffer.position();
+            activeSegment.buffer.put(record);
+            index.put(carried.get(i), addressOf(activeSegment.id, newOffset));
+        }
+        segments.remove(oldestId);
+        oldest.delete();
+    }
+
+    private void recover() throws IOException {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                    int id = Integer.parseInt(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length()));
+                    segments.put(id, new Segment(id, file, segmentSize));
+                }
+            }
+        }
+        // Replay the segments in the order they were written
+        for (Segment segment : segments.values()) {
+            replay(segment);
+        }
+        if (segments.isEmpty()) {
+            activeSegment = newSegment(0);
+        } else {
+            activeSegment = segments.lastEntry().getValue();
+        }
+    }
+
+    private void replay(Segment segment) {
+        MappedByteBuffer buffer = segment.buffer;
+        int offset = 0;
+        while (offset + RECORD_HEADER_SIZE <= buffer.capacity()) {
+            int length = buffer.getInt(offset);
+            if (length <= 0 || offset + 4 + length > buffer.capacity()) {
+                break;
+            }
+            byte[] keyBytes = new byte[buffer.getInt(offset + 12)];
+            ByteBuffer view = buffer.duplicate();
+            view.position(offset + RECORD_HEADER_SIZE);
+            view.get(keyBytes);
+            K key = Serializer.deserializeFromByteArray(keyBytes);
+            if (key != null) {
+                if (buffer.getInt(offset + 16) == TOMBSTONE) {
+                    index.remove(key);
+                } else {
+                    index.put(key, addressOf(segment.id, offset));
+                }
+            }
+            offset += 4 + length;
+        }
+        buffer.position(offset);
+    }
+
+    private Segment newSegment(int id) throws IOException {
+        File file = new File(directory, SEGMENT_PREFIX + id + SEGMENT_SUFFIX);
+        Segment segment = new Segment(id, file, segmentSize);
+        segments.put(id, segment);
+        return segment;
+    }
+
+    private static long addressOf(int segment, int offset) {
+        return ((long) segment << 32) | offset;
+    }
+
+    private static int segmentOf(long address) {
+        return (int) (address >>> 32);
+    }
+
+    private static int offsetOf(long address) {
+        return (int) address;
+    }
+
+    private static final class Segment {
+
+        private final int id;
+        private final File file;
+        private final RandomAccessFile randomAccessFile;
+        private final MappedByteBuffer buffer;
+
+        Segment(int id, File file, int size) throws IOException {
+            this.id = id;
+            this.file = file;
+            this.randomAccessFile = new RandomAccessFile(file, "rw");
+            // Mapping extends a new file to the segment size, filled with zeros
+            this.buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0,
+                    size);
+        }
+
+        void close() {
+            buffer.force();
+            try {
+                randomAccessFile.close();
+            } catch (IOException e) {
+                Util.describeException(e, "Exception in DiskCache closing " + file);
+            }
+        }
+
+        void delete() {
+            close();
+            try {
+                Files.delete(file.toPath());
+            } catch (IOException e) {
+                Util.describeException(e, "Exception in DiskCache deleting " + file);
+            }
+        }
+    }
+}
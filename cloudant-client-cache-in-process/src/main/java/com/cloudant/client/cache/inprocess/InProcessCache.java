@@ -14,26 +14,40 @@
 
 package com.cloudant.client.cache.inprocess;
 
+import com.cloudant.client.cache.BulkExecutor;
 import com.cloudant.client.cache.CacheEntry;
+import com.cloudant.client.cache.CacheSnapshot;
 import com.cloudant.client.cache.CacheWithLifetimes;
+import com.cloudant.client.cache.LoadingCache;
+import com.cloudant.client.cache.SingleFlightLoader;
+import com.cloudant.client.cache.Ticker;
 import com.cloudant.client.cache.Util;
 import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /*
  * This cache implementation stores data in the same process as the executing program.
  *
  * @author ArunIyengar
  */
-public class InProcessCache<K, V> implements CacheWithLifetimes<K, V> {
+public class InProcessCache<K, V> implements CacheWithLifetimes<K, V>, LoadingCache<K, V> {
 
-    private LoadingCache<K, CacheEntry<V>> cache;
+    private com.google.common.cache.Cache<K, CacheEntry<V>> cache;
     private long defaultLifetime;  // default object lifetime in millisecods
+    private volatile int lifetimeJitter;  // percentage to randomly shorten lifetimes by
+    private volatile Ticker ticker = Ticker.DEFAULT;
+    private volatile BulkExecutor bulkExecutor = BulkExecutor.SEQUENTIAL;
+    private final SingleFlightLoader<K, V> loader = new SingleFlightLoader<K, V>(this);
 
     /**
      * Construct a new instance.
@@ -43,16 +57,42 @@ public class InProcessCache<K, V> implements CacheWithLifetimes<K, V> {
      * @param defaultLifespan Default life time in milliseconds for cached objects
      */
     public InProcessCache(long maxObjects, long defaultLifespan) {
-        cache = CacheBuilder.newBuilder().maximumSize(maxObjects)
-                .build(new CacheLoader<K, CacheEntry<V>>() {
-                    public CacheEntry<V> load(K key) throws Exception {
-                        return null;
-                    }
-                });
+        cache = CacheBuilder.newBuilder().maximumSize(maxObjects).build();
         defaultLifetime = defaultLifespan;
 
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setLifetimeJitter(int percent) {
+        if (percent < 0 || percent > 100) {
+            throw new IllegalArgumentException("The lifetime jitter must be from 0 to 100 " +
+                    "percent");
+        }
+        lifetimeJitter = percent;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setTicker(Ticker ticker) {
+        this.ticker = (ticker == null) ? Ticker.DEFAULT : ticker;
+    }
+
+    /**
+     * Set the executor which runs the per-entry work of bulk operations in parallel. By default
+     * bulk operations run on the calling thread.
+     *
+     * @param bulkExecutor the executor
+     * @see BulkExecutor
+     */
+    public void setBulkExecutor(BulkExecutor bulkExecutor) {
+        this.bulkExecutor = bulkExecutor;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -86,7 +126,7 @@ public class InProcessCache<K, V> implements CacheWithLifetimes<K, V> {
         if (cacheEntry == null) {
             return null;
         }
-        if (cacheEntry.getExpirationTime() >= Util.getTime()) {
+        if (cacheEntry.getExpirationTime() >= ticker.currentTimeMillis()) {
             return cacheEntry.getValue();
         }
         return null;
@@ -99,7 +139,7 @@ public class InProcessCache<K, V> implements CacheWithLifetimes<K, V> {
     public Map<K, V> getAll(List<K> keys) {
         Map<K, CacheEntry<V>> cacheMap = cache.getAllPresent(keys);
         Map<K, V> hashMap = new HashMap<K, V>();
-        long currentTime = Util.getTime();
+        long currentTime = ticker.currentTimeMillis();
 
         for (Map.Entry<K, CacheEntry<V>> entry : cacheMap.entrySet()) {
             CacheEntry<V> cacheEntry = entry.getValue();
@@ -110,6 +150,23 @@ public class InProcessCache<K, V> implements CacheWithLifetimes<K, V> {
         return hashMap;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        return this.loader.get(key, loader);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<K, V> getAll(List<K> keys, Function<? super List<K>, ? extends Map<K, V>>
+            bulkLoader) {
+        return loader.getAll(keys, bulkLoader);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -118,6 +175,42 @@ public class InProcessCache<K, V> implements CacheWithLifetimes<K, V> {
         return cache.getIfPresent(key);
     }
 
+    /**
+     * Write unexpired entries to a snapshot file so that they can be reloaded with a
+     * {@link com.cloudant.client.cache.CacheWarmer}. The underlying cache does not expose access
+     * order, so entries are written in order of decreasing expiration time, most recently stored
+     * first for entries with the same lifetime.
+     *
+     * @param file          the file to write, replaced if it exists
+     * @param maxEntries    the maximum number of entries to write
+     * @param includeValues {@code true} to include values and expiration times, {@code false}
+     *                      to write only the keys
+     * @return the number of entries written
+     * @throws IOException if the file could not be written
+     * @see CacheSnapshot
+     */
+    public int exportSnapshot(File file, int maxEntries, boolean includeValues) throws
+            IOException {
+        List<Map.Entry<K, CacheEntry<V>>> entries = entries().sorted((a, b) -> Long.compare(b
+                .getValue().getExpirationTime(), a.getValue().getExpirationTime())).collect
+                (Collectors.toList());
+        return CacheSnapshot.write(file, entries.iterator(), maxEntries, includeValues);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <P>
+     * The entries are streamed directly from the underlying concurrent map without locking it.
+     * </P>
+     */
+    @Override
+    public Stream<Map.Entry<K, CacheEntry<V>>> entries() {
+        long currentTime = ticker.currentTimeMillis();
+        return cache.asMap().entrySet().stream()
+                .filter(entry -> entry.getValue().getExpirationTime() >= currentTime)
+                .map(entry -> new AbstractMap.SimpleImmutableEntry<K, CacheEntry<V>>(entry));
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -158,8 +251,8 @@ public class InProcessCache<K, V> implements CacheWithLifetimes<K, V> {
      */
     @Override
     public void put(K key, V value, long lifetime) {
-        CacheEntry<V> cacheEntry = new CacheEntry<V>(value, lifetime
-                + Util.getTime());
+        CacheEntry<V> cacheEntry = new CacheEntry<V>(value, Util.jitter(lifetime,
+                lifetimeJitter) + ticker.currentTimeMillis());
         cache.put(key, cacheEntry);
     }
 
@@ -176,12 +269,13 @@ public class InProcessCache<K, V> implements CacheWithLifetimes<K, V> {
      */
     @Override
     public void putAll(Map<K, V> map, long lifetime) {
-        long expirationTime = Util.getTime() + lifetime;
-        for (Map.Entry<K, V> entry : map.entrySet()) {
+        long currentTime = ticker.currentTimeMillis();
+        int jitter = lifetimeJitter;
+        bulkExecutor.forEach(new ArrayList<Map.Entry<K, V>>(map.entrySet()), entry -> {
             CacheEntry<V> cacheEntry = new CacheEntry<V>(entry.getValue(),
-                    expirationTime);
+                    currentTime + Util.jitter(lifetime, jitter));
             cache.put(entry.getKey(), cacheEntry);
-        }
+        });
 
     }
 
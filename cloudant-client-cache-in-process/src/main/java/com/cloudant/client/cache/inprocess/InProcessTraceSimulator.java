@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+
+package com.cloudant.client.cache.inprocess;
+
+import com.cloudant.client.cache.AccessTrace;
+import com.cloudant.client.cache.LRUCache;
+import com.cloudant.client.cache.TraceSimulator;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <P>
+ * Compares the in-process caches by replaying an {@link AccessTrace}: an {@link LRUCache}, and
+ * an {@link InProcessCache} and a {@link CompactInProcessCache} with each of a list of
+ * lifetimes, each at every one of a list of capacities. Run from the command line with the
+ * trace file, a comma separated list of capacities and optionally a comma separated list of
+ * lifetimes in seconds, for example:
+ * </P>
+ * <pre>
+ * java com.cloudant.client.cache.inprocess.InProcessTraceSimulator trace.bin 1000,10000 60,600
+ * </pre>
+ * <P>
+ * The hit ratio and database requests per second of each cache are printed as tables with a
+ * column per capacity.
+ * </P>
+ *
+ * @see TraceSimulator
+ */
+public final class InProcessTraceSimulator {
+
+    private InProcessTraceSimulator() {
+    }
+
+    /**
+     * Create a simulator of the in-process caches.
+     *
+     * @param capacities the maximum numbers of entries to simulate
+     * @param lifetimes  the lifetimes in milliseconds to simulate the caches with lifetimes with
+     * @return the simulator
+     */
+    public static TraceSimulator create(int[] capacities, long[] lifetimes) {
+        TraceSimulator simulator = new TraceSimulator(capacities);
+        simulator.addEngine("LRUCache", LRUCache::new);
+        for (long lifetime : lifetimes) {
+            String suffix = " " + TimeUnit.MILLISECONDS.toSeconds(lifetime) + "s";
+            simulator.addEngine("InProcessCache" + suffix, capacity -> new InProcessCache<String,
+                    Object>(capacity, lifetime));
+            simulator.addEngine("CompactInProcessCache" + suffix, capacity -> new
+                    CompactInProcessCache<String, Object>(capacity, lifetime));
+        }
+        return simulator;
+    }
+
+    /**
+     * Replay a trace and print the results.
+     *
+     * @param args the trace file, comma separated capacities and optionally comma separated
+     *             lifetimes in seconds
+     * @throws IOException if the trace could not be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: InProcessTraceSimulator <trace file> <capacities> " +
+                    "[lifetimes in seconds]");
+            System.exit(1);
+        }
+        String[] capacityArgs = args[1].split(",");
+        int[] capacities = new int[capacityArgs.length];
+        for (int i = 0; i < capacities.length; i++) {
+            capacities[i] = Integer.parseInt(capacityArgs[i].trim());
+        }
+        String[] lifetimeArgs = (args.length > 2) ? args[2].split(",") : new String[]{"3600"};
+        long[] lifetimes = new long[lifetimeArgs.length];
+        for (int i = 0; i < lifetimes.length; i++) {
+            lifetimes[i] = TimeUnit.SECONDS.toMillis(Long.parseLong(lifetimeArgs[i].trim()));
+        }
+        TraceSimulator.print(create(capacities, lifetimes).run(new File(args[0])), System.out);
+    }
+}
@@ -0,0 +1,424 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.cloudant.client.cache.inprocess;
+
+import com.cloudant.client.cache.CacheEntry;
+import com.cloudant.client.cache.CacheWithLifetimes;
+import com.cloudant.client.cache.Serializer;
+import com.cloudant.client.cache.Ticker;
+import com.cloudant.client.cache.Util;
+import com.google.common.cache.CacheStats;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * <P>
+ * A cache that runs in the same process as the executing program, but stores cached values
+ * outside of the Java heap.
+ * </P>
+ * <P>
+ * Values are serialized with {@link Serializer} and appended to a fixed number of direct
+ * {@link ByteBuffer} slabs. Only the keys and a primitive address for each entry are kept on the
+ * heap, so the size of the cache has little effect on garbage collection. When every slab is
+ * full the oldest slab is recycled and all of the entries it contains are evicted, so replacement
+ * is first-in first-out at slab granularity. Space occupied by overwritten or deleted values is
+ * reclaimed when its slab is recycled.
+ * </P>
+ * <P>
+ * Values must be {@link java.io.Serializable}. A value whose serialized form is larger than a
+ * single slab is not cached.
+ * </P>
+ *
+ * @param <K> the type of the cache keys
+ * @param <V> the type of the cache values
+ */
+public class OffHeapCache<K, V> implements CacheWithLifetimes<K, V> {
+
+    // Each record is the expiration time, the length of the value and then the value bytes
+    private static final int RECORD_HEADER_SIZE = 8 + 4;
+
+    private final ByteBuffer[] slabs;
+    private final AddressIndex<K> index;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private int currentSlab = 0;
+    private long defaultLifetime;  // default object lifetime in milliseconds
+    private volatile Ticker ticker = Ticker.DEFAULT;
+    private volatile int lifetimeJitter;  // percentage to randomly shorten lifetimes by
+
+    /**
+     * Construct a new instance.
+     *
+     * @param slabCount       number of slabs to allocate, must be at least 2 so that a slab can
+     *                        be recycled without emptying the cache
+     * @param slabSize        size in bytes of each slab
+     * @param defaultLifespan Default life time in milliseconds for cached objects
+     */
+    public OffHeapCache(int slabCount, int slabSize, long defaultLifespan) {
+        if (slabCount < 2) {
+            throw new IllegalArgumentException("slabCount must be at least 2");
+        }
+        if (slabSize <= RECORD_HEADER_SIZE) {
+            throw new IllegalArgumentException("slabSize must be greater than " +
+                    RECORD_HEADER_SIZE + " bytes");
+        }
+        slabs = new ByteBuffer[slabCount];
+        for (int i = 0; i < slabCount; i++) {
+            slabs[i] = ByteBuffer.allocateDirect(slabSize);
+        }
+        index = new AddressIndex<K>(1024);
+        defaultLifetime = defaultLifespan;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setLifetimeJitter(int percent) {
+        if (percent < 0 || percent > 100) {
+            throw new IllegalArgumentException("The lifetime jitter must be from 0 to 100 " +
+                    "percent");
+        }
+        lifetimeJitter = percent;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setTicker(Ticker ticker) {
+        this.ticker = (ticker == null) ? Ticker.DEFAULT : ticker;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            index.clear();
+            for (ByteBuffer slab : slabs) {
+                slab.clear();
+            }
+            currentSlab = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void delete(K key) {
+        lock.writeLock().lock();
+        try {
+            index.remove(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void deleteAll(List<K> keys) {
+        lock.writeLock().lock();
+        try {
+            for (K key : keys) {
+                index.remove(key);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <P>
+     * The keys are copied while the cache is locked, then each value is read from its slab and
+     * deserialized as the stream is consumed, skipping entries removed in the meantime.
+     * </P>
+     */
+    @Override
+    public Stream<Map.Entry<K, CacheEntry<V>>> entries() {
+        final List<K> keys = new ArrayList<K>();
+        lock.readLock().lock();
+        try {
+            index.forEach((key, address) -> keys.add(key));
+        } finally {
+            lock.readLock().unlock();
+        }
+        long currentTime = ticker.currentTimeMillis();
+        return keys.stream()
+                .<Map.Entry<K, CacheEntry<V>>>map(key -> {
+                    CacheEntry<V> cacheEntry = getCacheEntry(key);
+                    return (cacheEntry == null || cacheEntry.getExpirationTime() < currentTime)
+                            ? null : new AbstractMap.SimpleImmutableEntry<K, CacheEntry<V>>(key,
+                            cacheEntry);
+                })
+                .filter(Objects::nonNull);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V get(K key) {
+        byte[] bytes = readValue(key, ticker.currentTimeMillis());
+        if (bytes == null) {
+            missCount.increment();
+            return null;
+        }
+        hitCount.increment();
+        return Serializer.deserializeFromByteArray(bytes);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<K, V> getAll(List<K> keys) {
+        Map<K, byte[]> rawValues = new HashMap<K, byte[]>();
+        long currentTime = ticker.currentTimeMillis();
+        lock.readLock().lock();
+        try {
+            for (K key : keys) {
+                byte[] bytes = readValueLocked(key, currentTime);
+                if (bytes != null) {
+                    rawValues.put(key, bytes);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        hitCount.add(rawValues.size());
+        missCount.add(keys.size() - rawValues.size());
+
+        // Deserialize outside of the lock
+        Map<K, V> hashMap = new HashMap<K, V>();
+        for (Map.Entry<K, byte[]> entry : rawValues.entrySet()) {
+            V value = Serializer.deserializeFromByteArray(entry.getValue());
+            hashMap.put(entry.getKey(), value);
+        }
+        return hashMap;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CacheEntry<V> getCacheEntry(K key) {
+        long expirationTime;
+        byte[] bytes;
+        lock.readLock().lock();
+        try {
+            long address = index.get(key);
+            if (address == AddressIndex.ABSENT) {
+                return null;
+            }
+            ByteBuffer slab = slabs[slabOf(address)];
+            int offset = offsetOf(address);
+            expirationTime = slab.getLong(offset);
+            bytes = copyValue(slab, offset);
+        } finally {
+            lock.readLock().unlock();
+        }
+        V value = Serializer.deserializeFromByteArray(bytes);
+        return new CacheEntry<V>(value, expirationTime);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <P>
+     * The statistics are returned as a Guava {@link CacheStats} instance containing the hit,
+     * miss and eviction counts. Load statistics are always zero.
+     * </P>
+     */
+    @Override
+    public InProcessCacheStats getStatistics() {
+        return new InProcessCacheStats(new CacheStats(hitCount.sum(), missCount.sum(), 0, 0, 0,
+                evictionCount.sum()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void put(K key, V value) {
+        put(key, value, defaultLifetime);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void put(K key, V value, long lifetime) {
+        byte[] bytes = Serializer.serializeToByteArray(value);
+        lock.writeLock().lock();
+        try {
+            putLocked(key, bytes, Util.jitter(lifetime, lifetimeJitter) + ticker
+                    .currentTimeMillis());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void putAll(Map<K, V> map) {
+        putAll(map, defaultLifetime);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void putAll(Map<K, V> map, long lifetime) {
+        // Serialize outside of the lock
+        Map<K, byte[]> rawValues = new HashMap<K, byte[]>();
+        for (Map.Entry<K, V> entry : map.entrySet()) {
+            rawValues.put(entry.getKey(), Serializer.serializeToByteArray(entry.getValue()));
+        }
+        long currentTime = ticker.currentTimeMillis();
+        int jitter = lifetimeJitter;
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<K, byte[]> entry : rawValues.entrySet()) {
+                putLocked(entry.getKey(), entry.getValue(), currentTime + Util.jitter(lifetime,
+                        jitter));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Return string summarizing the cache. The contents are not included as they are stored
+     * off-heap and may be very large.
+     *
+     * @return string containing output
+     */
+    public String toString() {
+        return "OffHeapCache with " + size() + " entries in " + slabs.length + " slabs of " +
+                slabs[0].capacity() + " bytes";
+    }
+
+    private byte[] readValue(K key, long currentTime) {
+        lock.readLock().lock();
+        try {
+            return readValueLocked(key, currentTime);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /*
+     * Return a copy of the serialized value for the key, or null if the key is not present or
+     * the entry has expired. The expiration time is checked before the value is copied so that
+     * expired entries are never read from the slab.
+     */
+    private byte[] readValueLocked(K key, long currentTime) {
+        long address = index.get(key);
+        if (address == AddressIndex.ABSENT) {
+            return null;
+        }
+        ByteBuffer slab = slabs[slabOf(address)];
+        int offset = offsetOf(address);
+        if (slab.getLong(offset) < currentTime) {
+            return null;
+        }
+        return copyValue(slab, offset);
+    }
+
+    private static byte[] copyValue(ByteBuffer slab, int offset) {
+        byte[] bytes = new byte[slab.getInt(offset + 8)];
+        // Use a duplicate so concurrent readers do not share a position
+        ByteBuffer view = slab.duplicate();
+        view.position(offset + RECORD_HEADER_SIZE);
+        view.get(bytes);
+        return bytes;
+    }
+
+    private void putLocked(K key, byte[] bytes, long expirationTime) {
+        if (bytes == null) {
+            // The value could not be serialized so make sure a stale value is not left behind
+            index.remove(key);
+            return;
+        }
+        int recordSize = RECORD_HEADER_SIZE + bytes.length;
+        if (recordSize > slabs[currentSlab].capacity()) {
+            index.remove(key);
+            return;
+        }
+        if (slabs[currentSlab].remaining() < recordSize) {
+            recycleNextSlab();
+        }
+        ByteBuffer slab = slabs[currentSlab];
+        int offset = slab.position();
+        slab.putLong(expirationTime).putInt(bytes.length).put(bytes);
+        index.put(key, addressOf(currentSlab, offset));
+    }
+
+    private void recycleNextSlab() {
+        currentSlab = (currentSlab + 1) % slabs.length;
+        final int recycled = currentSlab;
+        if (slabs[recycled].position() > 0) {
+            evictionCount.add(index.removeIf(address -> slabOf(address) == recycled));
+            slabs[recycled].clear();
+        }
+    }
+
+    private static long addressOf(int slab, int offset) {
+        return ((long) slab << 32) | offset;
+    }
+
+    private static int slabOf(long address) {
+        return (int) (address >>> 32);
+    }
+
+    private static int offsetOf(long address) {
+        return (int) address;
+    }
+}
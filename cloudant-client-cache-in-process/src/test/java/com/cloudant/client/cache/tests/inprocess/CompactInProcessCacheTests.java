@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+
+package com.cloudant.client.cache.tests.inprocess;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import com.cloudant.client.cache.CacheEntry;
+import com.cloudant.client.cache.ManualTicker;
+import com.cloudant.client.cache.inprocess.CompactInProcessCache;
+import com.cloudant.client.cache.inprocess.InProcessCacheStats;
+import com.cloudant.client.cache.tests.CacheWithLifetimesTests;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class CompactInProcessCacheTests extends
+        CacheWithLifetimesTests<CompactInProcessCache<String, Integer>> {
+
+    @Override
+    protected CompactInProcessCache<String, Integer> getNewCacheInstance() {
+        return new CompactInProcessCache<>(DEFAULT_NUM_OBJECTS, DEFAULT_EXPIRATION);
+    }
+
+    @Test
+    public void testGetStatistics() {
+        super.testMultiplePutGet();
+        InProcessCacheStats stats1 = cache.getStatistics();
+        assertEquals("Hit rate should be 1.0", 1.0, stats1.getStats()
+                .hitRate(), .0001);
+    }
+
+    /**
+     * Test that an expired entry can still be retrieved as a CacheEntry for revalidation.
+     *
+     * @throws InterruptedException if the sleep is interrupted
+     */
+    @Test
+    public void testGetExpiredCacheEntry() throws InterruptedException {
+        cache.put(key1, 1, 1);
+        Thread.sleep(1 + LIFESPAN_TOLERANCE);
+        assertNoEntries(1);
+        CacheEntry<Integer> entry = cache.getCacheEntry(key1);
+        assertNotNull("The expired CacheEntry should still be present", entry);
+        assertEquals("The CacheEntry value should be correct", 1, entry.getValue().intValue());
+    }
+
+    /**
+     * Test that when the cache is full the entries which have been read are kept and the others
+     * are replaced.
+     */
+    @Test
+    public void testClockReplacement() {
+        cache = new CompactInProcessCache<>(10, 1, DEFAULT_EXPIRATION);
+        populateCache(10);
+        assertEntries(1, 2, 3, 4, 5);
+        for (int i = 11; i <= 15; i++) {
+            cache.put("key" + i, i);
+        }
+        assertCacheSize(10);
+        assertEntries(1, 2, 3, 4, 5, 11, 12, 13, 14, 15);
+        assertNoEntries(6, 7, 8, 9, 10);
+        assertEquals("Evictions should be recorded", 5, cache.getStatistics().getStats()
+                .evictionCount());
+    }
+
+    /**
+     * Test that expired entries are replaced even if they have been read.
+     *
+     * @throws InterruptedException if the sleep is interrupted
+     */
+    @Test
+    public void testExpiredReplaced() throws InterruptedException {
+        cache = new CompactInProcessCache<>(4, 1, DEFAULT_EXPIRATION);
+        cache.put("key1", 1);
+        cache.put("key2", 2, LIFESPAN_TOLERANCE);
+        cache.put("key3", 3);
+        cache.put("key4", 4, LIFESPAN_TOLERANCE);
+        assertEntries(1, 2, 3, 4);
+        Thread.sleep(1 + LIFESPAN_TOLERANCE);
+        cache.put("key5", 5);
+        cache.put("key6", 6);
+        assertEntries(1, 3, 5, 6);
+    }
+
+    /**
+     * Test that the capacity is shared between segments.
+     */
+    @Test
+    public void testSegments() {
+        cache = new CompactInProcessCache<>(100, 8, DEFAULT_EXPIRATION);
+        populateCache(1000);
+        assertCacheSize(100);
+    }
+
+    /**
+     * Test that shrinking the cache evicts the entries which have not been read and that it can
+     * grow back to the capacity it was created with.
+     */
+    @Test
+    public void testSetMaximumSize() {
+        cache = new CompactInProcessCache<>(10, 1, DEFAULT_EXPIRATION);
+        populateCache(10);
+        assertEntries(1, 2, 3, 4, 5);
+        cache.setMaximumSize(5);
+        assertEquals("The maximum size should be changed", 5, cache.getMaximumSize());
+        assertCacheSize(5);
+        assertEntries(1, 2, 3, 4, 5);
+        assertEquals("Evictions should be recorded", 5, cache.getStatistics().getStats()
+                .evictionCount());
+        cache.setMaximumSize(10);
+        for (int i = 11; i <= 15; i++) {
+            cache.put("key" + i, i);
+        }
+        assertCacheSize(10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetMaximumSizeAboveCapacity() {
+        cache = new CompactInProcessCache<>(10, 1, DEFAULT_EXPIRATION);
+        cache.setMaximumSize(11);
+    }
+
+    /**
+     * Test that a cache given its own ticker expires entries by that ticker.
+     */
+    @Test
+    public void testCacheTicker() {
+        ManualTicker ticker = new ManualTicker();
+        cache.setTicker(ticker);
+        cache.put(key1, 1, 60000);
+        ticker.advance(59, TimeUnit.SECONDS);
+        assertEquals("The entry should not have expired", Integer.valueOf(1), cache.get(key1));
+        ticker.advance(2, TimeUnit.SECONDS);
+        assertNoEntries(1);
+    }
+}
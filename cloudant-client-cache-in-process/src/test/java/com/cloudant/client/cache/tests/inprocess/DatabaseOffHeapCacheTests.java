@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.cloudant.client.cache.tests.inprocess;
+
+import com.cloudant.client.cache.inprocess.OffHeapCache;
+import com.cloudant.client.cache.tests.DatabaseCacheTests;
+
+public class DatabaseOffHeapCacheTests extends DatabaseCacheTests {
+
+    @Override
+    protected OffHeapCache<String, Object> getNewCacheInstance() {
+        return new OffHeapCache<>(2, 1024 * 1024, CACHE_LIFETIME);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.cloudant.client.cache.tests.inprocess;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.cloudant.client.cache.CacheEntry;
+import com.cloudant.client.cache.inprocess.DiskCache;
+import com.cloudant.client.cache.tests.CacheWithLifetimesTests;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+public class DiskCacheTests extends CacheWithLifetimesTests<DiskCache<String, Integer>> {
+
+    private static final int SEGMENT_SIZE = 4096;
+    private static final int MAX_SEGMENTS = 4;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File directory;
+
+    @Override
+    protected DiskCache<String, Integer> getNewCacheInstance() {
+        try {
+            directory = folder.newFolder();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return reopen();
+    }
+
+    private DiskCache<String, Integer> reopen() {
+        try {
+            return new DiskCache<>(directory, SEGMENT_SIZE, MAX_SEGMENTS, DEFAULT_EXPIRATION);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Test that entries, including their expiration times, and deletions survive closing and
+     * reopening the cache.
+     */
+    @Test
+    public void testReopen() {
+        cache.put(key1, 1, 60000);
+        cache.put(key2, 2, 60000);
+        cache.put(key3, 3, 60000);
+        cache.delete(key2);
+        long expirationTime = cache.getCacheEntry(key1).getExpirationTime();
+        cache.close();
+
+        cache = reopen();
+        assertCacheSize(2);
+        assertEntries(1, 3);
+        assertNoEntries(2);
+        CacheEntry<Integer> entry = cache.getCacheEntry(key1);
+        assertEquals("The expiration time should be preserved", expirationTime,
+                entry.getExpirationTime());
+    }
+
+    /**
+     * Test that writing more than the maximum number of segments compacts the oldest segments
+     * so the number of files stays bounded, while recent entries are retained.
+     */
+    @Test
+    public void testCompaction() {
+        int entries = 10 * MAX_SEGMENTS * SEGMENT_SIZE / 100;
+        populateCache(entries);
+        File[] files = directory.listFiles();
+        assertTrue("The number of segment files should be bounded",
+                files != null && files.length <= MAX_SEGMENTS + 1);
+        assertTrue("The cache should have evicted entries", cache.size() < entries);
+        assertEntries(entries, entries - 1);
+        assertNull("The oldest entry should have been evicted", cache.get(key1));
+
+        // Recovery after compaction gives the same contents
+        long size = cache.size();
+        cache.close();
+        cache = reopen();
+        assertCacheSize((int) size);
+        assertEntries(entries, entries - 1);
+    }
+}
@@ -14,21 +14,38 @@
 
 package com.cloudant.client.cache.tests.inprocess;
 
-
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
+import com.cloudant.client.cache.BulkExecutor;
+import com.cloudant.client.cache.CacheWarmer;
+import com.cloudant.client.cache.ManualTicker;
+import com.cloudant.client.cache.Util;
 import com.cloudant.client.cache.inprocess.InProcessCache;
 import com.cloudant.client.cache.inprocess.InProcessCacheStats;
 import com.cloudant.client.cache.tests.CacheWithLifetimesTests;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author ArunIyengar
  */
 public class InProcessCacheTests extends CacheWithLifetimesTests<InProcessCache<String, Integer>> {
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Override
     protected InProcessCache<String, Integer> getNewCacheInstance() {
         return new InProcessCache<>(DEFAULT_NUM_OBJECTS, DEFAULT_EXPIRATION);
@@ -42,4 +59,101 @@ public class InProcessCacheTests extends CacheWithLifetimesTests<InProcessCache<
                 .hitRate(), .0001);
     }
 
+    /**
+     * Test that missing and expired values are loaded and cached with the default lifetime.
+     */
+    @Test
+    public void testLoading() throws InterruptedException {
+        cache.put(key1, 1, 1);
+        Thread.sleep(10);
+        assertEquals("The expired value should be reloaded", Integer.valueOf(10), cache.get
+                (key1, key -> 10));
+        assertEquals("The loaded value should be cached", Integer.valueOf(10), cache.get(key1));
+        Map<String, Integer> values = cache.getAll(keys1to3, keys -> {
+            assertEquals("Only the missing keys should be loaded", Arrays.asList(key2, key3),
+                    keys);
+            return Collections.singletonMap(key2, 20);
+        });
+        assertEquals("The cached and loaded values should be returned", 2, values.size());
+        assertEquals("The loaded value should be cached", Integer.valueOf(20), cache.get(key2));
+        assertTrue("The loaded value should expire", cache.getCacheEntry(key2)
+                .getExpirationTime() <= Util.getTime() + DEFAULT_EXPIRATION);
+    }
+
+    /**
+     * Test that bulk operations processed in parallel chunks store and return every entry.
+     */
+    @Test
+    public void testParallelBulkOperations() {
+        cache.setBulkExecutor(new BulkExecutor(10, 7));
+        Map<String, Integer> map = new HashMap<String, Integer>();
+        for (int i = 0; i < 100; i++) {
+            map.put("bulk" + i, i);
+        }
+        cache.putAll(map);
+        assertEquals("Every entry should be stored", map, cache.getAll(new ArrayList<String>(map
+                .keySet())));
+    }
+
+    /**
+     * Test that entries expire when a manual ticker is advanced past their lifetime.
+     */
+    @Test
+    public void testManualTicker() {
+        ManualTicker ticker = new ManualTicker();
+        Util.setTicker(ticker);
+        try {
+            cache.put(key1, 1, 60000);
+            ticker.advance(59, TimeUnit.SECONDS);
+            assertEquals("The entry should not have expired", Integer.valueOf(1), cache.get(key1));
+            ticker.advance(2, TimeUnit.SECONDS);
+            assertNull("The entry should have expired", cache.get(key1));
+        } finally {
+            Util.setTicker(null);
+        }
+    }
+
+    /**
+     * Test that a cache given its own ticker expires entries by that ticker, without changing
+     * the time seen by other caches.
+     */
+    @Test
+    public void testCacheTicker() {
+        ManualTicker ticker = new ManualTicker();
+        InProcessCache<String, Integer> other = getNewCacheInstance();
+        cache.setTicker(ticker);
+        cache.put(key1, 1, 60000);
+        other.put(key1, 1, 60000);
+        ticker.advance(61, TimeUnit.SECONDS);
+        assertNull("The entry should have expired", cache.get(key1));
+        assertEquals("The other cache should use the system time", Integer.valueOf(1), other
+                .get(key1));
+        cache.setTicker(null);
+        cache.put(key1, 1, 60000);
+        assertEquals("The default ticker should be restored", Integer.valueOf(1), cache.get
+                (key1));
+    }
+
+    /**
+     * Test that exporting a snapshot and warming a new cache from it preserves the values and
+     * their remaining lifetimes.
+     *
+     * @throws Exception if the snapshot can not be written or read
+     */
+    @Test
+    public void testSnapshotWarmUp() throws Exception {
+        cache.put(key1, 1, 60000);
+        cache.put(key2, 2, 60000);
+        long expirationTime = cache.getCacheEntry(key1).getExpirationTime();
+        File file = folder.newFile();
+        assertEquals("Two entries should be exported", 2, cache.exportSnapshot(file, 10, true));
+
+        cache = getNewCacheInstance();
+        assertEquals("Two entries should be loaded", 2, new CacheWarmer(2, 1, 0).loadValues(file,
+                cache));
+        assertEntries(1, 2);
+        assertTrue("The remaining lifetime should be preserved",
+                Math.abs(cache.getCacheEntry(key1).getExpirationTime() - expirationTime) <= 1);
+    }
+
 }
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+
+package com.cloudant.client.cache.tests.inprocess;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import com.cloudant.client.cache.AccessTrace;
+import com.cloudant.client.cache.ManualTicker;
+import com.cloudant.client.cache.Ticker;
+import com.cloudant.client.cache.TraceSimulator;
+import com.cloudant.client.cache.Util;
+import com.cloudant.client.cache.inprocess.InProcessTraceSimulator;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for simulating the in-process caches with {@link InProcessTraceSimulator}.
+ */
+public class InProcessTraceSimulatorTests {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Test that entries expire in the simulation according to the times in the trace.
+     *
+     * @throws Exception if the trace can not be written or read
+     */
+    @Test
+    public void testLifetimes() throws Exception {
+        ManualTicker ticker = new ManualTicker();
+        File file = folder.newFile();
+        try (AccessTrace.Recorder recorder = AccessTrace.record(file, ticker)) {
+            for (int i = 0; i < 4; i++) {
+                recorder.record(AccessTrace.Operation.READ, "a");
+                ticker.advance(2, TimeUnit.MINUTES);
+            }
+        }
+
+        List<TraceSimulator.Result> results = InProcessTraceSimulator.create(new int[]{100},
+                new long[]{TimeUnit.MINUTES.toMillis(1), TimeUnit.MINUTES.toMillis(10)}).run
+                (file);
+        assertEquals("There should be a result for each engine and lifetime", 5, results.size());
+        for (TraceSimulator.Result result : results) {
+            int expectedHits = result.getEngine().endsWith(" 60s") ? 0 : 3;
+            assertEquals(result.getEngine() + " should hit unexpired entries", expectedHits,
+                    result.getHits());
+        }
+        assertSame("The simulation should not change the default ticker", Ticker.SYSTEM, Util
+                .getTicker());
+    }
+}
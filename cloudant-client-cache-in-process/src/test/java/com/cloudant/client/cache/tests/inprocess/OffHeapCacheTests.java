@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.cloudant.client.cache.tests.inprocess;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import com.cloudant.client.cache.CacheEntry;
+import com.cloudant.client.cache.inprocess.InProcessCacheStats;
+import com.cloudant.client.cache.inprocess.OffHeapCache;
+import com.cloudant.client.cache.tests.CacheWithLifetimesTests;
+
+import org.junit.Test;
+
+public class OffHeapCacheTests extends CacheWithLifetimesTests<OffHeapCache<String, Integer>> {
+
+    private static final int SLAB_COUNT = 4;
+    private static final int SLAB_SIZE = 64 * 1024;
+
+    @Override
+    protected OffHeapCache<String, Integer> getNewCacheInstance() {
+        return new OffHeapCache<>(SLAB_COUNT, SLAB_SIZE, DEFAULT_EXPIRATION);
+    }
+
+    @Test
+    public void testGetStatistics() {
+        super.testMultiplePutGet();
+        InProcessCacheStats stats1 = cache.getStatistics();
+        assertEquals("Hit rate should be 1.0", 1.0, stats1.getStats()
+                .hitRate(), .0001);
+    }
+
+    /**
+     * Test that an expired entry can still be retrieved as a CacheEntry for revalidation.
+     *
+     * @throws InterruptedException if the sleep is interrupted
+     */
+    @Test
+    public void testGetExpiredCacheEntry() throws InterruptedException {
+        cache.put(key1, 1, 1);
+        Thread.sleep(1 + LIFESPAN_TOLERANCE);
+        assertNoEntries(1);
+        CacheEntry<Integer> entry = cache.getCacheEntry(key1);
+        assertNotNull("The expired CacheEntry should still be present", entry);
+        assertEquals("The CacheEntry value should be correct", 1, entry.getValue().intValue());
+    }
+
+    /**
+     * Test that filling every slab recycles the oldest slab, evicting the oldest entries and
+     * keeping the newest ones.
+     */
+    @Test
+    public void testSlabRecycling() {
+        // Write several times more data than the slabs can hold
+        int entries = 4 * SLAB_COUNT * SLAB_SIZE / 100;
+        populateCache(entries);
+        assertTrue("The cache should have evicted entries", cache.size() < entries);
+        assertTrue("The cache should not be empty", cache.size() > 0);
+        assertEntries(entries, entries - 1);
+        assertNoEntries(1, 2);
+        assertTrue("Evictions should be recorded",
+                cache.getStatistics().getStats().evictionCount() > 0);
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.cloudant.client.cache.tests.inprocess;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.cloudant.client.cache.ManualTicker;
+import com.cloudant.client.cache.TieredCache;
+import com.cloudant.client.cache.inprocess.InProcessCache;
+import com.cloudant.client.cache.tests.CacheWithLifetimesTests;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class TieredCacheTests extends CacheWithLifetimesTests<TieredCache<String, Integer>> {
+
+    @Override
+    protected TieredCache<String, Integer> getNewCacheInstance() {
+        return new TieredCache<>(new InProcessCache<>(DEFAULT_NUM_OBJECTS, DEFAULT_EXPIRATION),
+                new InProcessCache<>(DEFAULT_NUM_OBJECTS, DEFAULT_EXPIRATION));
+    }
+
+    /**
+     * Test that a second level hit is promoted to the first level keeping its expiration time.
+     */
+    @Test
+    public void testPromotion() {
+        cache.getSecondLevel().put(key1, 1, 60000);
+        long expirationTime = cache.getSecondLevel().getCacheEntry(key1).getExpirationTime();
+        assertEntries(1);
+        assertEquals("The entry should be promoted to the first level", 1,
+                cache.getFirstLevel().get(key1).intValue());
+        long promotedExpirationTime = cache.getFirstLevel().getCacheEntry(key1)
+                .getExpirationTime();
+        assertTrue("The promoted entry should keep its expiration time",
+                Math.abs(promotedExpirationTime - expirationTime) <= 1);
+    }
+
+    /**
+     * Test that a promoted entry keeps its expiration time when the cache reads the time from
+     * its own ticker.
+     */
+    @Test
+    public void testPromotionTicker() {
+        ManualTicker ticker = new ManualTicker();
+        cache.setTicker(ticker);
+        cache.getSecondLevel().put(key1, 1, 60000);
+        long expirationTime = cache.getSecondLevel().getCacheEntry(key1).getExpirationTime();
+        ticker.advance(30, TimeUnit.SECONDS);
+        assertEntries(1);
+        assertEquals("The promoted entry should keep its expiration time", expirationTime, cache
+                .getFirstLevel().getCacheEntry(key1).getExpirationTime());
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.cloudant.client.cache.redis;
+
+import com.cloudant.client.cache.CacheEntry;
+import com.cloudant.client.cache.DeflateCodec;
+import com.cloudant.client.cache.Serializer;
+
+import java.nio.charset.StandardCharsets;
+
+/*
+ * Converts cache entries to and from the values stored in Redis, shared by the Redis cache
+ * implementations so they can read each other's data.
+ *
+ * A value is the byte 'E', the expiration time as 19 zero-padded decimal digits and then the
+ * serialized cache value encoded by DeflateCodec. The expiration time is readable without
+ * deserializing the value, including by Lua scripts running in Redis. Values written by earlier
+ * versions, a serialized CacheEntry optionally encoded by DeflateCodec, can still be read.
+ */
+final class CacheEntryCodec {
+
+    static final byte EXPIRING = 'E';
+    static final int EXPIRATION_DIGITS = 19;
+    static final int HEADER_LENGTH = 1 + EXPIRATION_DIGITS;
+
+    /*
+     * Lua script returning the values of KEYS, with false in place of missing values and values
+     * which expired before the time in ARGV[1].
+     */
+    static final String GET_UNEXPIRED_SCRIPT =
+            "local now = tonumber(ARGV[1])\n" +
+            "local values = {}\n" +
+            "for i, key in ipairs(KEYS) do\n" +
+            "  local value = redis.call('GET', key)\n" +
+            "  if value and string.byte(value, 1) == " + EXPIRING + " and\n" +
+            "      tonumber(string.sub(value, 2, " + HEADER_LENGTH + ")) < now then\n" +
+            "    value = false\n" +
+            "  end\n" +
+            "  values[i] = value\n" +
+            "end\n" +
+            "return values\n";
+
+    private CacheEntryCodec() {
+    }
+
+    /*
+     * Serialize a cache entry, compressing the value if a codec is given.
+     */
+    static byte[] encode(CacheEntry<?> cacheEntry, DeflateCodec codec) {
+        byte[] serialized = Serializer.serializeToByteArray(cacheEntry.getValue());
+        if (serialized == null) {
+            return null;
+        }
+        byte[] payload;
+        if (codec != null) {
+            payload = codec.encode(serialized);
+        } else {
+            payload = new byte[serialized.length + 1];
+            payload[0] = DeflateCodec.UNCOMPRESSED;
+            System.arraycopy(serialized, 0, payload, 1, serialized.length);
+        }
+        String expiration = String.format("%0" + EXPIRATION_DIGITS + "d", Math.max(0,
+                cacheEntry.getExpirationTime()));
+        byte[] rawValue = new byte[HEADER_LENGTH + payload.length];
+        rawValue[0] = EXPIRING;
+        System.arraycopy(expiration.getBytes(StandardCharsets.US_ASCII), 0, rawValue, 1,
+                EXPIRATION_DIGITS);
+        System.arraycopy(payload, 0, rawValue, HEADER_LENGTH, payload.length);
+        return rawValue;
+    }
+
+    /*
+     * Return the expiration time in the header of a value, or null if the value was written by
+     * an earlier version without a header.
+     */
+    static Long expirationTime(byte[] rawValue) {
+        if (rawValue.length < HEADER_LENGTH || rawValue[0] != EXPIRING) {
+            return null;
+        }
+        long expirationTime = 0;
+        for (int i = 1; i < HEADER_LENGTH; i++) {
+            expirationTime = expirationTime * 10 + (rawValue[i] - '0');
+        }
+        return expirationTime;
+    }
+
+    /*
+     * Deserialize a cache entry written by encode or by an earlier version.
+     */
+    static <V> CacheEntry<V> decode(byte[] rawValue) {
+        Long expirationTime = expirationTime(rawValue);
+        if (expirationTime != null) {
+            byte[] payload = new byte[rawValue.length - HEADER_LENGTH];
+            System.arraycopy(rawValue, HEADER_LENGTH, payload, 0, payload.length);
+            byte[] serialized = DeflateCodec.decode(payload);
+            if (serialized == null) {
+                return null;
+            }
+            V value = Serializer.deserializeFromByteArray(serialized);
+            return new CacheEntry<V>(value, expirationTime);
+        }
+        // Plain Java serialization streams start with the magic number 0xACED, which can not be
+        // confused with the codec's header byte
+        if (rawValue.length > 0 && rawValue[0] != (byte) 0xAC) {
+            rawValue = DeflateCodec.decode(rawValue);
+            if (rawValue == null) {
+                return null;
+            }
+        }
+        return Serializer.deserializeFromByteArray(rawValue);
+    }
+
+    /*
+     * Return the value of an entry if it has not expired at the specified time, checking the
+     * header before deserializing the value.
+     */
+    static <V> V decodeIfUnexpired(byte[] rawValue, long currentTime) {
+        Long expirationTime = expirationTime(rawValue);
+        if (expirationTime != null && expirationTime < currentTime) {
+            return null;
+        }
+        CacheEntry<V> cacheEntry = decode(rawValue);
+        if (cacheEntry == null || cacheEntry.getExpirationTime() < currentTime) {
+            return null;
+        }
+        return cacheEntry.getValue();
+    }
+}
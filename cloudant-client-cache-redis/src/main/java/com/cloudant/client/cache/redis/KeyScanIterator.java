@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.cloudant.client.cache.redis;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
+import redis.clients.util.SafeEncoder;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/*
+ * Iterates over the keys of a Redis database with a given prefix in batches, using SCAN so that
+ * Redis is not blocked as it is by KEYS. As for SCAN, a key may be returned more than once and
+ * keys added or removed during the iteration may or may not be returned.
+ */
+final class KeyScanIterator implements Iterator<List<byte[]>> {
+
+    private final Jedis jedis;
+    private final ScanParams params;
+    private byte[] cursor = ScanParams.SCAN_POINTER_START_BINARY;
+    private boolean started;
+    private List<byte[]> next;
+
+    KeyScanIterator(Jedis jedis, byte[] keyPrefix, int batchSize) {
+        this.jedis = jedis;
+        this.params = new ScanParams().count(batchSize);
+        if (keyPrefix.length > 0) {
+            params.match(matchPattern(keyPrefix));
+        }
+    }
+
+    /*
+     * A SCAN pattern matching keys with the prefix, with glob characters escaped.
+     */
+    static byte[] matchPattern(byte[] keyPrefix) {
+        StringBuilder pattern = new StringBuilder();
+        for (char c : SafeEncoder.encode(keyPrefix).toCharArray()) {
+            if ("*?[]\\".indexOf(c) >= 0) {
+                pattern.append('\\');
+            }
+            pattern.append(c);
+        }
+        return SafeEncoder.encode(pattern.append('*').toString());
+    }
+
+    @Override
+    public boolean hasNext() {
+        // SCAN may return empty batches before the end of the iteration
+        while (next == null || next.isEmpty()) {
+            if (started && Arrays.equals(cursor, ScanParams.SCAN_POINTER_START_BINARY)) {
+                return false;
+            }
+            started = true;
+            ScanResult<byte[]> result = jedis.scan(cursor, params);
+            cursor = result.getCursorAsBytes();
+            next = result.getResult();
+        }
+        return true;
+    }
+
+    @Override
+    public List<byte[]> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        List<byte[]> batch = next;
+        next = null;
+        return batch;
+    }
+}
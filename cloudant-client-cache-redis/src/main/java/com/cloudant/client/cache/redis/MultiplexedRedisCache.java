@@ -0,0 +1,415 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+
+package com.cloudant.client.cache.redis;
+
+import com.cloudant.client.cache.CacheEntry;
+import com.cloudant.client.cache.CacheWithLifetimes;
+import com.cloudant.client.cache.DeflateCodec;
+import com.cloudant.client.cache.LoadingCache;
+import com.cloudant.client.cache.Serializer;
+import com.cloudant.client.cache.SingleFlightLoader;
+import com.cloudant.client.cache.Ticker;
+import com.cloudant.client.cache.Util;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Protocol;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * <P>
+ * A cache using a Redis instance as the store which is shared by many threads over a few
+ * connections. Each connection has a dispatcher thread which sends the commands queued by all
+ * threads in pipelined batches, so thousands of concurrent requests share a handful of sockets
+ * and round trips, where a {@link RedisCache} needs a connection per thread. Calling threads wait
+ * for their replies without holding monitors, so virtual threads do not pin their carrier
+ * threads while waiting.
+ * </P>
+ * <P>
+ * Values are stored in the same format as {@link RedisCache}, so the two can share data. Unlike
+ * {@link RedisCache}, expired values are filtered out after they are fetched from Redis rather
+ * than by a script running in Redis.
+ * </P>
+ * <P>
+ * Every key in the Redis database must be a key of this cache. The cache must be closed to stop
+ * its dispatcher threads and close its connections.
+ * </P>
+ *
+ * @param <K> the type of the cache keys
+ * @param <V> the type of the cache values
+ */
+public class MultiplexedRedisCache<K, V> implements CacheWithLifetimes<K, V>, LoadingCache<K,
+        V>, AutoCloseable {
+
+    /**
+     * The default maximum number of commands sent in one pipelined batch.
+     */
+    public static final int DEFAULT_MAX_BATCH = 256;
+
+    private static final int SCAN_BATCH_SIZE = 1000;
+
+    private final PipelinedConnection[] connections;
+    private final AtomicInteger nextConnection = new AtomicInteger();
+    private final SingleFlightLoader<K, V> loader = new SingleFlightLoader<K, V>(this);
+    private long defaultLifetime;  // default object lifetime in milliseconds
+    private volatile int lifetimeJitter;  // percentage to randomly shorten lifetimes by
+    private volatile Ticker ticker = Ticker.DEFAULT;
+    private volatile DeflateCodec codec;  // null if values are not compressed
+
+    /**
+     * Create a cache connected to Redis at the specified host &amp; port.
+     *
+     * @param host            Redis host
+     * @param port            Redis port
+     * @param connections     number of connections to Redis
+     * @param defaultLifespan Default life time in milliseconds for cached objects
+     */
+    public MultiplexedRedisCache(String host, int port, int connections, long defaultLifespan) {
+        this(host, port, Protocol.DEFAULT_TIMEOUT, connections, DEFAULT_MAX_BATCH,
+                defaultLifespan);
+    }
+
+    /**
+     * Create a cache connected to Redis at the specified host &amp; port.
+     *
+     * @param host            Redis host
+     * @param port            Redis port
+     * @param timeout         connection and socket timeout in milliseconds
+     * @param connections     number of connections to Redis
+     * @param maxBatch        maximum number of commands to send in one pipelined batch
+     * @param defaultLifespan Default life time in milliseconds for cached objects
+     * @throws IllegalArgumentException if the number of connections or maximum batch size is
+     *                                  less than 1
+     */
+    public MultiplexedRedisCache(String host, int port, int timeout, int connections, int
+            maxBatch, long defaultLifespan) {
+        if (connections < 1 || maxBatch < 1) {
+            throw new IllegalArgumentException("The number of connections and maximum batch " +
+                    "size must be positive");
+        }
+        this.connections = new PipelinedConnection[connections];
+        for (int i = 0; i < connections; i++) {
+            this.connections[i] = new PipelinedConnection(() -> new Jedis(host, port, timeout),
+                    maxBatch, "MultiplexedRedisCache " + host + ":" + port + " #" + i);
+        }
+        defaultLifetime = defaultLifespan;
+    }
+
+    /**
+     * Compress values stored in Redis whose serialized size is at least the specified number of
+     * bytes, as for {@link RedisCache#setCompressionThreshold(int)}.
+     *
+     * @param threshold minimum serialized size in bytes of values to compress, or a negative
+     *                  number to disable compression
+     */
+    public void setCompressionThreshold(int threshold) {
+        codec = (threshold < 0) ? null : new DeflateCodec(threshold);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setLifetimeJitter(int percent) {
+        if (percent < 0 || percent > 100) {
+            throw new IllegalArgumentException("The lifetime jitter must be from 0 to 100 " +
+                    "percent");
+        }
+        lifetimeJitter = percent;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setTicker(Ticker ticker) {
+        this.ticker = (ticker == null) ? Ticker.DEFAULT : ticker;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+        connection().execute(pipeline -> pipeline.flushDB());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void delete(K key) {
+        connection().execute(pipeline -> pipeline.del(redisKey(key)));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void deleteAll(List<K> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        byte[][] redisKeys = redisKeys(keys);
+        connection().execute(pipeline -> pipeline.del(redisKeys));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <P>
+     * The keys are found incrementally with {@code SCAN} and the values fetched with one
+     * {@code MGET} per batch of keys. As for {@code SCAN}, an entry may be returned more than
+     * once and entries added or deleted while the stream is consumed may or may not be
+     * returned.
+     * </P>
+     */
+    @Override
+    public Stream<Map.Entry<K, CacheEntry<V>>> entries() {
+        long currentTime = ticker.currentTimeMillis();
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new EntryIterator(),
+                Spliterator.NONNULL), false)
+                .filter(entry -> entry.getValue().getExpirationTime() >= currentTime);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V get(K key) {
+        byte[] rawValue = connection().execute(pipeline -> pipeline.get(redisKey(key)));
+        return (rawValue == null) ? null : CacheEntryCodec.decodeIfUnexpired(rawValue,
+                ticker.currentTimeMillis());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<K, V> getAll(List<K> keys) {
+        Map<K, V> hashMap = new HashMap<K, V>();
+        if (keys.isEmpty()) {
+            return hashMap;
+        }
+        byte[][] redisKeys = redisKeys(keys);
+        List<byte[]> rawValues = connection().execute(pipeline -> pipeline.mget(redisKeys));
+        long currentTime = ticker.currentTimeMillis();
+        for (int i = 0; i < keys.size(); i++) {
+            byte[] rawValue = rawValues.get(i);
+            V value = (rawValue == null) ? null : CacheEntryCodec.decodeIfUnexpired(rawValue,
+                    currentTime);
+            if (value != null) {
+                hashMap.put(keys.get(i), value);
+            }
+        }
+        return hashMap;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        return this.loader.get(key, loader);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<K, V> getAll(List<K> keys, Function<? super List<K>, ? extends Map<K, V>>
+            bulkLoader) {
+        return loader.getAll(keys, bulkLoader);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CacheEntry<V> getCacheEntry(K key) {
+        byte[] rawValue = connection().execute(pipeline -> pipeline.get(redisKey(key)));
+        return (rawValue == null) ? null : CacheEntryCodec.<V>decode(rawValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <P>
+     * For Redis, cache statistics are contained in a string.  The string is
+     * returned by {@link RedisCacheStats#getStats()}.
+     * </P>
+     */
+    @Override
+    public RedisCacheStats getStatistics() {
+        return new RedisCacheStats(connection().executeDirect(Jedis::info));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void put(K key, V value) {
+        put(key, value, defaultLifetime);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void put(K key, V value, long lifetime) {
+        byte[] redisKey = redisKey(key);
+        byte[] rawValue = CacheEntryCodec.encode(new CacheEntry<V>(value, Util.jitter(lifetime,
+                lifetimeJitter) + ticker.currentTimeMillis()), codec);
+        connection().execute(pipeline -> pipeline.set(redisKey, rawValue));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void putAll(Map<K, V> map) {
+        putAll(map, defaultLifetime);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void putAll(Map<K, V> map, long lifetime) {
+        if (map.isEmpty()) {
+            return;
+        }
+        long currentTime = ticker.currentTimeMillis();
+        int jitter = lifetimeJitter;
+        DeflateCodec currentCodec = codec;
+        byte[][] keysAndValues = new byte[map.size() * 2][];
+        int i = 0;
+        for (Map.Entry<K, V> entry : map.entrySet()) {
+            keysAndValues[i++] = redisKey(entry.getKey());
+            keysAndValues[i++] = CacheEntryCodec.encode(new CacheEntry<V>(entry.getValue(),
+                    currentTime + Util.jitter(lifetime, jitter)), currentCodec);
+        }
+        connection().execute(pipeline -> pipeline.mset(keysAndValues));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long size() {
+        return connection().execute(pipeline -> pipeline.dbSize());
+    }
+
+    /**
+     * Stop the dispatcher threads and close the connections to Redis. Commands which have not
+     * been sent fail with an {@link IllegalStateException}.
+     */
+    @Override
+    public void close() {
+        for (PipelinedConnection connection : connections) {
+            connection.close();
+        }
+    }
+
+    /**
+     * Return string summarizing the cache. The contents are not included as they may be very
+     * large.
+     *
+     * @return string containing output
+     */
+    public String toString() {
+        return "MultiplexedRedisCache with " + size() + " entries over " + connections.length +
+                " connections";
+    }
+
+    private PipelinedConnection connection() {
+        return connections[Math.floorMod(nextConnection.getAndIncrement(), connections.length)];
+    }
+
+    private static byte[] redisKey(Object key) {
+        return Serializer.serializeToByteArray(key);
+    }
+
+    private byte[][] redisKeys(List<K> keys) {
+        byte[][] redisKeys = new byte[keys.size()][];
+        for (int i = 0; i < redisKeys.length; i++) {
+            redisKeys[i] = redisKey(keys.get(i));
+        }
+        return redisKeys;
+    }
+
+    /*
+     * Iterates over the entries with SCAN and MGET. The SCAN runs on one connection's dispatcher
+     * thread, which owns the connection the scan cursor belongs to.
+     */
+    private final class EntryIterator implements Iterator<Map.Entry<K, CacheEntry<V>>> {
+
+        private final PipelinedConnection connection = connection();
+        private KeyScanIterator batches;
+        private Iterator<Map.Entry<K, CacheEntry<V>>> current = Collections.emptyIterator();
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                List<byte[]> batch = connection.executeDirect(jedis -> {
+                    if (batches == null) {
+                        batches = new KeyScanIterator(jedis, new byte[0], SCAN_BATCH_SIZE);
+                    }
+                    return batches.hasNext() ? batches.next() : null;
+                });
+                if (batch == null) {
+                    return false;
+                }
+                byte[][] keys = batch.toArray(new byte[batch.size()][]);
+                List<byte[]> rawValues = connection.execute(pipeline -> pipeline.mget(keys));
+                List<Map.Entry<K, CacheEntry<V>>> entries = new ArrayList<Map.Entry<K,
+                        CacheEntry<V>>>(keys.length);
+                for (int i = 0; i < keys.length; i++) {
+                    // Skip keys deleted since the scan and values which can not be read
+                    CacheEntry<V> cacheEntry = (rawValues.get(i) == null) ? null :
+                            CacheEntryCodec.<V>decode(rawValues.get(i));
+                    K key = (cacheEntry == null) ? null : Serializer.<K>deserializeFromByteArray
+                            (keys[i]);
+                    if (key != null) {
+                        entries.add(new AbstractMap.SimpleImmutableEntry<K, CacheEntry<V>>(key,
+                                cacheEntry));
+                    }
+                }
+                current = entries.iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public Map.Entry<K, CacheEntry<V>> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+
+package com.cloudant.client.cache.redis;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/*
+ * A Redis connection shared by many threads. Commands are queued and sent by a dispatcher thread
+ * which owns the connection: it takes every command queued while the previous batch was in
+ * flight, up to maxBatch, sends them in one pipeline and completes each command's future with
+ * its reply. Callers wait on the future, which parks the thread rather than holding a monitor,
+ * so waiting virtual threads do not pin their carrier threads.
+ *
+ * Commands which can not be pipelined, such as SCAN, are run directly on the connection after
+ * the pipelined commands of their batch. If the connection fails the commands of the batch fail
+ * and a new connection is made for the next batch.
+ */
+final class PipelinedConnection implements AutoCloseable {
+
+    private final Supplier<Jedis> connector;
+    private final int maxBatch;
+    private final BlockingQueue<Request<?>> queue = new LinkedBlockingQueue<Request<?>>();
+    private final Thread dispatcher;
+    private volatile boolean closed;
+    private Jedis jedis;  // only used by the dispatcher thread
+
+    PipelinedConnection(Supplier<Jedis> connector, int maxBatch, String name) {
+        this.connector = connector;
+        this.maxBatch = maxBatch;
+        this.dispatcher = new Thread(this::run, name);
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    /*
+     * Send a pipelined command and wait for its reply.
+     */
+    <T> T execute(Function<Pipeline, Response<T>> command) {
+        return await(new Request<T>(command, null));
+    }
+
+    /*
+     * Run a command directly on the connection and wait for its result.
+     */
+    <T> T executeDirect(Function<Jedis, T> command) {
+        return await(new Request<T>(null, command));
+    }
+
+    /*
+     * Stop the dispatcher, failing any queued commands, and close the connection.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        dispatcher.interrupt();
+    }
+
+    private <T> T await(Request<T> request) {
+        if (closed) {
+            throw new IllegalStateException("The connection is closed");
+        }
+        queue.add(request);
+        if (closed) {
+            // The dispatcher may have stopped before the request was added
+            failQueued();
+        }
+        try {
+            return request.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private void run() {
+        List<Request<?>> batch = new ArrayList<Request<?>>(maxBatch);
+        try {
+            while (!closed) {
+                batch.add(queue.take());
+                queue.drainTo(batch, maxBatch - 1);
+                send(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            // Closed
+        } finally {
+            failQueued();
+            if (jedis != null) {
+                jedis.close();
+            }
+        }
+    }
+
+    private void send(List<Request<?>> batch) {
+        try {
+            if (jedis == null) {
+                jedis = connector.get();
+            }
+            Pipeline pipeline = jedis.pipelined();
+            List<Response<?>> replies = new ArrayList<Response<?>>(batch.size());
+            for (Request<?> request : batch) {
+                replies.add((request.command == null) ? null : request.command.apply(pipeline));
+            }
+            pipeline.sync();
+            for (int i = 0; i < batch.size(); i++) {
+                Request<?> request = batch.get(i);
+                if (request.command != null) {
+                    request.completeWith(replies.get(i)::get);
+                } else {
+                    request.completeWith(() -> request.directCommand.apply(jedis));
+                }
+            }
+        } catch (RuntimeException e) {
+            if (e instanceof JedisConnectionException && jedis != null) {
+                try {
+                    jedis.close();
+                } catch (RuntimeException closeFailure) {
+                    // The connection is already broken
+                }
+                jedis = null;
+            }
+            for (Request<?> request : batch) {
+                request.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void failQueued() {
+        Request<?> request;
+        while ((request = queue.poll()) != null) {
+            request.result.completeExceptionally(new IllegalStateException("The connection is " +
+                    "closed"));
+        }
+    }
+
+    private static final class Request<T> {
+
+        final Function<Pipeline, Response<T>> command;
+        final Function<Jedis, T> directCommand;
+        final CompletableFuture<T> result = new CompletableFuture<T>();
+
+        Request(Function<Pipeline, Response<T>> command, Function<Jedis, T> directCommand) {
+            this.command = command;
+            this.directCommand = directCommand;
+        }
+
+        /*
+         * Complete with the reply, or with the error reply Redis returned for this command.
+         * Connection failures are thrown so the rest of the batch fails too.
+         */
+        void completeWith(Supplier<?> reply) {
+            try {
+                @SuppressWarnings("unchecked")
+                T value = (T) reply.get();
+                result.complete(value);
+            } catch (JedisConnectionException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+}
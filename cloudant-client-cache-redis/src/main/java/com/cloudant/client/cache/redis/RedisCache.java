@@ -15,27 +15,51 @@
 package com.cloudant.client.cache.redis;
 
 
+import com.cloudant.client.cache.BulkExecutor;
 import com.cloudant.client.cache.CacheEntry;
 import com.cloudant.client.cache.CacheWithLifetimes;
+import com.cloudant.client.cache.DeflateCodec;
+import com.cloudant.client.cache.LoadingCache;
 import com.cloudant.client.cache.Serializer;
+import com.cloudant.client.cache.SingleFlightLoader;
+import com.cloudant.client.cache.Ticker;
 import com.cloudant.client.cache.Util;
 
-import org.springframework.data.redis.serializer.StringRedisSerializer;
-
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.util.SafeEncoder;
 
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * @author ArunIyengar
  */
-public class RedisCache<K, V> implements CacheWithLifetimes<K, V> {
+public class RedisCache<K, V> implements CacheWithLifetimes<K, V>, LoadingCache<K, V> {
+
+    private static final int SCAN_BATCH_SIZE = 1000;
 
     private Jedis cache;
     private long defaultLifetime;  // default object lifetime in millisecods
+    private volatile int lifetimeJitter;  // percentage to randomly shorten lifetimes by
+    private volatile Ticker ticker = Ticker.DEFAULT;
+    private volatile BulkExecutor bulkExecutor = BulkExecutor.SEQUENTIAL;
+    private byte[] keyPrefix = new byte[0];
+    private volatile DeflateCodec codec;  // null if values are not compressed
+    private byte[] scriptSha;  // SHA1 of the loaded GET_UNEXPIRED_SCRIPT
+    private final SingleFlightLoader<K, V> loader = new SingleFlightLoader<K, V>(this);
 
 
     /**
@@ -92,13 +116,154 @@ public class RedisCache<K, V> implements CacheWithLifetimes<K, V> {
         defaultLifetime = defaultLifespan;
     }
 
+    /**
+     * Constructor in which already-created Jedis instance is passed in to be used as underlying
+     * cache, and every key stored in Redis starts with the specified prefix. This allows several
+     * caches, or a cache and other applications, to share a Redis database: {@link #clear()} and
+     * {@link #size()} only apply to keys with the prefix.
+     *
+     * @param jedisCache      Existing Jedis instance to be used as underlying cache
+     * @param keyPrefix       Prefix of every key stored in Redis
+     * @param defaultLifespan Default life time in milliseconds for cached objects
+     */
+    public RedisCache(Jedis jedisCache, String keyPrefix, long defaultLifespan) {
+        cache = jedisCache;
+        this.keyPrefix = SafeEncoder.encode(keyPrefix);
+        defaultLifetime = defaultLifespan;
+    }
+
+
+    /**
+     * Compress values stored in Redis whose serialized size is at least the specified number of
+     * bytes. Values are compressed with deflate at the fastest compression level, which reduces
+     * network traffic and Redis memory for large values such as JSON documents.
+     * <P>
+     * Compression is disabled by default. Values are readable regardless of whether they were
+     * written with compression enabled, so the threshold can be changed at any time.
+     * </P>
+     *
+     * @param threshold minimum serialized size in bytes of values to compress, or a negative
+     *                  number to disable compression
+     */
+    public void setCompressionThreshold(int threshold) {
+        codec = (threshold < 0) ? null : new DeflateCodec(threshold);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setLifetimeJitter(int percent) {
+        if (percent < 0 || percent > 100) {
+            throw new IllegalArgumentException("The lifetime jitter must be from 0 to 100 " +
+                    "percent");
+        }
+        lifetimeJitter = percent;
+    }
 
     /**
      * {@inheritDoc}
      */
     @Override
+    public void setTicker(Ticker ticker) {
+        this.ticker = (ticker == null) ? Ticker.DEFAULT : ticker;
+    }
+
+    /**
+     * Set the executor which serializes and deserializes the entries of bulk operations in
+     * parallel. Each bulk operation is still sent to Redis as a single command over the one
+     * connection. By default bulk operations run on the calling thread.
+     *
+     * @param bulkExecutor the executor
+     * @see BulkExecutor
+     */
+    public void setBulkExecutor(BulkExecutor bulkExecutor) {
+        this.bulkExecutor = bulkExecutor;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <P>
+     * If the cache has a key prefix the keys with the prefix are found with {@code SCAN} and
+     * deleted in batches, so other clients of Redis are not blocked. Otherwise the whole Redis
+     * database is flushed.
+     * </P>
+     */
+    @Override
     public void clear() {
-        cache.flushDB();
+        if (keyPrefix.length == 0) {
+            cache.flushDB();
+            return;
+        }
+        KeyScanIterator batches = new KeyScanIterator(cache, keyPrefix, SCAN_BATCH_SIZE);
+        while (batches.hasNext()) {
+            List<byte[]> batch = batches.next();
+            cache.del(batch.toArray(new byte[batch.size()][]));
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <P>
+     * The entries are read with {@link #iterator(int)}, so the same caveats apply.
+     * </P>
+     */
+    @Override
+    public Stream<Map.Entry<K, CacheEntry<V>>> entries() {
+        long currentTime = ticker.currentTimeMillis();
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator
+                (SCAN_BATCH_SIZE), Spliterator.NONNULL), false)
+                .filter(entry -> entry.getValue().getExpirationTime() >= currentTime);
+    }
+
+    /**
+     * Iterate over the entries of the cache, including expired entries which have not been
+     * deleted. The keys are found incrementally with {@code SCAN}, so other clients of Redis are
+     * not blocked, and the values are fetched with one {@code MGET} per batch of keys.
+     * <P>
+     * As for {@code SCAN}, an entry may be returned more than once and entries added or deleted
+     * during the iteration may or may not be returned. If the cache has no key prefix every key
+     * in the Redis database must be a key of this cache.
+     * </P>
+     *
+     * @param batchSize the approximate number of keys to fetch from Redis at a time
+     * @return iterator over the cache keys and entries
+     */
+    public Iterator<Map.Entry<K, CacheEntry<V>>> iterator(int batchSize) {
+        final KeyScanIterator batches = new KeyScanIterator(cache, keyPrefix, batchSize);
+        return new Iterator<Map.Entry<K, CacheEntry<V>>>() {
+            private Iterator<Map.Entry<K, CacheEntry<V>>> current = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && batches.hasNext()) {
+                    List<byte[]> batch = batches.next();
+                    List<byte[]> rawValues = cache.mget(batch.toArray(new byte[batch.size()][]));
+                    List<Map.Entry<K, CacheEntry<V>>> entries = new ArrayList<Map.Entry<K,
+                            CacheEntry<V>>>(batch.size());
+                    for (int i = 0; i < batch.size(); i++) {
+                        // Skip keys deleted since the scan and values which can not be read
+                        CacheEntry<V> cacheEntry = (rawValues.get(i) == null) ? null : decode
+                                (rawValues.get(i));
+                        K key = (cacheEntry == null) ? null : cacheKey(batch.get(i));
+                        if (key != null) {
+                            entries.add(new AbstractMap.SimpleImmutableEntry<K, CacheEntry<V>>
+                                    (key, cacheEntry));
+                        }
+                    }
+                    current = entries.iterator();
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public Map.Entry<K, CacheEntry<V>> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
     }
 
     /**
@@ -113,7 +278,7 @@ public class RedisCache<K, V> implements CacheWithLifetimes<K, V> {
      */
     @Override
     public void delete(K key) {
-        cache.del(Serializer.serializeToByteArray(key));
+        cache.del(redisKey(key));
     }
 
     /**
@@ -121,9 +286,10 @@ public class RedisCache<K, V> implements CacheWithLifetimes<K, V> {
      */
     @Override
     public void deleteAll(List<K> keys) {
-        for (K key : keys) {
-            cache.del(Serializer.serializeToByteArray(key));
+        if (keys.isEmpty()) {
+            return;
         }
+        cache.del(serializeKeys(keys));
     }
 
     /**
@@ -140,41 +306,111 @@ public class RedisCache<K, V> implements CacheWithLifetimes<K, V> {
      */
     @Override
     public V get(K key) {
-        CacheEntry<V> cacheEntry = getCacheEntry(key);
-        if (cacheEntry == null) {
+        byte[] rawValue = getUnexpired(new byte[][]{redisKey(key)}).get(0);
+        if (rawValue == null) {
             return null;
         }
-        if (cacheEntry.getExpirationTime() >= Util.getTime()) {
-            return cacheEntry.getValue();
-        }
-        return null;
+        return CacheEntryCodec.decodeIfUnexpired(rawValue, ticker.currentTimeMillis());
     }
 
     /**
      * {@inheritDoc}
+     * <P>
+     * Expired entries are filtered out by a Lua script running in Redis, so they are neither
+     * transferred nor deserialized.
+     * </P>
      */
     @Override
+    @SuppressWarnings("unchecked")
     public Map<K, V> getAll(List<K> keys) {
         Map<K, V> hashMap = new HashMap<K, V>();
-        for (K key : keys) {
-            V value = get(key);
-            if (value != null) {
-                hashMap.put(key, value);
+        if (keys.isEmpty()) {
+            return hashMap;
+        }
+        List<byte[]> rawValues = getUnexpired(serializeKeys(keys));
+        long currentTime = ticker.currentTimeMillis();
+        Object[] values = new Object[keys.size()];
+        bulkExecutor.forEachRange(values.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                byte[] rawValue = rawValues.get(i);
+                if (rawValue != null) {
+                    values[i] = CacheEntryCodec.decodeIfUnexpired(rawValue, currentTime);
+                }
+            }
+        });
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                hashMap.put(keys.get(i), (V) values[i]);
             }
         }
         return hashMap;
     }
 
+    /*
+     * Get the raw values of keys, with null for missing and expired values, by running
+     * CacheEntryCodec.GET_UNEXPIRED_SCRIPT. The script is loaded into Redis on first use and
+     * again if Redis has discarded it.
+     */
+    private List<byte[]> getUnexpired(byte[][] keys) {
+        List<byte[]> args = Collections.singletonList(SafeEncoder.encode(Long.toString(ticker
+                .currentTimeMillis())));
+        Object result;
+        try {
+            if (scriptSha == null) {
+                scriptSha = cache.scriptLoad(SafeEncoder.encode(CacheEntryCodec
+                        .GET_UNEXPIRED_SCRIPT));
+            }
+            result = cache.evalsha(scriptSha, Arrays.asList(keys), args);
+        } catch (JedisDataException e) {
+            if (e.getMessage() == null || !e.getMessage().startsWith("NOSCRIPT")) {
+                throw e;
+            }
+            scriptSha = cache.scriptLoad(SafeEncoder.encode(CacheEntryCodec
+                    .GET_UNEXPIRED_SCRIPT));
+            result = cache.evalsha(scriptSha, Arrays.asList(keys), args);
+        }
+        List<byte[]> rawValues = new ArrayList<byte[]>(keys.length);
+        for (Object rawValue : (List<?>) result) {
+            rawValues.add((byte[]) rawValue);
+        }
+        return rawValues;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <P>
+     * Loads are coordinated between the threads using this instance, not between separate
+     * instances or processes sharing the Redis database.
+     * </P>
+     */
+    @Override
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        return this.loader.get(key, loader);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <P>
+     * Loads are coordinated between the threads using this instance, not between separate
+     * instances or processes sharing the Redis database.
+     * </P>
+     */
+    @Override
+    public Map<K, V> getAll(List<K> keys, Function<? super List<K>, ? extends Map<K, V>>
+            bulkLoader) {
+        return loader.getAll(keys, bulkLoader);
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public CacheEntry<V> getCacheEntry(K key) {
-        byte[] rawValue = cache.get(Serializer.serializeToByteArray(key));
+        byte[] rawValue = cache.get(redisKey(key));
         if (rawValue == null) {
             return null;
         }
-        return Serializer.deserializeFromByteArray(rawValue);
+        return decode(rawValue);
     }
 
     /**
@@ -220,18 +456,52 @@ public class RedisCache<K, V> implements CacheWithLifetimes<K, V> {
      */
     @Override
     public void put(K key, V value, long lifetime) {
-        CacheEntry<V> cacheEntry = new CacheEntry<V>(value, lifetime
-                + Util.getTime());
+        CacheEntry<V> cacheEntry = new CacheEntry<V>(value, Util.jitter(lifetime,
+                lifetimeJitter) + ticker.currentTimeMillis());
         put(key, cacheEntry);
     }
 
     private void put(K key, CacheEntry<V> cacheEntry) {
-        byte[] array1 = Serializer.serializeToByteArray(key);
-        byte[] array2 = Serializer.serializeToByteArray(cacheEntry);
+        byte[] array1 = redisKey(key);
+        byte[] array2 = encode(cacheEntry);
         cache.set(array1, array2);
 
     }
 
+    private byte[] redisKey(K key) {
+        byte[] serialized = Serializer.serializeToByteArray(key);
+        if (keyPrefix.length == 0) {
+            return serialized;
+        }
+        byte[] redisKey = new byte[keyPrefix.length + serialized.length];
+        System.arraycopy(keyPrefix, 0, redisKey, 0, keyPrefix.length);
+        System.arraycopy(serialized, 0, redisKey, keyPrefix.length, serialized.length);
+        return redisKey;
+    }
+
+    private K cacheKey(byte[] redisKey) {
+        return Serializer.deserializeFromByteArray(Arrays.copyOfRange(redisKey, keyPrefix.length,
+                redisKey.length));
+    }
+
+    private byte[][] serializeKeys(List<K> keys) {
+        byte[][] serializedKeys = new byte[keys.size()][];
+        bulkExecutor.forEachRange(serializedKeys.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                serializedKeys[i] = redisKey(keys.get(i));
+            }
+        });
+        return serializedKeys;
+    }
+
+    private byte[] encode(CacheEntry<V> cacheEntry) {
+        return CacheEntryCodec.encode(cacheEntry, codec);
+    }
+
+    private CacheEntry<V> decode(byte[] rawValue) {
+        return CacheEntryCodec.decode(rawValue);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -245,50 +515,63 @@ public class RedisCache<K, V> implements CacheWithLifetimes<K, V> {
      */
     @Override
     public void putAll(Map<K, V> map, long lifetime) {
-        long expirationTime = Util.getTime() + lifetime;
-        for (Map.Entry<K, V> entry : map.entrySet()) {
-            CacheEntry<V> cacheEntry = new CacheEntry<V>(entry.getValue(),
-                    expirationTime);
-            put(entry.getKey(), cacheEntry);
+        if (map.isEmpty()) {
+            return;
         }
+        long currentTime = ticker.currentTimeMillis();
+        int jitter = lifetimeJitter;
+        List<Map.Entry<K, V>> entries = new ArrayList<Map.Entry<K, V>>(map.entrySet());
+        byte[][] keysAndValues = new byte[entries.size() * 2][];
+        bulkExecutor.forEachRange(entries.size(), (from, to) -> {
+            for (int i = from; i < to; i++) {
+                Map.Entry<K, V> entry = entries.get(i);
+                CacheEntry<V> cacheEntry = new CacheEntry<V>(entry.getValue(),
+                        currentTime + Util.jitter(lifetime, jitter));
+                keysAndValues[2 * i] = redisKey(entry.getKey());
+                keysAndValues[2 * i + 1] = encode(cacheEntry);
+            }
+        });
+        cache.mset(keysAndValues);
 
     }
 
     /**
      * {@inheritDoc}
+     * <P>
+     * If the cache has a key prefix this counts the keys with the prefix using {@code SCAN},
+     * otherwise it is the number of keys in the Redis database.
+     * </P>
      */
     @Override
     public long size() {
-        return cache.dbSize();
+        if (keyPrefix.length == 0) {
+            return cache.dbSize();
+        }
+        long size = 0;
+        KeyScanIterator batches = new KeyScanIterator(cache, keyPrefix, SCAN_BATCH_SIZE);
+        while (batches.hasNext()) {
+            size += batches.next().size();
+        }
+        return size;
     }
 
     /**
-     * Output contents of current database to a string.
+     * Output contents of the cache to a string. The keys are found incrementally with
+     * {@code SCAN}, so other clients of Redis are not blocked.
      *
      * @return string containing output
      */
     public String toString() {
         StringBuilder result = new StringBuilder("\nContents of Entire Cache\n\n");
-        StringRedisSerializer srs = new StringRedisSerializer();
-        // If we know that keys are strings, we don't have to use
-        // StringRedisSerializer
-        Set<byte[]> keys = cache.keys(srs.serialize("*"));
-        for (byte[] key : keys) {
-            String keyString = Serializer.deserializeFromByteArray(key);
-            result.append("Key: " + keyString + "\n");
-            byte[] rawValue = cache.get(key);
-            if (rawValue == null) {
-                result.append("No value found in cache for keyString " + keyString + "\n\n");
-                continue;
-            }
-            CacheEntry<V> cacheEntry = Serializer.deserializeFromByteArray(rawValue);
-            if (cacheEntry == null) {
-                result.append("CacheEntry is null for keyString " + keyString + "\n\n");
-                continue;
-            }
-            result.append(cacheEntry.toString() + "\n\n");
+        Iterator<Map.Entry<K, CacheEntry<V>>> entries = iterator(SCAN_BATCH_SIZE);
+        long size = 0;
+        while (entries.hasNext()) {
+            Map.Entry<K, CacheEntry<V>> entry = entries.next();
+            result.append("Key: " + entry.getKey() + "\n");
+            result.append(entry.getValue().toString() + "\n\n");
+            size++;
         }
-        result.append("Cache size is: " + size() + "\n");
+        result.append("Cache size is: " + size + "\n");
         return result.toString();
     }
 
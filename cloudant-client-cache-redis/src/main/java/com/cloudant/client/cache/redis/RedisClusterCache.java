@@ -0,0 +1,593 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.cloudant.client.cache.redis;
+
+import com.cloudant.client.cache.CacheEntry;
+import com.cloudant.client.cache.CacheWithLifetimes;
+import com.cloudant.client.cache.DeflateCodec;
+import com.cloudant.client.cache.Serializer;
+import com.cloudant.client.cache.Stats;
+import com.cloudant.client.cache.Ticker;
+import com.cloudant.client.cache.Util;
+
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.exceptions.JedisAskDataException;
+import redis.clients.jedis.exceptions.JedisClusterException;
+import redis.clients.jedis.exceptions.JedisClusterMaxRedirectionsException;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.exceptions.JedisMovedDataException;
+import redis.clients.util.JedisClusterCRC16;
+import redis.clients.util.SafeEncoder;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * <P>
+ * A cache stored in a Redis Cluster.
+ * </P>
+ * <P>
+ * Keys are routed to the master node serving their hash slot, using a map of slots to nodes read
+ * from the cluster and refreshed when the cluster reports that a slot has moved. Multi-key
+ * operations group the keys by node and send each group as a single pipeline. {@code MOVED} and
+ * {@code ASK} redirections, for example while slots are being migrated, are followed
+ * automatically.
+ * </P>
+ * <P>
+ * An optional key prefix is prepended to every key stored in Redis. If the prefix contains a
+ * hash tag, such as {@code "{orders}:"}, only the tag is hashed so every key of the cache is
+ * stored in the same slot. This co-locates, for example, all of the documents of one database,
+ * at the cost of storing them on a single node.
+ * </P>
+ *
+ * @param <K> the type of the cache keys
+ * @param <V> the type of the cache values
+ */
+public class RedisClusterCache<K, V> implements CacheWithLifetimes<K, V> {
+
+    /**
+     * The number of hash slots in a Redis Cluster.
+     */
+    public static final int SLOTS = 16384;
+
+    private static final int MAX_REDIRECTIONS = 5;
+    private static final int SCAN_COUNT = 1000;
+
+    private final Set<HostAndPort> seedNodes;
+    private final byte[] keyPrefix;
+    private final long defaultLifetime;
+    private final ConcurrentHashMap<HostAndPort, JedisPool> pools = new
+            ConcurrentHashMap<HostAndPort, JedisPool>();
+    private volatile HostAndPort[] slotOwners = new HostAndPort[SLOTS];
+    private volatile DeflateCodec codec;  // null if values are not compressed
+    private volatile Ticker ticker = Ticker.DEFAULT;
+    private volatile int lifetimeJitter;  // percentage to randomly shorten lifetimes by
+
+    /*
+     * A command sent for one key in a pipeline.
+     */
+    private interface Command {
+        Response<?> send(Pipeline pipeline, byte[] key, int index);
+    }
+
+    /**
+     * Create a cache with the specified lifetime connected to a Redis Cluster.
+     *
+     * @param seedNodes       one or more nodes of the cluster, used to discover the others
+     * @param defaultLifespan default life time in milliseconds for cached objects
+     */
+    public RedisClusterCache(Set<HostAndPort> seedNodes, long defaultLifespan) {
+        this(seedNodes, null, defaultLifespan);
+    }
+
+    /**
+     * Create a cache with the specified lifetime connected to a Redis Cluster, storing keys with
+     * the specified prefix.
+     *
+     * @param seedNodes       one or more nodes of the cluster, used to discover the others
+     * @param keyPrefix       prefix of every key stored in Redis, optionally containing a hash
+     *                        tag, or {@code null} for no prefix
+     * @param defaultLifespan default life time in milliseconds for cached objects
+     */
+    public RedisClusterCache(Set<HostAndPort> seedNodes, String keyPrefix, long
+            defaultLifespan) {
+        if (seedNodes.isEmpty()) {
+            throw new IllegalArgumentException("At least one seed node is required");
+        }
+        this.seedNodes = new LinkedHashSet<HostAndPort>(seedNodes);
+        this.keyPrefix = (keyPrefix == null) ? new byte[0] : SafeEncoder.encode(keyPrefix);
+        this.defaultLifetime = defaultLifespan;
+        refreshSlots();
+    }
+
+    /**
+     * Return the hash slot of a key stored in Redis. If the key contains a hash tag, a non-empty
+     * substring between the first <code>{</code> and the next <code>}</code>, only the tag is
+     * hashed.
+     *
+     * @param redisKey the bytes of the key as stored in Redis
+     * @return the slot, from {@code 0} to {@code SLOTS - 1}
+     */
+    public static int getSlot(byte[] redisKey) {
+        for (int start = 0; start < redisKey.length; start++) {
+            if (redisKey[start] == '{') {
+                for (int end = start + 1; end < redisKey.length; end++) {
+                    if (redisKey[end] == '}') {
+                        if (end > start + 1) {
+                            return JedisClusterCRC16.getCRC16(Arrays.copyOfRange(redisKey,
+                                    start + 1, end)) & (SLOTS - 1);
+                        }
+                        break;
+                    }
+                }
+                break;
+            }
+        }
+        return JedisClusterCRC16.getCRC16(redisKey) & (SLOTS - 1);
+    }
+
+    /**
+     * Compress values stored in Redis whose serialized size is at least the specified number of
+     * bytes, as for {@link RedisCache#setCompressionThreshold(int)}.
+     *
+     * @param threshold minimum serialized size in bytes of values to compress, or a negative
+     *                  number to disable compression
+     */
+    public void setCompressionThreshold(int threshold) {
+        codec = (threshold < 0) ? null : new DeflateCodec(threshold);
+    }
+
+    /**
+     * Re-read the map of hash slots to master nodes from the cluster. This is done automatically
+     * when the cluster redirects a request.
+     */
+    public synchronized void refreshSlots() {
+        Set<HostAndPort> nodes = new LinkedHashSet<HostAndPort>(pools.keySet());
+        nodes.addAll(seedNodes);
+        JedisConnectionException lastException = null;
+        for (HostAndPort node : nodes) {
+            try (Jedis jedis = pool(node).getResource()) {
+                HostAndPort[] owners = new HostAndPort[SLOTS];
+                for (Object slotRange : jedis.clusterSlots()) {
+                    List<?> range = (List<?>) slotRange;
+                    List<?> master = (List<?>) range.get(2);
+                    String host = SafeEncoder.encode((byte[]) master.get(0));
+                    HostAndPort owner = new HostAndPort(host.isEmpty() ? node.getHost() : host,
+                            ((Long) master.get(1)).intValue());
+                    for (long slot = (Long) range.get(0); slot <= (Long) range.get(1); slot++) {
+                        owners[(int) slot] = owner;
+                    }
+                }
+                slotOwners = owners;
+                return;
+            } catch (JedisConnectionException e) {
+                lastException = e;
+            }
+        }
+        throw new JedisConnectionException("Could not read the slots from any cluster node",
+                lastException);
+    }
+
+    private JedisPool pool(HostAndPort node) {
+        return pools.computeIfAbsent(node, n -> new JedisPool(n.getHost(), n.getPort()));
+    }
+
+    private HostAndPort owner(byte[] redisKey) {
+        int slot = getSlot(redisKey);
+        HostAndPort owner = slotOwners[slot];
+        if (owner == null) {
+            refreshSlots();
+            owner = slotOwners[slot];
+            if (owner == null) {
+                throw new JedisClusterException("No cluster node serves slot " + slot);
+            }
+        }
+        return owner;
+    }
+
+    /*
+     * The master nodes serving at least one slot.
+     */
+    private Set<HostAndPort> masters() {
+        Set<HostAndPort> masters = new LinkedHashSet<HostAndPort>();
+        for (HostAndPort owner : slotOwners) {
+            if (owner != null) {
+                masters.add(owner);
+            }
+        }
+        return masters;
+    }
+
+    private byte[] redisKey(K key) {
+        byte[] serialized = Serializer.serializeToByteArray(key);
+        if (keyPrefix.length == 0) {
+            return serialized;
+        }
+        byte[] redisKey = new byte[keyPrefix.length + serialized.length];
+        System.arraycopy(keyPrefix, 0, redisKey, 0, keyPrefix.length);
+        System.arraycopy(serialized, 0, redisKey, keyPrefix.length, serialized.length);
+        return redisKey;
+    }
+
+    private K cacheKey(byte[] redisKey) {
+        return Serializer.deserializeFromByteArray(Arrays.copyOfRange(redisKey, keyPrefix.length,
+                redisKey.length));
+    }
+
+    private byte[][] redisKeys(List<K> keys) {
+        byte[][] redisKeys = new byte[keys.size()][];
+        for (int i = 0; i < redisKeys.length; i++) {
+            redisKeys[i] = redisKey(keys.get(i));
+        }
+        return redisKeys;
+    }
+
+    /*
+     * Send a command for each key to the node serving the key, with the keys for each node sent
+     * in one pipeline. Keys which are redirected are retried, after refreshing the slot map for
+     * MOVED redirections. Returns the reply for each key.
+     */
+    private Object[] execute(byte[][] keys, Command command) {
+        Object[] replies = new Object[keys.length];
+        Map<Integer, HostAndPort> asks = new HashMap<Integer, HostAndPort>();
+        List<Integer> pending = new ArrayList<Integer>(keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            pending.add(i);
+        }
+        for (int attempt = 0; ; attempt++) {
+            Map<HostAndPort, List<Integer>> batches = new LinkedHashMap<HostAndPort,
+                    List<Integer>>();
+            Map<Integer, HostAndPort> askBatch = new LinkedHashMap<Integer, HostAndPort>();
+            for (Integer i : pending) {
+                HostAndPort ask = asks.remove(i);
+                if (ask != null) {
+                    askBatch.put(i, ask);
+                    continue;
+                }
+                HostAndPort owner = owner(keys[i]);
+                List<Integer> batch = batches.get(owner);
+                if (batch == null) {
+                    batch = new ArrayList<Integer>();
+                    batches.put(owner, batch);
+                }
+                batch.add(i);
+            }
+            List<Integer> retry = new ArrayList<Integer>();
+            boolean refresh = false;
+            RuntimeException lastException = null;
+            for (Map.Entry<HostAndPort, List<Integer>> batch : batches.entrySet()) {
+                try (Jedis jedis = pool(batch.getKey()).getResource()) {
+                    Pipeline pipeline = jedis.pipelined();
+                    for (Integer i : batch.getValue()) {
+                        command.send(pipeline, keys[i], i);
+                    }
+                    List<Object> results = pipeline.syncAndReturnAll();
+                    for (int j = 0; j < results.size(); j++) {
+                        Integer i = batch.getValue().get(j);
+                        refresh |= handleReply(results.get(j), i, replies, retry, asks);
+                    }
+                } catch (JedisConnectionException e) {
+                    // The node may have failed over, so retry after refreshing the slot map
+                    retry.addAll(batch.getValue());
+                    refresh = true;
+                    lastException = e;
+                }
+            }
+            // An ASKING command only applies to the next command, so these are sent one by one
+            for (Map.Entry<Integer, HostAndPort> ask : askBatch.entrySet()) {
+                Integer i = ask.getKey();
+                try (Jedis jedis = pool(ask.getValue()).getResource()) {
+                    jedis.asking();
+                    Pipeline pipeline = jedis.pipelined();
+                    command.send(pipeline, keys[i], i);
+                    refresh |= handleReply(pipeline.syncAndReturnAll().get(0), i, replies,
+                            retry, asks);
+                } catch (JedisConnectionException e) {
+                    retry.add(i);
+                    refresh = true;
+                    lastException = e;
+                }
+            }
+            if (retry.isEmpty()) {
+                return replies;
+            }
+            if (attempt == MAX_REDIRECTIONS) {
+                if (lastException != null) {
+                    throw lastException;
+                }
+                throw new JedisClusterMaxRedirectionsException("Too many cluster redirections");
+            }
+            if (refresh) {
+                refreshSlots();
+            }
+            pending = retry;
+        }
+    }
+
+    /*
+     * Record the reply for a key, or queue the key to be retried if it was redirected. Returns
+     * true if the slot map should be refreshed.
+     */
+    private boolean handleReply(Object reply, Integer i, Object[] replies, List<Integer> retry,
+                                Map<Integer, HostAndPort> asks) {
+        if (reply instanceof JedisMovedDataException) {
+            JedisMovedDataException moved = (JedisMovedDataException) reply;
+            slotOwners[moved.getSlot()] = moved.getTargetNode();
+            retry.add(i);
+            return true;
+        } else if (reply instanceof JedisAskDataException) {
+            asks.put(i, ((JedisAskDataException) reply).getTargetNode());
+            retry.add(i);
+            return false;
+        } else if (reply instanceof JedisDataException) {
+            throw (JedisDataException) reply;
+        }
+        replies[i] = reply;
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setLifetimeJitter(int percent) {
+        if (percent < 0 || percent > 100) {
+            throw new IllegalArgumentException("The lifetime jitter must be from 0 to 100 " +
+                    "percent");
+        }
+        lifetimeJitter = percent;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setTicker(Ticker ticker) {
+        this.ticker = (ticker == null) ? Ticker.DEFAULT : ticker;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <P>
+     * If the cache has a key prefix only keys with the prefix are deleted, otherwise every
+     * master node in the cluster is flushed.
+     * </P>
+     */
+    @Override
+    public void clear() {
+        for (HostAndPort master : masters()) {
+            try (Jedis jedis = pool(master).getResource()) {
+                if (keyPrefix.length == 0) {
+                    jedis.flushDB();
+                    continue;
+                }
+                KeyScanIterator batches = new KeyScanIterator(jedis, keyPrefix, SCAN_COUNT);
+                while (batches.hasNext()) {
+                    // Keys of different slots can not be deleted in one command
+                    Pipeline pipeline = jedis.pipelined();
+                    for (byte[] key : batches.next()) {
+                        pipeline.del(key);
+                    }
+                    pipeline.sync();
+                }
+            }
+        }
+    }
+
+    /**
+     * Close the connections to the cluster.
+     */
+    public void close() {
+        for (JedisPool pool : pools.values()) {
+            pool.destroy();
+        }
+        pools.clear();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void delete(K key) {
+        deleteAll(Arrays.asList(key));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void deleteAll(List<K> keys) {
+        execute(redisKeys(keys), (pipeline, key, i) -> pipeline.del(key));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <P>
+     * The keys of each master node are found with {@code SCAN} and their values fetched in
+     * pipelined batches. If the cache has no key prefix every key in the cluster must be a key
+     * of this cache.
+     * </P>
+     */
+    @Override
+    public Stream<Map.Entry<K, CacheEntry<V>>> entries() {
+        final long currentTime = ticker.currentTimeMillis();
+        return masters().stream().flatMap(master -> {
+            final Jedis jedis = pool(master).getResource();
+            KeyScanIterator batches = new KeyScanIterator(jedis, keyPrefix, SCAN_COUNT);
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(batches, Spliterator
+                    .NONNULL), false)
+                    .onClose(jedis::close)
+                    .flatMap(batch -> {
+                        byte[][] keys = batch.toArray(new byte[batch.size()][]);
+                        Object[] replies = execute(keys, (pipeline, key, i) -> pipeline.get(key));
+                        List<Map.Entry<K, CacheEntry<V>>> entries = new ArrayList<Map.Entry<K,
+                                CacheEntry<V>>>(keys.length);
+                        for (int i = 0; i < keys.length; i++) {
+                            CacheEntry<V> cacheEntry = (replies[i] == null) ? null :
+                                    CacheEntryCodec.<V>decode((byte[]) replies[i]);
+                            if (cacheEntry != null && cacheEntry.getExpirationTime() >=
+                                    currentTime) {
+                                entries.add(new AbstractMap.SimpleImmutableEntry<K,
+                                        CacheEntry<V>>(cacheKey(keys[i]), cacheEntry));
+                            }
+                        }
+                        return entries.stream();
+                    });
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V get(K key) {
+        return getAll(Arrays.asList(key)).get(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<K, V> getAll(List<K> keys) {
+        Object[] replies = execute(redisKeys(keys), (pipeline, key, i) -> pipeline.get(key));
+        Map<K, V> hashMap = new HashMap<K, V>();
+        long currentTime = ticker.currentTimeMillis();
+        for (int i = 0; i < replies.length; i++) {
+            if (replies[i] == null) {
+                continue;
+            }
+            V value = CacheEntryCodec.decodeIfUnexpired((byte[]) replies[i], currentTime);
+            if (value != null) {
+                hashMap.put(keys.get(i), value);
+            }
+        }
+        return hashMap;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CacheEntry<V> getCacheEntry(K key) {
+        Object reply = execute(new byte[][]{redisKey(key)}, (pipeline, redisKey, i) ->
+                pipeline.get(redisKey))[0];
+        return (reply == null) ? null : CacheEntryCodec.<V>decode((byte[]) reply);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <P>
+     * The statistics are a map of each master node to its {@link RedisCacheStats}.
+     * </P>
+     */
+    @Override
+    public Stats<Map<HostAndPort, RedisCacheStats>> getStatistics() {
+        final Map<HostAndPort, RedisCacheStats> stats = new LinkedHashMap<HostAndPort,
+                RedisCacheStats>();
+        for (HostAndPort master : masters()) {
+            try (Jedis jedis = pool(master).getResource()) {
+                stats.put(master, new RedisCacheStats(jedis.info()));
+            }
+        }
+        return () -> stats;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void put(K key, V value) {
+        put(key, value, defaultLifetime);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void put(K key, V value, long lifetime) {
+        Map<K, V> map = new HashMap<K, V>();
+        map.put(key, value);
+        putAll(map, lifetime);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void putAll(Map<K, V> map) {
+        putAll(map, defaultLifetime);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void putAll(Map<K, V> map, long lifetime) {
+        long currentTime = ticker.currentTimeMillis();
+        int jitter = lifetimeJitter;
+        DeflateCodec currentCodec = codec;
+        byte[][] keys = new byte[map.size()][];
+        final byte[][] values = new byte[map.size()][];
+        int i = 0;
+        for (Map.Entry<K, V> entry : map.entrySet()) {
+            keys[i] = redisKey(entry.getKey());
+            values[i++] = CacheEntryCodec.encode(new CacheEntry<V>(entry.getValue(),
+                    currentTime + Util.jitter(lifetime, jitter)), currentCodec);
+        }
+        execute(keys, (pipeline, key, index) -> pipeline.set(key, values[index]));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <P>
+     * If the cache has a key prefix this counts the keys with the prefix, which requires
+     * scanning every master node, otherwise it is the total number of keys in the cluster.
+     * </P>
+     */
+    @Override
+    public long size() {
+        long size = 0;
+        for (HostAndPort master : masters()) {
+            try (Jedis jedis = pool(master).getResource()) {
+                if (keyPrefix.length == 0) {
+                    size += jedis.dbSize();
+                    continue;
+                }
+                KeyScanIterator batches = new KeyScanIterator(jedis, keyPrefix, SCAN_COUNT);
+                while (batches.hasNext()) {
+                    size += batches.next().size();
+                }
+            }
+        }
+        return size;
+    }
+}
@@ -0,0 +1,415 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.cloudant.client.cache.redis;
+
+import com.cloudant.client.cache.CacheEntry;
+import com.cloudant.client.cache.CacheWithLifetimes;
+import com.cloudant.client.cache.Serializer;
+import com.cloudant.client.cache.Stats;
+import com.cloudant.client.cache.Ticker;
+
+import redis.clients.util.Hashing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * <P>
+ * A cache which distributes its keys across several Redis servers, each accessed through a
+ * {@link RedisCache}, so that the load is spread over more than one Redis process.
+ * </P>
+ * <P>
+ * Keys are assigned to shards by consistent hashing: each shard is placed on a hash ring at a
+ * number of virtual node positions derived from its name, and a key belongs to the first shard
+ * at or after the hash of the key. Adding or removing a shard only moves the keys belonging to
+ * that shard. As shard names determine the ring positions, they should be stable, for example
+ * the {@code host:port} of each Redis server.
+ * </P>
+ * <P>
+ * {@link #getAll(List)}, {@link #putAll(Map)} and {@link #deleteAll(List)} split the keys by
+ * shard and send one batch to each shard in parallel.
+ * </P>
+ *
+ * @param <K> the type of the cache keys
+ * @param <V> the type of the cache values
+ */
+public class ShardedRedisCache<K, V> implements CacheWithLifetimes<K, V> {
+
+    /**
+     * The default number of virtual nodes for each shard.
+     */
+    public static final int DEFAULT_VIRTUAL_NODES = 160;
+
+    private final Map<String, RedisCache<K, V>> shards;
+    private final TreeMap<Long, String> ring = new TreeMap<Long, String>();
+    private final ExecutorService executor;
+    private final boolean ownExecutor;
+    private final long defaultLifetime;
+
+    /**
+     * Create a cache connected to Redis servers at the specified endpoints.
+     *
+     * @param endpoints       Redis servers as {@code host:port} strings
+     * @param defaultLifespan default life time in milliseconds for cached objects
+     */
+    public ShardedRedisCache(List<String> endpoints, long defaultLifespan) {
+        this(connect(endpoints, defaultLifespan), DEFAULT_VIRTUAL_NODES, null, defaultLifespan);
+    }
+
+    /**
+     * Create a cache from existing {@link RedisCache} instances.
+     *
+     * @param shards          map of stable shard names to the cache for each shard
+     * @param virtualNodes    the number of positions on the hash ring for each shard
+     * @param executor        executor to run per-shard batches on, or {@code null} to create a
+     *                        daemon thread pool owned by this cache and shut down by
+     *                        {@link #close()}
+     * @param defaultLifespan default life time in milliseconds for cached objects
+     */
+    public ShardedRedisCache(Map<String, RedisCache<K, V>> shards, int virtualNodes,
+                             ExecutorService executor, long defaultLifespan) {
+        if (shards.isEmpty() || virtualNodes < 1) {
+            throw new IllegalArgumentException("At least one shard and one virtual node are " +
+                    "required");
+        }
+        this.shards = Collections.unmodifiableMap(new LinkedHashMap<String, RedisCache<K, V>>
+                (shards));
+        for (String name : shards.keySet()) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(Hashing.MURMUR_HASH.hash(name + "-" + i), name);
+            }
+        }
+        this.ownExecutor = (executor == null);
+        this.executor = ownExecutor ? Executors.newFixedThreadPool(shards.size(), runnable -> {
+            Thread thread = new Thread(runnable, "ShardedRedisCache");
+            thread.setDaemon(true);
+            return thread;
+        }) : executor;
+        this.defaultLifetime = defaultLifespan;
+    }
+
+    private static <K, V> Map<String, RedisCache<K, V>> connect(List<String> endpoints, long
+            defaultLifespan) {
+        Map<String, RedisCache<K, V>> shards = new LinkedHashMap<String, RedisCache<K, V>>();
+        for (String endpoint : endpoints) {
+            int colon = endpoint.lastIndexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException("Endpoint " + endpoint + " is not host:port");
+            }
+            shards.put(endpoint, new RedisCache<K, V>(endpoint.substring(0, colon), Integer
+                    .parseInt(endpoint.substring(colon + 1)), defaultLifespan));
+        }
+        return shards;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <P>
+     * The jitter is set on every shard.
+     * </P>
+     */
+    @Override
+    public void setLifetimeJitter(int percent) {
+        if (percent < 0 || percent > 100) {
+            throw new IllegalArgumentException("The lifetime jitter must be from 0 to 100 " +
+                    "percent");
+        }
+        for (RedisCache<K, V> shard : shards.values()) {
+            shard.setLifetimeJitter(percent);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <P>
+     * The ticker is set on every shard.
+     * </P>
+     */
+    @Override
+    public void setTicker(Ticker ticker) {
+        for (RedisCache<K, V> shard : shards.values()) {
+            shard.setTicker(ticker);
+        }
+    }
+
+    /**
+     * Return the name of the shard a key is stored on.
+     *
+     * @param key the cache key
+     * @return the shard name
+     */
+    public String getShardName(K key) {
+        long hash = Hashing.MURMUR_HASH.hash(Serializer.serializeToByteArray(key));
+        SortedMap<Long, String> tail = ring.tailMap(hash);
+        return tail.isEmpty() ? ring.firstEntry().getValue() : tail.get(tail.firstKey());
+    }
+
+    /**
+     * @return map of shard names to the cache for each shard
+     */
+    public Map<String, RedisCache<K, V>> getShards() {
+        return shards;
+    }
+
+    private RedisCache<K, V> shardFor(K key) {
+        return shards.get(getShardName(key));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (final RedisCache<K, V> shard : shards.values()) {
+            tasks.add(() -> {
+                shard.clear();
+                return null;
+            });
+        }
+        invokeAll(tasks);
+    }
+
+    /**
+     * Close the Redis connections, and shut down the thread pool if it was created by this
+     * cache.
+     */
+    public void close() {
+        for (RedisCache<K, V> shard : shards.values()) {
+            shard.close();
+        }
+        if (ownExecutor) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void delete(K key) {
+        shardFor(key).delete(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void deleteAll(List<K> keys) {
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (final Map.Entry<String, List<K>> batch : groupByShard(keys).entrySet()) {
+            tasks.add(() -> {
+                shards.get(batch.getKey()).deleteAll(batch.getValue());
+                return null;
+            });
+        }
+        invokeAll(tasks);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <P>
+     * The shards are read one after another.
+     * </P>
+     */
+    @Override
+    public Stream<Map.Entry<K, CacheEntry<V>>> entries() {
+        return shards.values().stream().flatMap(RedisCache::entries);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V get(K key) {
+        return shardFor(key).get(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<K, V> getAll(List<K> keys) {
+        List<Callable<Map<K, V>>> tasks = new ArrayList<Callable<Map<K, V>>>();
+        for (final Map.Entry<String, List<K>> batch : groupByShard(keys).entrySet()) {
+            tasks.add(() -> shards.get(batch.getKey()).getAll(batch.getValue()));
+        }
+        Map<K, V> hashMap = new HashMap<K, V>();
+        for (Map<K, V> result : invokeAll(tasks)) {
+            hashMap.putAll(result);
+        }
+        return hashMap;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CacheEntry<V> getCacheEntry(K key) {
+        return shardFor(key).getCacheEntry(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <P>
+     * The statistics are a map of shard names to the {@link RedisCacheStats} of each shard.
+     * </P>
+     */
+    @Override
+    public Stats<Map<String, RedisCacheStats>> getStatistics() {
+        final Map<String, RedisCacheStats> stats = new LinkedHashMap<String, RedisCacheStats>();
+        for (Map.Entry<String, RedisCache<K, V>> shard : shards.entrySet()) {
+            stats.put(shard.getKey(), shard.getValue().getStatistics());
+        }
+        return () -> stats;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void put(K key, V value) {
+        put(key, value, defaultLifetime);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void put(K key, V value, long lifetime) {
+        shardFor(key).put(key, value, lifetime);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void putAll(Map<K, V> map) {
+        putAll(map, defaultLifetime);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void putAll(Map<K, V> map, final long lifetime) {
+        Map<String, Map<K, V>> batches = new HashMap<String, Map<K, V>>();
+        for (Map.Entry<K, V> entry : map.entrySet()) {
+            String shard = getShardName(entry.getKey());
+            Map<K, V> batch = batches.get(shard);
+            if (batch == null) {
+                batch = new HashMap<K, V>();
+                batches.put(shard, batch);
+            }
+            batch.put(entry.getKey(), entry.getValue());
+        }
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (final Map.Entry<String, Map<K, V>> batch : batches.entrySet()) {
+            tasks.add(() -> {
+                shards.get(batch.getKey()).putAll(batch.getValue(), lifetime);
+                return null;
+            });
+        }
+        invokeAll(tasks);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <P>
+     * This is the total number of keys in the Redis databases of all the shards.
+     * </P>
+     */
+    @Override
+    public long size() {
+        long size = 0;
+        for (RedisCache<K, V> shard : shards.values()) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    private Map<String, List<K>> groupByShard(List<K> keys) {
+        Map<String, List<K>> batches = new HashMap<String, List<K>>();
+        for (K key : keys) {
+            String shard = getShardName(key);
+            List<K> batch = batches.get(shard);
+            if (batch == null) {
+                batch = new ArrayList<K>();
+                batches.put(shard, batch);
+            }
+            batch.add(key);
+        }
+        return batches;
+    }
+
+    /*
+     * Run the per-shard tasks, in the calling thread if there is only one, and wait for them to
+     * complete. An exception thrown by a task is rethrown once all of the tasks have finished.
+     */
+    private <T> List<T> invokeAll(List<Callable<T>> tasks) {
+        List<T> results = new ArrayList<T>(tasks.size());
+        try {
+            if (tasks.size() == 1) {
+                results.add(tasks.get(0).call());
+                return results;
+            }
+            for (Future<T> future : executor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for Redis shards", e);
+        } catch (ExecutionException e) {
+            throw propagate(e.getCause());
+        } catch (Exception e) {
+            throw propagate(e);
+        }
+    }
+
+    private static RuntimeException propagate(Throwable t) {
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        return (t instanceof RuntimeException) ? (RuntimeException) t : new
+                IllegalStateException(t);
+    }
+
+    /**
+     * Output the contents of every shard to a string.
+     *
+     * @return string containing output
+     */
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        for (Map.Entry<String, RedisCache<K, V>> shard : shards.entrySet()) {
+            result.append("\nShard ").append(shard.getKey()).append("\n").append(shard
+                    .getValue());
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.cloudant.client.cache.tests.redis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.cloudant.client.cache.Serializer;
+import com.cloudant.client.cache.redis.RedisCache;
+import com.cloudant.client.cache.tests.CacheWithLifetimesTests;
+
+import org.junit.Test;
+
+import redis.clients.jedis.Jedis;
+
+import java.util.Arrays;
+
+/**
+ * Run the cache tests against a {@link RedisCache} which compresses every value.
+ */
+public class CompressedRedisCacheTests extends CacheWithLifetimesTests<RedisCache<String,
+        Integer>> {
+
+    @Override
+    protected RedisCache<String, Integer> getNewCacheInstance() {
+        RedisCache<String, Integer> cache = new RedisCache<>("localhost", 6379, 60,
+                DEFAULT_EXPIRATION);
+        cache.setCompressionThreshold(0);
+        return cache;
+    }
+
+    /**
+     * Test that large values are stored compressed, and that values written with and without
+     * compression can be read regardless of the current setting.
+     */
+    @Test
+    public void testLargeValues() {
+        Jedis jedis = new Jedis("localhost", 6379);
+        RedisCache<String, String> cache = new RedisCache<>(jedis, DEFAULT_EXPIRATION);
+        try {
+            char[] chars = new char[10000];
+            Arrays.fill(chars, 'x');
+            String large = new String(chars);
+
+            cache.put(key1, large);
+            int uncompressedSize = jedis.get(Serializer.serializeToByteArray(key1)).length;
+            cache.setCompressionThreshold(1024);
+            cache.put(key2, large);
+            int compressedSize = jedis.get(Serializer.serializeToByteArray(key2)).length;
+            assertTrue("The value should be stored compressed", compressedSize <
+                    uncompressedSize / 10);
+
+            assertEquals("The uncompressed value should be readable", large, cache.get(key1));
+            assertEquals("The compressed value should be readable", large, cache.get(key2));
+            cache.setCompressionThreshold(-1);
+            assertEquals("The compressed value should be readable with compression disabled",
+                    large, cache.get(key2));
+        } finally {
+            cache.clear();
+            cache.close();
+        }
+    }
+}
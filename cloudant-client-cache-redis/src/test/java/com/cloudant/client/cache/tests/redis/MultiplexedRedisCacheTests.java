@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+
+package com.cloudant.client.cache.tests.redis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.cloudant.client.cache.CacheEntry;
+import com.cloudant.client.cache.redis.MultiplexedRedisCache;
+import com.cloudant.client.cache.redis.RedisCache;
+import com.cloudant.client.cache.tests.CacheWithLifetimesTests;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Run the cache tests against a {@link MultiplexedRedisCache}.
+ */
+public class MultiplexedRedisCacheTests extends CacheWithLifetimesTests<MultiplexedRedisCache
+        <String, Integer>> {
+
+    @Override
+    protected MultiplexedRedisCache<String, Integer> getNewCacheInstance() {
+        return new MultiplexedRedisCache<>("localhost", 6379, 2, DEFAULT_EXPIRATION);
+    }
+
+    @Override
+    public void clearCache() {
+        super.clearCache();
+        cache.close();
+    }
+
+    /**
+     * Test that many threads sharing the connections each get their own replies.
+     */
+    @Test
+    public void testConcurrentRequests() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+        try {
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (int t = 0; t < 64; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 100; i++) {
+                        String key = "thread" + thread + "-" + i;
+                        cache.put(key, i);
+                        assertEquals("Each thread should read its own value", Integer.valueOf
+                                (i), cache.get(key));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertCacheSize(6400);
+    }
+
+    /**
+     * Test that entries written by a {@link RedisCache} can be read and are iterated over.
+     */
+    @Test
+    public void testRedisCacheCompatible() {
+        RedisCache<String, Integer> other = new RedisCache<>("localhost", 6379, 60,
+                DEFAULT_EXPIRATION);
+        try {
+            other.put(key1, 1);
+            other.put(key2, 2, 1);
+            Thread.sleep(10);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            other.close();
+        }
+        assertEquals("The entry should be read", Integer.valueOf(1), cache.get(key1));
+        assertNull("The expired entry should not be returned", cache.get(key2));
+        Map<String, Integer> found = new HashMap<String, Integer>();
+        cache.entries().forEach(entry -> found.put(entry.getKey(), entry.getValue().getValue()));
+        assertEquals("Only the unexpired entry should be iterated over", 1, found.size());
+        CacheEntry<Integer> expired = cache.getCacheEntry(key2);
+        assertEquals("The expired CacheEntry should still be readable", Integer.valueOf(2),
+                expired.getValue());
+    }
+
+    /**
+     * Test that commands fail after the cache is closed.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testClosed() {
+        MultiplexedRedisCache<String, Integer> closed = getNewCacheInstance();
+        closed.close();
+        closed.get(key1);
+    }
+}
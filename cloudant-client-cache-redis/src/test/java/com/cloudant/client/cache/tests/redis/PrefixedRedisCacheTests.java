@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.cloudant.client.cache.tests.redis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.cloudant.client.cache.CacheEntry;
+import com.cloudant.client.cache.redis.RedisCache;
+import com.cloudant.client.cache.tests.CacheWithLifetimesTests;
+
+import org.junit.Test;
+
+import redis.clients.jedis.Jedis;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Run the cache tests against a {@link RedisCache} with a key prefix, sharing its Redis
+ * database with keys that do not have the prefix.
+ */
+public class PrefixedRedisCacheTests extends CacheWithLifetimesTests<RedisCache<String,
+        Integer>> {
+
+    @Override
+    protected RedisCache<String, Integer> getNewCacheInstance() {
+        return new RedisCache<>(new Jedis("localhost", 6379), "prefix-tests:", DEFAULT_EXPIRATION);
+    }
+
+    /**
+     * Test that clear and size only apply to keys with the prefix.
+     */
+    @Test
+    public void testPrefixScope() {
+        Jedis jedis = new Jedis("localhost", 6379);
+        RedisCache<String, Integer> other = new RedisCache<>(jedis, "other-tests:",
+                DEFAULT_EXPIRATION);
+        try {
+            other.put(key1, 1);
+            populateCache(DEFAULT_NUM_OBJECTS);
+            assertCacheSize(DEFAULT_NUM_OBJECTS);
+            assertEquals("The other cache should have its own size", 1, other.size());
+            cache.clear();
+            assertCacheSize(0);
+            assertEquals("The other cache should not be cleared", Integer.valueOf(1), other.get
+                    (key1));
+        } finally {
+            other.clear();
+            other.close();
+        }
+    }
+
+    /**
+     * Test that iterating in small batches returns every entry.
+     */
+    @Test
+    public void testIterator() {
+        Map<String, Integer> expected = new HashMap<>();
+        for (int i = 0; i < DEFAULT_NUM_OBJECTS; i++) {
+            expected.put("key" + i, i);
+        }
+        cache.putAll(expected);
+        Map<String, Integer> found = new HashMap<>();
+        Iterator<Map.Entry<String, CacheEntry<Integer>>> entries = cache.iterator(10);
+        while (entries.hasNext()) {
+            Map.Entry<String, CacheEntry<Integer>> entry = entries.next();
+            found.put(entry.getKey(), entry.getValue().getValue());
+        }
+        assertEquals("Every entry should be returned", expected, found);
+        assertTrue("The contents should be listed", cache.toString().contains("Cache size is: " +
+                DEFAULT_NUM_OBJECTS));
+    }
+}
@@ -14,10 +14,28 @@
 
 package com.cloudant.client.cache.tests.redis;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
+import com.cloudant.client.cache.BulkExecutor;
+import com.cloudant.client.cache.CacheEntry;
+import com.cloudant.client.cache.Serializer;
+import com.cloudant.client.cache.Util;
 import com.cloudant.client.cache.redis.RedisCache;
 import com.cloudant.client.cache.tests.CacheWithLifetimesTests;
 
+import org.junit.Test;
+
+import redis.clients.jedis.Jedis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
 
 /**
  * @author ArunIyengar
@@ -28,4 +46,100 @@ public class RedisCacheTests extends CacheWithLifetimesTests<RedisCache<String,
     protected RedisCache<String, Integer> getNewCacheInstance() {
         return new RedisCache<>("localhost", 6379, 60, DEFAULT_EXPIRATION);
     }
+
+    /**
+     * Test that missing and expired values are loaded and cached with the default lifetime.
+     */
+    @Test
+    public void testLoading() throws InterruptedException {
+        cache.put(key1, 1, 1);
+        Thread.sleep(10);
+        assertEquals("The expired value should be reloaded", Integer.valueOf(10), cache.get
+                (key1, key -> 10));
+        assertEquals("The loaded value should be cached", Integer.valueOf(10), cache.get(key1));
+        Map<String, Integer> values = cache.getAll(keys1to3, keys -> {
+            assertEquals("Only the missing keys should be loaded", Arrays.asList(key2, key3),
+                    keys);
+            return Collections.singletonMap(key2, 20);
+        });
+        assertEquals("The cached and loaded values should be returned", 2, values.size());
+        assertEquals("The loaded value should be cached", Integer.valueOf(20), cache.get(key2));
+        assertTrue("The loaded value should expire", cache.getCacheEntry(key2)
+                .getExpirationTime() <= Util.getTime() + DEFAULT_EXPIRATION);
+    }
+
+    /**
+     * Test that bulk operations processed in parallel chunks store and return every entry.
+     */
+    @Test
+    public void testParallelBulkOperations() {
+        cache.setBulkExecutor(new BulkExecutor(10, 7));
+        Map<String, Integer> map = new HashMap<String, Integer>();
+        for (int i = 0; i < 100; i++) {
+            map.put("bulk" + i, i);
+        }
+        cache.putAll(map);
+        assertEquals("Every entry should be stored", map, cache.getAll(new ArrayList<String>(map
+                .keySet())));
+    }
+
+    /**
+     * Test that entries written as a serialized CacheEntry, without an expiration header, can
+     * still be read.
+     */
+    @Test
+    public void testLegacyFormat() {
+        Jedis jedis = new Jedis("localhost", 6379);
+        try {
+            jedis.set(Serializer.serializeToByteArray(key1), Serializer.serializeToByteArray(new
+                    CacheEntry<Integer>(1, Util.getTime() + DEFAULT_EXPIRATION)));
+            jedis.set(Serializer.serializeToByteArray(key2), Serializer.serializeToByteArray(new
+                    CacheEntry<Integer>(2, Util.getTime() - 1)));
+        } finally {
+            jedis.close();
+        }
+        assertEquals("The legacy entry should be read", Integer.valueOf(1), cache.get(key1));
+        assertNull("The expired legacy entry should not be returned", cache.get(key2));
+        assertEquals("Only the unexpired legacy entry should be returned", 1, cache.getAll
+                (keys1to3).size());
+    }
+
+    /**
+     * Test that expired entries are not returned by get or getAll, but their CacheEntry can still
+     * be retrieved.
+     *
+     * @throws InterruptedException if the sleep is interrupted
+     */
+    @Test
+    public void testExpiredEntriesFiltered() throws InterruptedException {
+        cache.put(key1, 1, 1);
+        cache.put(key2, 2);
+        Thread.sleep(10);
+        assertNull("The expired entry should not be returned", cache.get(key1));
+        assertEquals("Only the unexpired entry should be returned", 1, cache.getAll(Arrays.asList
+                (key1, key2)).size());
+        CacheEntry<Integer> cacheEntry = cache.getCacheEntry(key1);
+        assertNotNull("The expired CacheEntry should still be readable", cacheEntry);
+        assertEquals("The expired CacheEntry should have its value", Integer.valueOf(1),
+                cacheEntry.getValue());
+        assertTrue("The CacheEntry should have expired", cacheEntry.getExpirationTime() < Util
+                .getTime());
+    }
+
+    /**
+     * Test that reads still work after Redis discards the loaded Lua script.
+     */
+    @Test
+    public void testScriptReloaded() {
+        cache.put(key1, 1);
+        assertEquals("The entry should be returned", Integer.valueOf(1), cache.get(key1));
+        Jedis jedis = new Jedis("localhost", 6379);
+        try {
+            jedis.scriptFlush();
+        } finally {
+            jedis.close();
+        }
+        assertEquals("The entry should be returned after the script is flushed", Integer.valueOf
+                (1), cache.get(key1));
+    }
 }
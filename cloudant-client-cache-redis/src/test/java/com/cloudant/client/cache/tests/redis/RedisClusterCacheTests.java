@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.cloudant.client.cache.tests.redis;
+
+import static org.junit.Assume.assumeTrue;
+
+import com.cloudant.client.cache.redis.RedisClusterCache;
+import com.cloudant.client.cache.tests.CacheWithLifetimesTests;
+
+import org.junit.After;
+
+import redis.clients.jedis.HostAndPort;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * <P>
+ * Run the cache tests against a {@link RedisClusterCache}.
+ * </P>
+ * <P>
+ * The tests need a Redis Cluster and are skipped unless the system property
+ * {@code test.redis.cluster} is set to a comma separated list of {@code host:port} cluster
+ * nodes. The cache uses a hash tag key prefix so that it only clears its own keys.
+ * </P>
+ */
+public class RedisClusterCacheTests extends CacheWithLifetimesTests<RedisClusterCache<String,
+        Integer>> {
+
+    @Override
+    protected RedisClusterCache<String, Integer> getNewCacheInstance() {
+        String nodes = System.getProperty("test.redis.cluster");
+        assumeTrue("test.redis.cluster is not set", nodes != null);
+        Set<HostAndPort> seedNodes = new HashSet<>();
+        for (String node : nodes.split(",")) {
+            String[] hostAndPort = node.trim().split(":");
+            seedNodes.add(new HostAndPort(hostAndPort[0], Integer.parseInt(hostAndPort[1])));
+        }
+        return new RedisClusterCache<>(seedNodes, "{cache-tests}:", DEFAULT_EXPIRATION);
+    }
+
+    @After
+    @Override
+    public void clearCache() {
+        // There is no cache to clear if the tests were skipped
+        if (cache != null) {
+            cache.clear();
+            cache.close();
+        }
+    }
+}
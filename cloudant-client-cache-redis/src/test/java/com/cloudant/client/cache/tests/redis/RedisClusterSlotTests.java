@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.cloudant.client.cache.tests.redis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import com.cloudant.client.cache.Serializer;
+import com.cloudant.client.cache.redis.RedisClusterCache;
+
+import org.junit.Test;
+
+import redis.clients.util.SafeEncoder;
+
+/**
+ * Tests for the hash slot routing of {@link RedisClusterCache}, which do not need a cluster.
+ * The expected slots are those given in the Redis Cluster specification.
+ */
+public class RedisClusterSlotTests {
+
+    private static int slot(String redisKey) {
+        return RedisClusterCache.getSlot(SafeEncoder.encode(redisKey));
+    }
+
+    /**
+     * Test the slots of keys without hash tags.
+     */
+    @Test
+    public void testSlot() {
+        assertEquals("The slot of foo should match Redis", 12182, slot("foo"));
+        assertEquals("The slot of bar should match Redis", 5061, slot("bar"));
+        assertEquals("The slot of 123456789 should match Redis", 0x31C3 & (RedisClusterCache
+                .SLOTS - 1), slot("123456789"));
+    }
+
+    /**
+     * Test that only the first non-empty hash tag of a key is hashed.
+     */
+    @Test
+    public void testHashTags() {
+        assertEquals("Keys with the same hash tag should have the same slot", slot
+                ("{user1000}.following"), slot("{user1000}.followers"));
+        assertEquals("Only the hash tag should be hashed", slot("user1000"), slot
+                ("{user1000}.following"));
+        assertNotEquals("An empty hash tag should be ignored", slot("bar"), slot("foo{}{bar}"));
+        assertEquals("The tag should end at the first closing brace", slot("{bar"), slot
+                ("foo{{bar}}zap"));
+        assertEquals("Only the first hash tag should be hashed", slot("bar"), slot
+                ("foo{bar}{zap}"));
+    }
+
+    /**
+     * Test that keys with a hash tag prefix are stored in the same slot regardless of the key.
+     */
+    @Test
+    public void testKeyPrefix() {
+        byte[] prefix = SafeEncoder.encode("{example-db}:");
+        int expected = slot("example-db");
+        for (String key : new String[]{"doc1", "doc2", "another-document"}) {
+            byte[] serialized = Serializer.serializeToByteArray(key);
+            byte[] redisKey = new byte[prefix.length + serialized.length];
+            System.arraycopy(prefix, 0, redisKey, 0, prefix.length);
+            System.arraycopy(serialized, 0, redisKey, prefix.length, serialized.length);
+            assertEquals("Prefixed keys should share a slot", expected, RedisClusterCache
+                    .getSlot(redisKey));
+        }
+    }
+}
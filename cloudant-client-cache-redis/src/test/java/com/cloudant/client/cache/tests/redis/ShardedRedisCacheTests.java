@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.cloudant.client.cache.tests.redis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.cloudant.client.cache.redis.RedisCache;
+import com.cloudant.client.cache.redis.ShardedRedisCache;
+import com.cloudant.client.cache.tests.CacheWithLifetimesTests;
+
+import org.junit.Test;
+
+import redis.clients.jedis.Jedis;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <P>
+ * Tests for {@link ShardedRedisCache}.
+ * </P>
+ * <P>
+ * Set the system property {@code test.redis.shards} to a comma separated list of
+ * {@code host:port} Redis servers to test against several Redis processes. By default the shards
+ * are databases 1 to 3 of the Redis server on localhost.
+ * </P>
+ */
+public class ShardedRedisCacheTests extends CacheWithLifetimesTests<ShardedRedisCache<String,
+        Integer>> {
+
+    @Override
+    protected ShardedRedisCache<String, Integer> getNewCacheInstance() {
+        return new ShardedRedisCache<>(getShards(3), ShardedRedisCache.DEFAULT_VIRTUAL_NODES,
+                null, DEFAULT_EXPIRATION);
+    }
+
+    private static Map<String, RedisCache<String, Integer>> getShards(int count) {
+        Map<String, RedisCache<String, Integer>> shards = new LinkedHashMap<>();
+        String endpoints = System.getProperty("test.redis.shards");
+        if (endpoints != null) {
+            for (String endpoint : endpoints.split(",")) {
+                String[] hostAndPort = endpoint.trim().split(":");
+                shards.put(endpoint.trim(), new RedisCache<>(hostAndPort[0], Integer.parseInt
+                        (hostAndPort[1]), DEFAULT_EXPIRATION));
+            }
+        } else {
+            for (int db = 1; db <= count; db++) {
+                Jedis jedis = new Jedis("localhost", 6379);
+                jedis.select(db);
+                shards.put("localhost:6379/" + db, new RedisCache<>(jedis, DEFAULT_EXPIRATION));
+            }
+        }
+        return shards;
+    }
+
+    /**
+     * Test that a batch of keys is spread over all of the shards.
+     */
+    @Test
+    public void testDistribution() {
+        Map<String, Integer> map = new HashMap<>();
+        for (int i = 0; i < DEFAULT_NUM_OBJECTS; i++) {
+            map.put("key" + i, i);
+        }
+        cache.putAll(map);
+        int shardCount = cache.getShards().size();
+        for (RedisCache<String, Integer> shard : cache.getShards().values()) {
+            // Allow for an uneven spread, but every shard should have a fair share of keys
+            assertTrue("Each shard should hold part of the keys", shard.size() >
+                    DEFAULT_NUM_OBJECTS / shardCount / 2);
+        }
+        assertCacheSize(DEFAULT_NUM_OBJECTS);
+        assertEquals("All of the values should be retrieved", map, cache.getAll(Arrays.asList
+                (map.keySet().toArray(new String[map.size()]))));
+    }
+
+    /**
+     * Test that removing a shard only moves the keys that were stored on that shard.
+     */
+    @Test
+    public void testConsistentHashing() {
+        Map<String, RedisCache<String, Integer>> shards = new LinkedHashMap<>(cache.getShards());
+        String removed = shards.keySet().iterator().next();
+        shards.remove(removed);
+        ShardedRedisCache<String, Integer> smaller = new ShardedRedisCache<>(shards,
+                ShardedRedisCache.DEFAULT_VIRTUAL_NODES, null, DEFAULT_EXPIRATION);
+        // The shards are shared with the cache under test, so smaller is not closed
+        for (int i = 0; i < DEFAULT_NUM_OBJECTS; i++) {
+            String key = "key" + i;
+            String shard = cache.getShardName(key);
+            if (!shard.equals(removed)) {
+                assertEquals("Keys on the remaining shards should not move", shard, smaller
+                        .getShardName(key));
+            }
+        }
+    }
+}
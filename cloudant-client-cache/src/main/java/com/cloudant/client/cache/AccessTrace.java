@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+
+package com.cloudant.client.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <P>
+ * Reads and writes access trace files. A trace is a compact binary log of the document ids read,
+ * checked, written and deleted through a {@link DatabaseCache}, with the time of each access,
+ * recorded by a {@link Recorder} set with {@link DatabaseCache#setTraceRecorder(Recorder)}.
+ * Traces are replayed by {@link TraceSimulator} to compare the hit ratios of different caches.
+ * </P>
+ * <P>
+ * Each id is written in full the first time it is accessed and as a variable length index
+ * after that, and times are written as variable length differences, so most accesses take a few
+ * bytes. The recorder keeps every distinct id in memory to index them.
+ * </P>
+ */
+public final class AccessTrace {
+
+    private static final int MAGIC = 0x43545243; // "CTRC"
+    private static final int VERSION = 1;
+
+    private static final int END = 0xFF;
+    private static final int OPERATION_MASK = 0x03;
+    private static final int NEW_ID = 0x04;
+
+    /**
+     * The type of an access.
+     */
+    public enum Operation {
+        /**
+         * A document was looked up.
+         */
+        READ,
+        /**
+         * A document was written and cached.
+         */
+        WRITE,
+        /**
+         * A document was deleted and removed from the cache.
+         */
+        DELETE,
+        /**
+         * The existence of a document was checked, which does not cache it if it is not cached.
+         */
+        CONTAINS
+    }
+
+    /**
+     * Receives the accesses of a trace as it is replayed.
+     */
+    @FunctionalInterface
+    public interface Visitor {
+
+        /**
+         * Called for each access in the order they were recorded.
+         *
+         * @param time      the time of the access in milliseconds since January 1, 1970
+         * @param operation the type of access
+         * @param id        the document id
+         */
+        void access(long time, Operation operation, String id);
+    }
+
+    private AccessTrace() {
+    }
+
+    /**
+     * Start recording a trace with the times of the system clock.
+     *
+     * @param file the file to write, replaced if it exists
+     * @return the recorder, which must be closed to complete the file
+     * @throws IOException if the file could not be created
+     */
+    public static Recorder record(File file) throws IOException {
+        return record(file, Ticker.SYSTEM);
+    }
+
+    /**
+     * Start recording a trace with the times of a ticker.
+     *
+     * @param file   the file to write, replaced if it exists
+     * @param ticker the ticker to read the time of each access from
+     * @return the recorder, which must be closed to complete the file
+     * @throws IOException if the file could not be created
+     */
+    public static Recorder record(File file, Ticker ticker) throws IOException {
+        return new Recorder(file, ticker);
+    }
+
+    /**
+     * Replay a trace file. A trace whose recorder was not closed is replayed up to the last
+     * complete access.
+     *
+     * @param file    the file to read
+     * @param visitor receives each access
+     * @return the number of accesses replayed
+     * @throws IOException if the file could not be read or is not a trace
+     */
+    public static long replay(File file, Visitor visitor) throws IOException {
+        Operation[] operations = Operation.values();
+        List<String> ids = new ArrayList<String>();
+        long count = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new
+                FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException(file + " is not a supported access trace");
+            }
+            long time = in.readLong();
+            int header;
+            while ((header = in.read()) != END && header >= 0) {
+                String id;
+                try {
+                    time += readVarLong(in);
+                    if ((header & NEW_ID) != 0) {
+                        id = in.readUTF();
+                        ids.add(id);
+                    } else {
+                        id = ids.get((int) readVarLong(in));
+                    }
+                } catch (EOFException e) {
+                    // The recorder was not closed
+                    break;
+                }
+                visitor.access(time, operations[header & OPERATION_MASK], id);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * Writes accesses to a trace file. Accesses may be recorded by many threads. If the file
+     * can not be written the exception is reported once and recording stops, so that the
+     * application is not affected.
+     */
+    public static final class Recorder implements AutoCloseable {
+
+        private final DataOutputStream out;
+        private final Ticker ticker;
+        private final Map<String, Integer> ids = new HashMap<String, Integer>();
+        private long lastTime;
+        private long count;
+        private boolean closed;
+
+        private Recorder(File file, Ticker ticker) throws IOException {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+            this.ticker = ticker;
+            lastTime = ticker.currentTimeMillis();
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(lastTime);
+        }
+
+        /**
+         * Record an access at the current time.
+         *
+         * @param operation the type of access
+         * @param id        the document id
+         */
+        public synchronized void record(Operation operation, String id) {
+            if (closed || id == null) {
+                return;
+            }
+            long time = ticker.currentTimeMillis();
+            try {
+                Integer index = ids.get(id);
+                out.writeByte(operation.ordinal() | ((index == null) ? NEW_ID : 0));
+                // Times from a ticker may go backwards slightly; keep the trace in order
+                writeVarLong(out, Math.max(0, time - lastTime));
+                lastTime = Math.max(time, lastTime);
+                if (index == null) {
+                    out.writeUTF(id);
+                    ids.put(id, ids.size());
+                } else {
+                    writeVarLong(out, index);
+                }
+                count++;
+            } catch (IOException e) {
+                Util.describeException(e, "Exception in AccessTrace.Recorder, recording stopped");
+                close();
+            }
+        }
+
+        /**
+         * @return the number of accesses recorded
+         */
+        public synchronized long getCount() {
+            return count;
+        }
+
+        /**
+         * Complete and close the trace file. Subsequent accesses are not recorded.
+         */
+        @Override
+        public synchronized void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            ids.clear();
+            try {
+                try {
+                    out.writeByte(END);
+                } finally {
+                    out.close();
+                }
+            } catch (IOException e) {
+                Util.describeException(e, "Exception in AccessTrace.Recorder.close");
+            }
+        }
+    }
+}
@@ -0,0 +1,334 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+
+package com.cloudant.client.cache;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+
+/**
+ * <P>
+ * Adjusts the maximum size of a {@link Resizable} cache within bounds according to memory
+ * pressure, so that a cache can use the memory a process has spare without causing long or
+ * frequent garbage collections when the rest of the process needs the memory.
+ * </P>
+ * <P>
+ * Each adjustment reads the memory usage, a fraction from 0 to 1. Above the high usage
+ * threshold the target size shrinks by a quarter and the cache evicts entries down to it
+ * immediately; below the low usage threshold the target size grows by a tenth. Between the
+ * thresholds the target size is left alone.
+ * </P>
+ * <P>
+ * By default the usage is the fraction of the old generation heap still in use after the last
+ * garbage collection. It is checked every interval, but the size is only adjusted if an old
+ * generation collection has happened since the last adjustment, so that each reading reflects
+ * the evictions of the previous adjustment. It is also checked as soon as a collection leaves
+ * more than the high threshold in use, using the collection usage threshold notifications of the
+ * {@link MemoryPoolMXBean}s. The collection usage thresholds set by other code are replaced
+ * while the heap is monitored and restored by {@link #close()}.
+ * </P>
+ * <P>
+ * The target size, last usage and number of adjustments are available from
+ * {@link #getStatistics()}.
+ * </P>
+ */
+public class AdaptiveCapacity implements AutoCloseable {
+
+    private static final double SHRINK_FRACTION = 0.25;
+    private static final double GROW_FRACTION = 0.1;
+
+    private final Resizable cache;
+    private final long minimumSize;
+    private final long maximumSize;
+    private final double lowUsage;
+    private final double highUsage;
+    private final DoubleSupplier usage;
+    private final Thread poller;  // null if adjust() is only called by the application
+    private final NotificationListener listener;  // null unless listening to the heap
+    // Collection usage thresholds to restore on close, empty unless listening to the heap
+    private final Map<MemoryPoolMXBean, Long> previousThresholds = new
+            LinkedHashMap<MemoryPoolMXBean, Long>();
+    private volatile long targetSize;
+    private volatile double lastUsage;
+    private long collectionCount;  // guarded by this
+    private long shrinks;  // guarded by this
+    private long grows;  // guarded by this
+    private volatile boolean closed;
+
+    /**
+     * Adjust the size of a cache according to heap usage after garbage collection.
+     *
+     * @param cache       the cache to resize
+     * @param minimumSize the smallest size to shrink the cache to
+     * @param maximumSize the largest size to grow the cache to
+     * @param lowUsage    heap usage below which the cache grows, for example 0.5
+     * @param highUsage   heap usage above which the cache shrinks, for example 0.8
+     * @param interval    time between checks of the heap usage
+     * @param unit        TimeUnit of the interval
+     * @throws IllegalArgumentException if the sizes or thresholds are not in order, or the
+     *                                  interval is not positive
+     */
+    public AdaptiveCapacity(Resizable cache, long minimumSize, long maximumSize, double
+            lowUsage, double highUsage, long interval, TimeUnit unit) {
+        this(cache, minimumSize, maximumSize, lowUsage, highUsage, AdaptiveCapacity::heapUsage,
+                unit.toMillis(interval), true);
+    }
+
+    /**
+     * Adjust the size of a cache according to another measure of memory usage. The size is
+     * only adjusted when {@link #adjust()} is called.
+     *
+     * @param cache       the cache to resize
+     * @param minimumSize the smallest size to shrink the cache to
+     * @param maximumSize the largest size to grow the cache to
+     * @param lowUsage    usage below which the cache grows
+     * @param highUsage   usage above which the cache shrinks
+     * @param usage       function returning the current usage, from 0 to 1
+     * @throws IllegalArgumentException if the sizes or thresholds are not in order
+     */
+    public AdaptiveCapacity(Resizable cache, long minimumSize, long maximumSize, double
+            lowUsage, double highUsage, DoubleSupplier usage) {
+        this(cache, minimumSize, maximumSize, lowUsage, highUsage, usage, 0, false);
+    }
+
+    private AdaptiveCapacity(Resizable cache, long minimumSize, long maximumSize, double
+            lowUsage, double highUsage, DoubleSupplier usage, long interval, boolean
+            listen) {
+        if (minimumSize < 1 || maximumSize < minimumSize) {
+            throw new IllegalArgumentException("The minimum size must be at least 1 and no " +
+                    "greater than the maximum size");
+        }
+        if (!(lowUsage >= 0 && lowUsage <= highUsage && highUsage <= 1)) {
+            throw new IllegalArgumentException("The usage thresholds must be from 0 to 1, the " +
+                    "low threshold no greater than the high threshold");
+        }
+        if (listen && interval <= 0) {
+            throw new IllegalArgumentException("The interval must be positive");
+        }
+        this.cache = cache;
+        this.minimumSize = minimumSize;
+        this.maximumSize = maximumSize;
+        this.lowUsage = lowUsage;
+        this.highUsage = highUsage;
+        this.usage = usage;
+        this.targetSize = Math.max(minimumSize, Math.min(maximumSize, cache.getMaximumSize()));
+        cache.setMaximumSize(targetSize);
+        if (listen) {
+            listener = (notification, handback) -> {
+                if (MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals
+                        (notification.getType())) {
+                    adjustAfterCollection();
+                }
+            };
+            collectionCount = oldGenerationCollections();
+            for (MemoryPoolMXBean pool : oldGenerationPools()) {
+                long max = pool.getUsage().getMax();
+                if (max > 0) {
+                    previousThresholds.put(pool, pool.getCollectionUsageThreshold());
+                    pool.setCollectionUsageThreshold((long) (max * highUsage));
+                }
+            }
+            ((NotificationEmitter) ManagementFactory.getMemoryMXBean()).addNotificationListener
+                    (listener, null, null);
+            poller = new Thread(() -> poll(interval), "AdaptiveCapacity");
+            poller.setDaemon(true);
+            poller.start();
+        } else {
+            listener = null;
+            poller = null;
+        }
+    }
+
+    /**
+     * Read the usage and shrink or grow the cache if it is outside the thresholds.
+     *
+     * @return the target size after the adjustment
+     */
+    public synchronized long adjust() {
+        double current = usage.getAsDouble();
+        lastUsage = current;
+        long target = targetSize;
+        if (current > highUsage) {
+            target = Math.max(minimumSize, (long) (target * (1 - SHRINK_FRACTION)));
+        } else if (current < lowUsage) {
+            target = Math.min(maximumSize, Math.max(target + 1, (long) (target * (1 +
+                    GROW_FRACTION))));
+        }
+        if (target != targetSize) {
+            if (target < targetSize) {
+                shrinks++;
+            } else {
+                grows++;
+            }
+            targetSize = target;
+            cache.setMaximumSize(target);
+        }
+        return target;
+    }
+
+    /**
+     * Return the statistics of the adjustments, a map containing the {@code targetSize},
+     * {@code lastUsage}, and the number of {@code shrinks} and {@code grows}.
+     *
+     * @return the statistics
+     */
+    public synchronized Stats<Map<String, Number>> getStatistics() {
+        final Map<String, Number> stats = new LinkedHashMap<String, Number>();
+        stats.put("targetSize", targetSize);
+        stats.put("lastUsage", lastUsage);
+        stats.put("shrinks", shrinks);
+        stats.put("grows", grows);
+        return () -> stats;
+    }
+
+    /**
+     * @return the current target size of the cache
+     */
+    public long getTargetSize() {
+        return targetSize;
+    }
+
+    /**
+     * @return the usage read by the last adjustment, or 0 if there has not been one
+     */
+    public double getLastUsage() {
+        return lastUsage;
+    }
+
+    /**
+     * Stop adjusting the size of the cache and restore the collection usage thresholds replaced
+     * when monitoring the heap. The cache keeps its current size.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (poller != null) {
+            poller.interrupt();
+        }
+        if (listener != null) {
+            try {
+                ((NotificationEmitter) ManagementFactory.getMemoryMXBean())
+                        .removeNotificationListener(listener);
+            } catch (ListenerNotFoundException e) {
+                // Already removed
+            }
+        }
+        for (Map.Entry<MemoryPoolMXBean, Long> previous : previousThresholds.entrySet()) {
+            previous.getKey().setCollectionUsageThreshold(previous.getValue());
+        }
+    }
+
+    /**
+     * Return string summarizing the adjustment.
+     *
+     * @return string containing output
+     */
+    public String toString() {
+        return "AdaptiveCapacity with target size " + targetSize + " from " + minimumSize + " to " +
+                maximumSize + ", last usage " + lastUsage;
+    }
+
+    private void poll(long interval) {
+        while (!closed) {
+            try {
+                Thread.sleep(interval);
+                adjustAfterCollection();
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                Util.describeException(e, "Exception in AdaptiveCapacity");
+            }
+        }
+    }
+
+    /*
+     * Adjust the size if an old generation collection has happened since the last adjustment,
+     * as the usage after collection does not change until then.
+     */
+    private synchronized void adjustAfterCollection() {
+        long collections = oldGenerationCollections();
+        if (!closed && collections != collectionCount) {
+            collectionCount = collections;
+            adjust();
+        }
+    }
+
+    /*
+     * The number of collections by the collectors of the old generation pools.
+     */
+    private static long oldGenerationCollections() {
+        List<String> poolNames = new ArrayList<String>();
+        for (MemoryPoolMXBean pool : oldGenerationPools()) {
+            poolNames.add(pool.getName());
+        }
+        long collections = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (!Collections.disjoint(poolNames, Arrays.asList(collector
+                    .getMemoryPoolNames()))) {
+                collections += Math.max(0, collector.getCollectionCount());
+            }
+        }
+        return collections;
+    }
+
+    /*
+     * The fraction of the fullest old generation pool in use after the last garbage collection.
+     */
+    private static double heapUsage() {
+        double usage = 0;
+        for (MemoryPoolMXBean pool : oldGenerationPools()) {
+            MemoryUsage afterCollection = pool.getCollectionUsage();
+            long max = pool.getUsage().getMax();
+            if (afterCollection != null && max > 0) {
+                usage = Math.max(usage, (double) afterCollection.getUsed() / max);
+            }
+        }
+        return usage;
+    }
+
+    /*
+     * Heap pools supporting both usage thresholds, which excludes the eden and survivor spaces
+     * that are emptied by every young collection.
+     */
+    private static List<MemoryPoolMXBean> oldGenerationPools() {
+        List<MemoryPoolMXBean> pools = new ArrayList<MemoryPoolMXBean>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isUsageThresholdSupported() && pool
+                    .isCollectionUsageThresholdSupported()) {
+                pools.add(pool);
+            }
+        }
+        return pools;
+    }
+}
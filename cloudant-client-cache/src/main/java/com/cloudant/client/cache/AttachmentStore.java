@@ -0,0 +1,546 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.cloudant.client.cache;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <P>
+ * A store of byte streams, such as attachments, bounded by the number of bytes it holds. Streams
+ * are stored in fixed size chunks of direct (off heap) memory which are allocated up to the
+ * maximum size and reused, and the least recently used streams are evicted to make room for new
+ * ones.
+ * </P>
+ * <P>
+ * A stream is stored by reading through the stream returned by
+ * {@link #cache(String, String, InputStream)}, which copies the bytes into chunks as they are
+ * read, so a stream is never held in memory as a whole. It is stored when the end of the stream
+ * is reached, and not stored if it is closed before the end, is larger than the maximum entry
+ * size or no chunks are available. The returned stream should be closed if it is not read to the
+ * end; the chunks of a stream which is neither read to the end nor closed are only reused after
+ * the stream has been garbage collected.
+ * </P>
+ * <P>
+ * Streams may belong to a group, for example the attachments of a document, so that they can be
+ * deleted together. Deleting a group also prevents streams of the group which are being stored
+ * at the time from being stored.
+ * </P>
+ * <P>
+ * Streams may also be stored with a lifetime, for content which may change without the store
+ * being told, after which they are no longer returned.
+ * </P>
+ */
+public final class AttachmentStore {
+
+    /**
+     * The default size in bytes of the chunks streams are stored in.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 32 * 1024;
+
+    private final long maxEntryBytes;
+    private final int chunkSize;
+    private final long maxChunks;
+
+    // All of the following are guarded by this
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16,
+            0.75f, true);
+    private final Map<String, Set<String>> groups = new HashMap<String, Set<String>>();
+    private final Set<Pending> storing = new HashSet<Pending>();
+    private final ReferenceQueue<TeeInputStream> unreachable = new ReferenceQueue<TeeInputStream>();
+    private final ArrayDeque<ByteBuffer> freeChunks = new ArrayDeque<ByteBuffer>();
+    private long allocatedChunks;
+    private long bytes;
+    private volatile Ticker ticker = Ticker.DEFAULT;
+
+    /**
+     * Create a store holding at most the specified number of bytes.
+     *
+     * @param maxBytes      maximum number of bytes of chunks to allocate
+     * @param maxEntryBytes maximum size in bytes of a stream to store
+     * @throws IllegalArgumentException if the maximum entry size is less than 1 or more than the
+     *                                  maximum size
+     */
+    public AttachmentStore(long maxBytes, long maxEntryBytes) {
+        if (maxEntryBytes < 1 || maxEntryBytes > maxBytes) {
+            throw new IllegalArgumentException("The maximum entry size must be between 1 and " +
+                    "the maximum size");
+        }
+        this.maxEntryBytes = maxEntryBytes;
+        this.chunkSize = (int) Math.min(DEFAULT_CHUNK_SIZE, maxEntryBytes);
+        this.maxChunks = maxBytes / chunkSize;
+    }
+
+    /**
+     * Set the ticker which reads the time for the lifetimes of stored streams.
+     *
+     * @param ticker the ticker, or {@code null} for {@link Ticker#DEFAULT}
+     */
+    public void setTicker(Ticker ticker) {
+        this.ticker = (ticker == null) ? Ticker.DEFAULT : ticker;
+    }
+
+    /**
+     * Return a stream of the stored bytes for a key. The stream must be closed to allow the
+     * memory it uses to be reused after the entry is evicted.
+     *
+     * @param key key of the stream
+     * @return a stream of the stored bytes, or {@code null} if the key is not stored
+     */
+    public synchronized InputStream get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expirationTime < ticker.currentTimeMillis()) {
+            entries.remove(key);
+            evicted(entry);
+            return null;
+        }
+        entry.references++;
+        return new ChunkInputStream(entry);
+    }
+
+    /**
+     * Return a stream which reads the source stream, storing its bytes for the key when the end
+     * of the stream is reached. The returned stream should be closed, as the chunks already
+     * copied from a stream which is neither read to the end nor closed are not reused until it
+     * has been garbage collected.
+     *
+     * @param key    key of the stream
+     * @param group  group of the stream, or {@code null}
+     * @param source stream to read and store
+     * @return a stream of the bytes of the source stream
+     */
+    public InputStream cache(String key, String group, InputStream source) {
+        return cache(key, group, source, 0);
+    }
+
+    /**
+     * Return a stream which reads the source stream, storing its bytes for the key when the end
+     * of the stream is reached, to be returned for at most the specified lifetime from now. The
+     * returned stream should be closed, as described for
+     * {@link #cache(String, String, InputStream)}.
+     *
+     * @param key      key of the stream
+     * @param group    group of the stream, or {@code null}
+     * @param source   stream to read and store
+     * @param lifetime lifetime in milliseconds of the stored stream, or {@code 0} or less to
+     *                 store it until it is evicted
+     * @return a stream of the bytes of the source stream
+     */
+    public synchronized InputStream cache(String key, String group, InputStream source, long
+            lifetime) {
+        freeUnreachable();
+        long expirationTime = (lifetime > 0) ? ticker.currentTimeMillis() + lifetime : Long
+                .MAX_VALUE;
+        TeeInputStream tee = new TeeInputStream(source, key, group, expirationTime);
+        storing.add(tee.pending);
+        return tee;
+    }
+
+    /**
+     * Delete the stored stream for a key.
+     *
+     * @param key key of the stream
+     */
+    public synchronized void delete(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            evicted(entry);
+        }
+    }
+
+    /**
+     * Delete the stored streams of a group, and prevent the streams of the group which are being
+     * read from being stored.
+     *
+     * @param group group of the streams
+     */
+    public synchronized void deleteGroup(String group) {
+        Set<String> keys = groups.remove(group);
+        if (keys != null) {
+            for (String key : keys) {
+                Entry entry = entries.remove(key);
+                if (entry != null) {
+                    entry.group = null;
+                    evicted(entry);
+                }
+            }
+        }
+        for (Pending pending : storing) {
+            if (group.equals(pending.group)) {
+                pending.stale = true;
+            }
+        }
+    }
+
+    /**
+     * Delete all stored streams.
+     */
+    public synchronized void clear() {
+        for (Entry entry : entries.values()) {
+            entry.group = null;
+            evicted(entry);
+        }
+        entries.clear();
+        groups.clear();
+    }
+
+    /**
+     * @return the number of stored streams
+     */
+    public synchronized int count() {
+        return entries.size();
+    }
+
+    /**
+     * @return the total size in bytes of the stored streams
+     */
+    public synchronized long size() {
+        return bytes;
+    }
+
+    /*
+     * Remove an entry which has been removed from the map from its group and account for it,
+     * releasing the store's reference to its chunks. Called with the lock held.
+     */
+    private void evicted(Entry entry) {
+        if (entry.group != null) {
+            Set<String> keys = groups.get(entry.group);
+            if (keys != null) {
+                keys.remove(entry.key);
+                if (keys.isEmpty()) {
+                    groups.remove(entry.group);
+                }
+            }
+        }
+        bytes -= entry.length;
+        release(entry);
+    }
+
+    private synchronized void release(Entry entry) {
+        if (--entry.references == 0) {
+            freeChunks(entry.chunks);
+        }
+    }
+
+    /*
+     * Return the chunks to the free list. Called with the lock held.
+     */
+    private void freeChunks(List<ByteBuffer> chunks) {
+        for (ByteBuffer chunk : chunks) {
+            chunk.clear();
+            freeChunks.push(chunk);
+        }
+        chunks.clear();
+    }
+
+    /*
+     * Free the chunks of the streams being stored which have been garbage collected without
+     * being read to the end or closed. Called with the lock held.
+     */
+    private void freeUnreachable() {
+        Pending pending;
+        while ((pending = (Pending) unreachable.poll()) != null) {
+            if (storing.remove(pending)) {
+                freeChunks(pending.chunks);
+            }
+        }
+    }
+
+    /*
+     * Take a free chunk, allocating or evicting if necessary, or return null if none is
+     * available because the evicted entries are still being read. A new chunk is allocated
+     * without the lock held, so that other streams are not blocked by the allocation.
+     */
+    private ByteBuffer takeChunk() {
+        synchronized (this) {
+            freeUnreachable();
+            if (!freeChunks.isEmpty() || allocatedChunks >= maxChunks) {
+                Iterator<Entry> leastRecentlyUsed = entries.values().iterator();
+                while (freeChunks.isEmpty() && leastRecentlyUsed.hasNext()) {
+                    Entry entry = leastRecentlyUsed.next();
+                    leastRecentlyUsed.remove();
+                    evicted(entry);
+                }
+                return freeChunks.poll();
+            }
+            allocatedChunks++;
+        }
+        try {
+            return ByteBuffer.allocateDirect(chunkSize);
+        } catch (OutOfMemoryError e) {
+            // Out of direct memory, so the stream is not stored
+            synchronized (this) {
+                allocatedChunks--;
+            }
+            return null;
+        }
+    }
+
+    private synchronized void stored(Pending pending) {
+        storing.remove(pending);
+        pending.clear();
+        if (pending.stale) {
+            freeChunks(pending.chunks);
+            return;
+        }
+        Entry entry = new Entry(pending.key, pending.group, new ArrayList<ByteBuffer>(pending
+                .chunks), pending.length, pending.expirationTime);
+        pending.chunks.clear();
+        Entry replaced = entries.put(entry.key, entry);
+        if (replaced != null) {
+            evicted(replaced);
+        }
+        if (entry.group != null) {
+            groups.computeIfAbsent(entry.group, group -> new HashSet<String>()).add(entry.key);
+        }
+        bytes += entry.length;
+    }
+
+    private synchronized void abandoned(Pending pending) {
+        storing.remove(pending);
+        pending.clear();
+        freeChunks(pending.chunks);
+    }
+
+    private static final class Entry {
+
+        final String key;
+        String group;
+        final List<ByteBuffer> chunks;
+        final long length;
+        final long expirationTime;
+        int references = 1;  // the store's reference and one for each open stream
+
+        Entry(String key, String group, List<ByteBuffer> chunks, long length, long
+                expirationTime) {
+            this.key = key;
+            this.group = group;
+            this.chunks = chunks;
+            this.length = length;
+            this.expirationTime = expirationTime;
+        }
+    }
+
+    /*
+     * Reads a stored entry. The chunks are read through duplicates so that streams of the same
+     * entry are independent.
+     */
+    private final class ChunkInputStream extends InputStream {
+
+        private final Entry entry;
+        private long position;
+        private boolean closed;
+
+        ChunkInputStream(Entry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return (read(b, 0, 1) < 0) ? -1 : (b[0] & 0xff);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            if (position >= entry.length) {
+                return -1;
+            }
+            int offset = (int) (position % chunkSize);
+            int n = (int) Math.min(Math.min(len, chunkSize - offset), entry.length - position);
+            ByteBuffer chunk = entry.chunks.get((int) (position / chunkSize)).duplicate();
+            chunk.position(offset);
+            chunk.get(b, off, n);
+            position += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            long skipped = Math.max(0, Math.min(n, entry.length - position));
+            position += skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, entry.length - position);
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                release(entry);
+            }
+        }
+    }
+
+    /*
+     * The chunks copied so far by a stream being stored. It refers weakly to the stream, so that
+     * the store can free the chunks when the stream is garbage collected without having been
+     * read to the end or closed.
+     */
+    private final class Pending extends WeakReference<TeeInputStream> {
+
+        final String key;
+        final String group;
+        final long expirationTime;
+        final List<ByteBuffer> chunks = new ArrayList<ByteBuffer>();
+        long length;
+        boolean stale;  // guarded by the store
+
+        Pending(TeeInputStream tee, String key, String group, long expirationTime) {
+            super(tee, unreachable);
+            this.key = key;
+            this.group = group;
+            this.expirationTime = expirationTime;
+        }
+    }
+
+    /*
+     * Copies the bytes read from the source into chunks, storing them at the end of the stream.
+     */
+    private final class TeeInputStream extends FilterInputStream {
+
+        final Pending pending;
+        private boolean storing = true;
+
+        TeeInputStream(InputStream source, String key, String group, long expirationTime) {
+            super(source);
+            this.pending = new Pending(this, key, group, expirationTime);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b < 0) {
+                end();
+            } else {
+                copy(new byte[]{(byte) b}, 0, 1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n < 0) {
+                end();
+            } else {
+                copy(b, off, n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // Skipped bytes must still be copied
+            byte[] buffer = new byte[(int) Math.min(n, 8192)];
+            long skipped = 0;
+            while (skipped < n) {
+                int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+                if (read < 0) {
+                    break;
+                }
+                skipped += read;
+            }
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void mark(int readlimit) {
+        }
+
+        @Override
+        public void reset() throws IOException {
+            throw new IOException("mark/reset not supported");
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                abandon();
+            }
+        }
+
+        private void copy(byte[] b, int off, int len) {
+            if (!storing) {
+                return;
+            }
+            if (pending.length + len > maxEntryBytes) {
+                abandon();
+                return;
+            }
+            while (len > 0) {
+                List<ByteBuffer> chunks = pending.chunks;
+                ByteBuffer chunk = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+                if (chunk == null || !chunk.hasRemaining()) {
+                    chunk = takeChunk();
+                    if (chunk == null) {
+                        abandon();
+                        return;
+                    }
+                    chunks.add(chunk);
+                }
+                int n = Math.min(len, chunk.remaining());
+                chunk.put(b, off, n);
+                off += n;
+                len -= n;
+                pending.length += n;
+            }
+        }
+
+        private void end() {
+            if (storing) {
+                storing = false;
+                stored(pending);
+            }
+        }
+
+        private void abandon() {
+            if (storing) {
+                storing = false;
+                abandoned(pending);
+            }
+        }
+    }
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+
+package com.cloudant.client.cache;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * <P>
+ * A Reactive Streams {@link Publisher} of the values for a stream of keys, which looks the keys
+ * up in batches. Keys are requested from the key publisher a batch at a time and each full batch,
+ * and the last partial batch, is looked up on the executor. Up to {@code concurrency} batches
+ * are looked up or waiting to be emitted at once, so at most
+ * {@code concurrency * batchSize} values are held in memory however many keys there are.
+ * </P>
+ * <P>
+ * Values are emitted in the order of their keys, as subscribers request them. Keys are only
+ * requested while fewer than {@code concurrency} batches are outstanding, so a slow subscriber
+ * slows down the key publisher. If a lookup fails the subscriber receives the error and the key
+ * subscription is cancelled.
+ * </P>
+ * <P>
+ * Each subscriber subscribes to the key publisher separately.
+ * </P>
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ * @see DatabaseCache#findAll(Class, Publisher)
+ */
+public class BatchingPublisher<K, V> implements Publisher<V> {
+
+    private final Publisher<? extends K> keys;
+    private final Function<List<K>, List<V>> lookup;
+    private final int batchSize;
+    private final int concurrency;
+    private final Executor executor;
+
+    /**
+     * Create a publisher of the values for the keys published by another publisher.
+     *
+     * @param keys        the publisher of keys
+     * @param lookup      function returning the values for a batch of keys, in the order of the
+     *                    keys, omitting keys with no value
+     * @param batchSize   maximum number of keys to look up at once
+     * @param concurrency maximum number of batches to look up or hold at once
+     * @param executor    executor to look up batches with
+     * @throws IllegalArgumentException if the batch size or concurrency is less than 1
+     */
+    public BatchingPublisher(Publisher<? extends K> keys, Function<List<K>, List<V>> lookup, int
+            batchSize, int concurrency, Executor executor) {
+        if (batchSize < 1 || concurrency < 1) {
+            throw new IllegalArgumentException("batchSize and concurrency must be at least 1");
+        }
+        this.keys = keys;
+        this.lookup = lookup;
+        this.batchSize = batchSize;
+        this.concurrency = concurrency;
+        this.executor = executor;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void subscribe(Subscriber<? super V> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("The subscriber must not be null");
+        }
+        BatchSubscription subscription = new BatchSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        keys.subscribe(subscription);
+    }
+
+    /*
+     * Subscribes to the keys and is the subscription of the values. Every signal is recorded in
+     * a concurrent field or queue and then handled by drain(), which runs on one thread at a
+     * time: the thread which finds wip at zero drains until no signals arrived meanwhile.
+     */
+    private final class BatchSubscription implements Subscription, Subscriber<K> {
+
+        private final Subscriber<? super V> subscriber;
+        private final AtomicInteger wip = new AtomicInteger();
+        private final AtomicLong requested = new AtomicLong();
+        private final Queue<K> received = new ConcurrentLinkedQueue<K>();
+        private volatile Subscription upstream;
+        private volatile boolean upstreamDone;
+        private volatile Throwable error;
+        private volatile boolean cancelled;
+        private volatile boolean done;
+
+        // Only used by drain()
+        private final Queue<CompletableFuture<List<V>>> batches = new ArrayDeque<CompletableFuture
+                <List<V>>>();
+        private List<K> pending = new ArrayList<K>();
+        private Iterator<V> current = Collections.<V>emptyList().iterator();
+        private long emitted;
+        private long outstanding;  // keys requested but not yet received
+
+        BatchSubscription(Subscriber<? super V> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            if (upstream != null) {
+                subscription.cancel();
+                return;
+            }
+            upstream = subscription;
+            if (done) {
+                // Finished before the key publisher called onSubscribe
+                subscription.cancel();
+                return;
+            }
+            drain();
+        }
+
+        @Override
+        public void onNext(K key) {
+            received.add(key);
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            upstreamDone = true;
+            drain();
+        }
+
+        @Override
+        public void onComplete() {
+            upstreamDone = true;
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                error = new IllegalArgumentException("The number of values requested must be " +
+                        "positive");
+            } else {
+                requested.getAndUpdate(r -> (r + n < 0) ? Long.MAX_VALUE : r + n);
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            drain();
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                if (!done) {
+                    drainOnce();
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drainOnce() {
+            if (cancelled || error != null) {
+                finish(error);
+                return;
+            }
+            // Read before polling the keys, as keys are received before the key publisher is done
+            boolean keysDone = upstreamDone;
+            K key;
+            while ((key = received.poll()) != null) {
+                outstanding--;
+                pending.add(key);
+                if (pending.size() == batchSize) {
+                    submit();
+                }
+            }
+            if (keysDone && !pending.isEmpty()) {
+                submit();
+            }
+            while (emitted != requested.get()) {
+                if (current.hasNext()) {
+                    subscriber.onNext(current.next());
+                    emitted++;
+                    if (cancelled) {
+                        finish(null);
+                        return;
+                    }
+                } else {
+                    CompletableFuture<List<V>> next = batches.peek();
+                    if (next == null || !next.isDone() || next.isCompletedExceptionally()) {
+                        break;
+                    }
+                    current = batches.remove().join().iterator();
+                }
+            }
+            CompletableFuture<List<V>> next = batches.peek();
+            if (next != null && next.isCompletedExceptionally()) {
+                try {
+                    next.join();
+                } catch (CompletionException e) {
+                    finish((e.getCause() != null) ? e.getCause() : e);
+                    return;
+                }
+            }
+            if (keysDone && batches.isEmpty() && !current.hasNext()) {
+                finish(null);
+                return;
+            }
+            Subscription subscription = upstream;
+            if (subscription != null && !keysDone && outstanding == 0 && pending.isEmpty() &&
+                    batches.size() < concurrency) {
+                outstanding = batchSize;
+                subscription.request(batchSize);
+            }
+        }
+
+        private void submit() {
+            List<K> batch = pending;
+            pending = new ArrayList<K>();
+            CompletableFuture<List<V>> result = CompletableFuture.supplyAsync(() -> lookup.apply
+                    (batch), executor);
+            batches.add(result);
+            result.whenComplete((values, failure) -> drain());
+        }
+
+        /*
+         * Stop, cancelling the key subscription unless it completed, and signal the subscriber
+         * unless it cancelled.
+         */
+        private void finish(Throwable failure) {
+            done = true;
+            batches.clear();
+            received.clear();
+            Subscription subscription = upstream;
+            if (subscription != null && !upstreamDone) {
+                subscription.cancel();
+            }
+            if (!cancelled) {
+                if (failure != null) {
+                    subscriber.onError(failure);
+                } else {
+                    subscriber.onComplete();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+
+package com.cloudant.client.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <P>
+ * A thread safe Bloom filter of strings: a compact set which answers whether a string might
+ * have been added, with no false negatives and a configurable false positive rate. Strings can
+ * not be removed.
+ * </P>
+ * <P>
+ * The filter is sized for an expected number of strings. Adding more than that raises the false
+ * positive rate, but strings which were added are still always found.
+ * </P>
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * Create a Bloom filter.
+     *
+     * @param expectedInsertions the number of strings expected to be added
+     * @param falsePositiveRate  the false positive rate once that many strings have been added,
+     *                           greater than 0 and less than 1
+     * @throws IllegalArgumentException if the expected insertions are less than 1, the false
+     *                                  positive rate is not between 0 and 1, or the filter would
+     *                                  be too large
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions < 1 || !(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("expectedInsertions must be at least 1 and the " +
+                    "falsePositiveRate between 0 and 1");
+        }
+        // The optimal sizes: m = -n ln(p) / ln(2)^2 bits and k = m / n ln(2) hash functions
+        double ln2 = Math.log(2);
+        long words = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (ln2 *
+                ln2) / Long.SIZE);
+        if (words > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The Bloom filter would be too large");
+        }
+        this.bits = new AtomicLongArray((int) Math.max(1, words));
+        this.bitCount = (long) bits.length() * Long.SIZE;
+        this.hashCount = (int) Math.max(1, Math.round((double) bitCount / expectedInsertions *
+                ln2));
+    }
+
+    /**
+     * Add a string to the filter.
+     *
+     * @param value the string to add
+     * @return true if the filter changed, false if the string might already have been added
+     */
+    public boolean put(String value) {
+        long h1 = hash(value);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        boolean changed = false;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = bits.get(word);
+            while ((current & mask) == 0) {
+                if (bits.compareAndSet(word, current, current | mask)) {
+                    changed = true;
+                    break;
+                }
+                current = bits.get(word);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Return whether a string might have been added to the filter.
+     *
+     * @param value the string to look up
+     * @return false if the string was definitely not added, true if it might have been
+     */
+    public boolean mightContain(String value) {
+        long h1 = hash(value);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of bits in the filter
+     */
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    /**
+     * @return the number of bits set for each string
+     */
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    /**
+     * Return string summarizing the filter.
+     *
+     * @return string containing output
+     */
+    public String toString() {
+        return "BloomFilter with " + bitCount + " bits and " + hashCount + " hash functions";
+    }
+
+    /*
+     * 64 bit FNV-1a of the characters, mixed so that every bit depends on every character.
+     */
+    private static long hash(String value) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        return mix(h);
+    }
+
+    /*
+     * The MurmurHash3 64 bit finalizer.
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB93FE1A85EC9L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
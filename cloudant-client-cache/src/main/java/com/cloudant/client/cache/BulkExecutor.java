@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+
+package com.cloudant.client.cache;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * <P>
+ * Runs the per-entry work of bulk cache operations, such as serializing the entries of a
+ * {@code putAll}, in parallel chunks. Operations on fewer entries than a threshold run on the
+ * calling thread, as for small batches the cost of handing work to other threads outweighs the
+ * gain.
+ * </P>
+ * <P>
+ * Chunks are run by an {@link Executor}, by default the common {@link ForkJoinPool}. The calling
+ * thread runs the last chunk itself and then waits for the others, so an operation only returns
+ * when all of its work is done. On Java versions with virtual threads an executor creating a
+ * virtual thread per task can be used.
+ * </P>
+ *
+ * @see #SEQUENTIAL
+ */
+public final class BulkExecutor {
+
+    /**
+     * An executor which runs all operations on the calling thread. This is the default for
+     * caches.
+     */
+    public static final BulkExecutor SEQUENTIAL = new BulkExecutor(Runnable::run, Integer
+            .MAX_VALUE, Integer.MAX_VALUE);
+
+    /**
+     * The work on a range of the entries of a bulk operation.
+     */
+    @FunctionalInterface
+    public interface RangeAction {
+
+        /**
+         * Process the entries in a range.
+         *
+         * @param from index of the first entry, inclusive
+         * @param to   index of the last entry, exclusive
+         */
+        void run(int from, int to);
+    }
+
+    private final Executor executor;
+    private final int threshold;
+    private final int chunkSize;
+
+    /**
+     * Create an executor running chunks in the common {@link ForkJoinPool}.
+     *
+     * @param threshold minimum number of entries to process in parallel
+     * @param chunkSize number of entries in each chunk
+     * @throws IllegalArgumentException if the threshold or chunk size is less than 1
+     */
+    public BulkExecutor(int threshold, int chunkSize) {
+        this(ForkJoinPool.commonPool(), threshold, chunkSize);
+    }
+
+    /**
+     * Create an executor running chunks with the specified executor.
+     *
+     * @param executor  executor to run chunks with
+     * @param threshold minimum number of entries to process in parallel
+     * @param chunkSize number of entries in each chunk
+     * @throws IllegalArgumentException if the threshold or chunk size is less than 1
+     */
+    public BulkExecutor(Executor executor, int threshold, int chunkSize) {
+        if (threshold < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("The threshold and chunk size must be positive");
+        }
+        this.executor = executor;
+        this.threshold = threshold;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Run an action on each item of a list.
+     *
+     * @param items  the items
+     * @param action action to run on each item, which must be thread safe
+     * @param <T>    the type of the items
+     */
+    public <T> void forEach(List<T> items, Consumer<? super T> action) {
+        forEachRange(items.size(), (from, to) -> {
+            for (T item : items.subList(from, to)) {
+                action.accept(item);
+            }
+        });
+    }
+
+    /**
+     * Split the entries {@code 0} to {@code size - 1} of a bulk operation into ranges and run
+     * an action on each range, in parallel if there are at least as many entries as the
+     * threshold. If an action throws an exception it is thrown once all of the ranges have been
+     * processed.
+     *
+     * @param size   number of entries
+     * @param action action to run on each range, which must be thread safe
+     */
+    public void forEachRange(int size, RangeAction action) {
+        if (size < threshold || size <= chunkSize) {
+            if (size > 0) {
+                action.run(0, size);
+            }
+            return;
+        }
+        int chunks = (size - 1) / chunkSize + 1;
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[chunks - 1];
+        for (int i = 0; i < futures.length; i++) {
+            int from = i * chunkSize;
+            futures[i] = CompletableFuture.runAsync(() -> action.run(from, from + chunkSize),
+                    executor);
+        }
+        Throwable failure = null;
+        try {
+            action.run(futures.length * chunkSize, size);
+        } catch (RuntimeException | Error e) {
+            failure = e;
+        }
+        // Wait for every chunk so that none is still running when this returns
+        for (CompletableFuture<?> future : futures) {
+            try {
+                future.join();
+            } catch (CompletionException e) {
+                if (failure == null) {
+                    failure = (e.getCause() != null) ? e.getCause() : e;
+                }
+            }
+        }
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        } else if (failure != null) {
+            throw new CompletionException(failure);
+        }
+    }
+
+    /**
+     * @return the minimum number of entries to process in parallel
+     */
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * @return the number of entries in each chunk
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+}
@@ -16,6 +16,8 @@ package com.cloudant.client.cache;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
 
 /**
  * @author ArunIyengar
@@ -45,6 +47,37 @@ public interface Cache<K, V> {
      */
     void deleteAll(List<K> keys);
 
+    /**
+     * Return a stream of the unexpired entries in the cache. Traversal is weakly consistent: it
+     * does not block other cache operations, may or may not reflect changes made while it is in
+     * progress, and the cache contents are never copied into memory all at once for remote or
+     * large caches.
+     * <P>
+     * Some implementations hold a connection while the stream is in use, so the stream should
+     * be closed, for example with a try-with-resources statement, if it is not fully consumed.
+     * </P>
+     *
+     * @return stream of keys and their cache entries, with an expiration time of
+     * {@link Long#MAX_VALUE} for caches without lifetimes
+     * @throws UnsupportedOperationException if the cache can not stream its entries
+     */
+    default Stream<Map.Entry<K, CacheEntry<V>>> entries() {
+        throw new UnsupportedOperationException("This cache can not stream its entries");
+    }
+
+    /**
+     * Perform an action for each unexpired entry in the cache, as returned by
+     * {@link #entries()}.
+     *
+     * @param action the action to perform on each key and cache entry
+     * @throws UnsupportedOperationException if the cache can not stream its entries
+     */
+    default void forEachEntry(BiConsumer<? super K, ? super CacheEntry<V>> action) {
+        try (Stream<Map.Entry<K, CacheEntry<V>>> entries = entries()) {
+            entries.forEach(entry -> action.accept(entry.getKey(), entry.getValue()));
+        }
+    }
+
     /**
      * Look up a value in the cache.
      *
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.cloudant.client.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <P>
+ * Reads and writes cache snapshot files. A snapshot is a compact binary file of cache keys,
+ * hottest first, optionally with each value and its absolute expiration time. Snapshots are
+ * written by cache implementations, for example
+ * {@link LRUCache#exportSnapshot(File, int, boolean)}, and are used by {@link CacheWarmer} to
+ * repopulate a cache when an application starts.
+ * </P>
+ * <P>
+ * Keys and values are stored using {@link Serializer} so they must be
+ * {@link java.io.Serializable}.
+ * </P>
+ */
+public final class CacheSnapshot {
+
+    private static final int MAGIC = 0x43534e50; // "CSNP"
+    private static final int VERSION = 1;
+
+    private static final byte END = 0;
+    private static final byte KEY_ONLY = 1;
+    private static final byte KEY_AND_VALUE = 2;
+
+    private CacheSnapshot() {
+    }
+
+    /**
+     * Write a snapshot file.
+     *
+     * @param file          the file to write, replaced if it exists
+     * @param entries       the entries to write in order, hottest first; the {@link CacheEntry}
+     *                      may be {@code null} if values are not included
+     * @param maxEntries    the maximum number of entries to write
+     * @param includeValues {@code true} to include values and expiration times, {@code false}
+     *                      to write only the keys
+     * @param <K>           the type of the cache keys
+     * @param <V>           the type of the cache values
+     * @return the number of entries written
+     * @throws IOException if the file could not be written
+     */
+    public static <K, V> int write(File file, Iterator<? extends Map.Entry<K, CacheEntry<V>>>
+            entries, int maxEntries, boolean includeValues) throws IOException {
+        int written = 0;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new
+                FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            while (written < maxEntries && entries.hasNext()) {
+                Map.Entry<K, CacheEntry<V>> entry = entries.next();
+                byte[] key = Serializer.serializeToByteArray(entry.getKey());
+                if (key == null) {
+                    continue;
+                }
+                CacheEntry<V> cacheEntry = entry.getValue();
+                byte[] value = null;
+                if (includeValues && cacheEntry != null) {
+                    value = Serializer.serializeToByteArray(cacheEntry.getValue());
+                }
+                out.writeByte((value == null) ? KEY_ONLY : KEY_AND_VALUE);
+                writeBytes(out, key);
+                if (value != null) {
+                    out.writeLong(cacheEntry.getExpirationTime());
+                    writeBytes(out, value);
+                }
+                written++;
+            }
+            out.writeByte(END);
+        }
+        return written;
+    }
+
+    /**
+     * Write a snapshot file containing only keys.
+     *
+     * @param file the file to write, replaced if it exists
+     * @param keys the keys to write in order, hottest first
+     * @param <K>  the type of the cache keys
+     * @return the number of keys written
+     * @throws IOException if the file could not be written
+     */
+    public static <K> int writeKeys(File file, Iterable<K> keys) throws IOException {
+        final Iterator<K> keyIterator = keys.iterator();
+        Iterator<Map.Entry<K, CacheEntry<Object>>> entries = new Iterator<Map.Entry<K,
+                CacheEntry<Object>>>() {
+            @Override
+            public boolean hasNext() {
+                return keyIterator.hasNext();
+            }
+
+            @Override
+            public Map.Entry<K, CacheEntry<Object>> next() {
+                return new AbstractMap.SimpleEntry<K, CacheEntry<Object>>(keyIterator
+                        .next(), null);
+            }
+        };
+        return write(file, entries, Integer.MAX_VALUE, false);
+    }
+
+    /**
+     * Read a snapshot file.
+     *
+     * @param file the file to read
+     * @param <K>  the type of the cache keys
+     * @param <V>  the type of the cache values
+     * @return map of the snapshot entries in the order they were written, hottest first. The
+     * {@link CacheEntry} is {@code null} for entries written without a value.
+     * @throws IOException if the file could not be read or is not a snapshot
+     */
+    public static <K, V> Map<K, CacheEntry<V>> read(File file) throws IOException {
+        Map<K, CacheEntry<V>> entries = new LinkedHashMap<K, CacheEntry<V>>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new
+                FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException(file + " is not a supported cache snapshot");
+            }
+            byte type;
+            while ((type = in.readByte()) != END) {
+                K key = Serializer.deserializeFromByteArray(readBytes(in));
+                CacheEntry<V> cacheEntry = null;
+                if (type == KEY_AND_VALUE) {
+                    long expirationTime = in.readLong();
+                    V value = Serializer.deserializeFromByteArray(readBytes(in));
+                    cacheEntry = new CacheEntry<V>(value, expirationTime);
+                }
+                if (key != null) {
+                    entries.put(key, cacheEntry);
+                }
+            }
+        }
+        return entries;
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.cloudant.client.cache;
+
+import com.cloudant.client.api.views.AllDocsResponse;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * <P>
+ * Repopulates a cache when an application starts, so that it reaches a steady state hit ratio
+ * quickly instead of sending every early request to the database.
+ * </P>
+ * <P>
+ * A cache can be warmed either from the values in a {@link CacheSnapshot}, or by re-fetching the
+ * snapshot's document IDs from the database in bulk {@code _all_docs} requests through a
+ * {@link DatabaseCache}. The work is split into batches which are processed in parallel, with
+ * the rate at which batches start limited to avoid overloading the cache or database.
+ * </P>
+ */
+public class CacheWarmer {
+
+    private final int parallelism;
+    private final int batchSize;
+    private final double batchesPerSecond;
+    private volatile Ticker ticker = Ticker.DEFAULT;
+
+    /**
+     * Create a cache warmer.
+     *
+     * @param parallelism      the number of batches to process concurrently
+     * @param batchSize        the number of entries or documents in each batch
+     * @param batchesPerSecond the maximum number of batches to start per second, or {@code 0}
+     *                         for no limit
+     */
+    public CacheWarmer(int parallelism, int batchSize, double batchesPerSecond) {
+        if (parallelism < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("parallelism and batchSize must be at least 1");
+        }
+        this.parallelism = parallelism;
+        this.batchSize = batchSize;
+        this.batchesPerSecond = batchesPerSecond;
+    }
+
+    /**
+     * Set the ticker which reads the time to compute the remaining lifetimes of loaded values.
+     * It should be the ticker of the cache the values are loaded into.
+     *
+     * @param ticker the ticker, or {@code null} for {@link Ticker#DEFAULT}
+     */
+    public void setTicker(Ticker ticker) {
+        this.ticker = (ticker == null) ? Ticker.DEFAULT : ticker;
+    }
+
+    /**
+     * Put the unexpired values from a snapshot into a cache. Entries written without a value are
+     * ignored. If the cache is a {@link CacheWithLifetimes} each value is cached for the remainder
+     * of its lifetime.
+     *
+     * @param snapshot the snapshot file
+     * @param cache    the cache to populate
+     * @param <K>      the type of the cache keys
+     * @param <V>      the type of the cache values
+     * @return the number of values put in the cache
+     * @throws IOException if the snapshot could not be read
+     */
+    public <K, V> int loadValues(File snapshot, final Cache<K, V> cache) throws IOException {
+        Map<K, CacheEntry<V>> entries = CacheSnapshot.read(snapshot);
+        final AtomicInteger loaded = new AtomicInteger();
+        inBatches(new ArrayList<Map.Entry<K, CacheEntry<V>>>(entries.entrySet()),
+                batch -> {
+                    long currentTime = ticker.currentTimeMillis();
+                    for (Map.Entry<K, CacheEntry<V>> entry : batch) {
+                        if (put(cache, entry.getKey(), entry.getValue(), currentTime)) {
+                            loaded.incrementAndGet();
+                        }
+                    }
+                });
+        return loaded.get();
+    }
+
+    /**
+     * Fetch the documents whose IDs are the keys of a snapshot and add them to the cache of a
+     * {@link DatabaseCache}. Any values in the snapshot are ignored.
+     *
+     * @param snapshot  the snapshot file, with document ID keys
+     * @param database  the database to fetch the documents from and whose cache to populate
+     * @param classType the class to deserialize the documents to
+     * @param <T>       the type of the documents
+     * @return the number of documents put in the cache
+     * @throws IOException if the snapshot could not be read
+     */
+    public <T> int loadDocuments(File snapshot, DatabaseCache database, Class<T> classType)
+            throws IOException {
+        Map<Object, CacheEntry<Object>> entries = CacheSnapshot.read(snapshot);
+        List<String> ids = new ArrayList<String>();
+        for (Object key : entries.keySet()) {
+            if (key instanceof String) {
+                ids.add((String) key);
+            }
+        }
+        return loadDocuments(ids, database, classType);
+    }
+
+    /**
+     * Fetch documents and add them to the cache of a {@link DatabaseCache}.
+     *
+     * @param ids       the IDs of the documents to fetch
+     * @param database  the database to fetch the documents from and whose cache to populate
+     * @param classType the class to deserialize the documents to
+     * @param <T>       the type of the documents
+     * @return the number of documents put in the cache
+     */
+    public <T> int loadDocuments(List<String> ids, final DatabaseCache database, final Class<T>
+            classType) {
+        final AtomicInteger loaded = new AtomicInteger();
+        inBatches(ids, batch -> {
+            try {
+                AllDocsResponse response = database.getAllDocsRequestBuilder()
+                        .keys(batch.toArray(new String[batch.size()]))
+                        .includeDocs(true)
+                        .build()
+                        .getResponse();
+                // One id and one document, decoded with the client's Gson, for each row
+                List<String> foundIds = response.getDocIds();
+                List<T> docs = response.getDocsAs(classType);
+                for (int i = 0; i < docs.size(); i++) {
+                    // Missing and deleted documents have no doc in the response
+                    T doc = docs.get(i);
+                    if (doc != null) {
+                        database.cachePut(foundIds.get(i), doc);
+                        loaded.incrementAndGet();
+                    }
+                }
+            } catch (IOException e) {
+                Util.describeException(e, "Exception in CacheWarmer.loadDocuments");
+            }
+        });
+        return loaded.get();
+    }
+
+    private static <K, V> boolean put(Cache<K, V> cache, K key, CacheEntry<V> cacheEntry, long
+            currentTime) {
+        if (cacheEntry == null || cacheEntry.getValue() == null) {
+            return false;
+        }
+        long remainingLifetime = cacheEntry.getExpirationTime() - currentTime;
+        if (remainingLifetime < 0) {
+            return false;
+        }
+        // Entries that never expire take the cache's default lifetime
+        if (cache instanceof CacheWithLifetimes && cacheEntry.getExpirationTime() != Long
+                .MAX_VALUE) {
+            ((CacheWithLifetimes<K, V>) cache).put(key, cacheEntry.getValue(),
+                    remainingLifetime);
+        } else {
+            cache.put(key, cacheEntry.getValue());
+        }
+        return true;
+    }
+
+    /*
+     * Split the items into batches and process them with a pool of threads, waiting for all of
+     * the batches to complete.
+     */
+    private <T> void inBatches(List<T> items, final Consumer<List<T>> action) {
+        final RateLimiter rateLimiter = new RateLimiter(batchesPerSecond);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (int i = 0; i < items.size(); i += batchSize) {
+                final List<T> batch = items.subList(i, Math.min(items.size(), i + batchSize));
+                futures.add(executor.submit(() -> {
+                    rateLimiter.acquire();
+                    action.accept(batch);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            Util.describeException(e, "Exception in CacheWarmer");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /*
+     * Spaces out permits evenly at the configured rate.
+     */
+    private static final class RateLimiter {
+
+        private final long intervalNanos;
+        private long nextPermitNanos = System.nanoTime();
+
+        RateLimiter(double permitsPerSecond) {
+            intervalNanos = (permitsPerSecond > 0) ? (long) (TimeUnit.SECONDS.toNanos(1) /
+                    permitsPerSecond) : 0;
+        }
+
+        void acquire() throws InterruptedException {
+            if (intervalNanos == 0) {
+                return;
+            }
+            long wait;
+            synchronized (this) {
+                long now = System.nanoTime();
+                long permit = Math.max(nextPermitNanos, now);
+                nextPermitNanos = permit + intervalNanos;
+                wait = permit - now;
+            }
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+}
@@ -50,4 +50,30 @@ public interface CacheWithLifetimes<K, V> extends Cache<K, V> {
      * in cache
      */
     CacheEntry<V> getCacheEntry(K key);
+
+    /**
+     * Set the ticker this cache reads the current time from to set and check expiration times.
+     * By default caches read {@link Ticker#DEFAULT}, the ticker set with
+     * {@link Util#setTicker(Ticker)}.
+     *
+     * @param ticker the ticker, or {@code null} to use the default ticker
+     * @throws UnsupportedOperationException if the cache can not use another ticker
+     */
+    default void setTicker(Ticker ticker) {
+        throw new UnsupportedOperationException("This cache can not use another ticker");
+    }
+
+    /**
+     * Randomly shorten the lifetime of each object stored by up to the specified percentage, so
+     * that objects stored together, for example by {@code putAll}, do not all expire at the same
+     * time. Jitter is disabled by default.
+     *
+     * @param percent maximum percentage to shorten lifetimes by, from 0 to 100
+     * @throws IllegalArgumentException      if the percentage is not from 0 to 100
+     * @throws UnsupportedOperationException if the cache can not shorten lifetimes
+     * @see Util#jitter(long, int)
+     */
+    default void setLifetimeJitter(int percent) {
+        throw new UnsupportedOperationException("This cache can not shorten lifetimes");
+    }
 }
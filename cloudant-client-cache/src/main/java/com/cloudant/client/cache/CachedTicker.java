@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+
+package com.cloudant.client.cache;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <P>
+ * A {@link Ticker} which returns a time updated periodically by a background thread, so that
+ * reading the time is a single volatile read rather than a system call. The time returned may be
+ * behind the system time by up to the resolution, so entries may be treated as unexpired for up
+ * to that much longer than their lifetime.
+ * </P>
+ * <P>
+ * The background thread is a daemon thread and is stopped by {@link #close()}, after which the
+ * system time is returned.
+ * </P>
+ */
+public final class CachedTicker implements Ticker, AutoCloseable {
+
+    private final long resolutionNanos;
+    private final Thread updater;
+    private volatile long time;
+    private volatile boolean closed;
+
+    /**
+     * Create a ticker which updates the time at the specified interval.
+     *
+     * @param resolution interval between updates of the time
+     * @param unit       TimeUnit of the resolution
+     * @throws IllegalArgumentException if the resolution is not positive
+     */
+    public CachedTicker(long resolution, TimeUnit unit) {
+        if (resolution < 1) {
+            throw new IllegalArgumentException("The resolution must be positive");
+        }
+        this.resolutionNanos = unit.toNanos(resolution);
+        this.time = System.currentTimeMillis();
+        this.updater = new Thread(this::run, "CachedTicker");
+        updater.setDaemon(true);
+        updater.start();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long currentTimeMillis() {
+        return closed ? System.currentTimeMillis() : time;
+    }
+
+    /**
+     * Stop the background thread.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(updater);
+    }
+
+    private void run() {
+        while (!closed) {
+            LockSupport.parkNanos(this, resolutionNanos);
+            time = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.cloudant.client.cache;
+
+import com.cloudant.client.api.model.Document;
+import com.cloudant.client.api.views.ViewResponse;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/*
+ * A copy of an unpaginated view response which can be cached. The rows are copied when it is
+ * created and included documents are stored as JSON, so it can be serialized if the row keys and
+ * values can be.
+ */
+final class CachedViewResponse<K, V> implements ViewResponse<K, V>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private static final Gson GSON = new Gson();
+
+    private final List<CachedRow<K, V>> rows;
+    private final Long pageNumber;
+    private final Long firstRowCount;
+    private final Long lastRowCount;
+    private final Long totalRowCount;
+
+    CachedViewResponse(ViewResponse<K, V> response) {
+        List<CachedRow<K, V>> rows = new ArrayList<CachedRow<K, V>>();
+        for (Row<K, V> row : response.getRows()) {
+            JsonObject document = row.getDocumentAsType(JsonObject.class);
+            rows.add(new CachedRow<K, V>(row.getId(), row.getKey(), row.getValue(),
+                    (document == null) ? null : document.toString()));
+        }
+        this.rows = rows;
+        this.pageNumber = response.getPageNumber();
+        this.firstRowCount = response.getFirstRowCount();
+        this.lastRowCount = response.getLastRowCount();
+        this.totalRowCount = response.getTotalRowCount();
+    }
+
+    @Override
+    public List<Row<K, V>> getRows() {
+        return new ArrayList<Row<K, V>>(rows);
+    }
+
+    @Override
+    public List<K> getKeys() {
+        List<K> keys = new ArrayList<K>(rows.size());
+        for (CachedRow<K, V> row : rows) {
+            keys.add(row.getKey());
+        }
+        return keys;
+    }
+
+    @Override
+    public List<V> getValues() {
+        List<V> values = new ArrayList<V>(rows.size());
+        for (CachedRow<K, V> row : rows) {
+            values.add(row.getValue());
+        }
+        return values;
+    }
+
+    @Override
+    public List<Document> getDocs() {
+        return getDocsAs(Document.class);
+    }
+
+    @Override
+    public <D> List<D> getDocsAs(Class<D> docType) {
+        List<D> docs = new ArrayList<D>(rows.size());
+        for (CachedRow<K, V> row : rows) {
+            D doc = row.getDocumentAsType(docType);
+            if (doc != null) {
+                docs.add(doc);
+            }
+        }
+        return docs;
+    }
+
+    @Override
+    public boolean hasNextPage() {
+        return false;
+    }
+
+    @Override
+    public boolean hasPreviousPage() {
+        return false;
+    }
+
+    @Override
+    public ViewResponse<K, V> nextPage() {
+        return null;
+    }
+
+    @Override
+    public ViewResponse<K, V> previousPage() {
+        return null;
+    }
+
+    @Override
+    public String getNextPageToken() {
+        return null;
+    }
+
+    @Override
+    public String getPreviousPageToken() {
+        return null;
+    }
+
+    @Override
+    public Long getPageNumber() {
+        return pageNumber;
+    }
+
+    @Override
+    public Long getFirstRowCount() {
+        return firstRowCount;
+    }
+
+    @Override
+    public Long getLastRowCount() {
+        return lastRowCount;
+    }
+
+    @Override
+    public Long getTotalRowCount() {
+        return totalRowCount;
+    }
+
+    @Override
+    public Iterator<ViewResponse<K, V>> iterator() {
+        return Collections.<ViewResponse<K, V>>singletonList(this).iterator();
+    }
+
+    private static final class CachedRow<K, V> implements Row<K, V>, Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String id;
+        private final K key;
+        private final V value;
+        private final String document;  // JSON, or null if documents were not included
+
+        CachedRow(String id, K key, V value, String document) {
+            this.id = id;
+            this.key = key;
+            this.value = value;
+            this.document = document;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public Document getDocument() {
+            return getDocumentAsType(Document.class);
+        }
+
+        @Override
+        public <D> D getDocumentAsType(Class<D> docType) {
+            return (document == null) ? null : GSON.fromJson(document, docType);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.cloudant.client.cache;
+
+import com.cloudant.client.api.Database;
+import com.cloudant.client.api.views.Key;
+import com.cloudant.client.api.views.MultipleRequestBuilder;
+import com.cloudant.client.api.views.PaginatedRequestBuilder;
+import com.cloudant.client.api.views.UnpaginatedRequestBuilder;
+import com.cloudant.client.api.views.ViewRequest;
+import com.cloudant.client.api.views.ViewRequestBuilder;
+import com.cloudant.client.api.views.ViewResponse;
+import com.google.gson.Gson;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+
+/*
+ * A view request builder whose unpaginated requests are cached by a QueryCache. Paginated and
+ * multiple requests are not cached and are built by the delegate.
+ *
+ * The cache key is built from the design document, view, key and value types and every parameter
+ * set on the request builder, sorted by name, so that requests for the same view with the same
+ * parameters share a cached response whatever order the parameters were set in.
+ */
+final class CachingViewRequestBuilder extends ViewRequestBuilder {
+
+    private static final Gson GSON = new Gson();
+
+    private final ViewRequestBuilder delegate;
+    private final QueryCache queryCache;
+    private final String view;
+
+    CachingViewRequestBuilder(Database database, ViewRequestBuilder delegate, QueryCache
+            queryCache, String designDoc, String viewName) {
+        // The client is only used by the methods which are overridden to use the delegate
+        super(null, database, designDoc, viewName);
+        this.delegate = delegate;
+        this.queryCache = queryCache;
+        this.view = designDoc + "/" + viewName;
+    }
+
+    @Override
+    public <K, V> UnpaginatedRequestBuilder<K, V> newRequest(Key.Type<K> keyType, Class<V>
+            valueType) {
+        return new CachingRequestBuilder<K, V>(delegate.newRequest(keyType, valueType),
+                queryCache, "view/" + view + "/" + typeName(keyType) + "/" + valueType.getName());
+    }
+
+    @Override
+    public <K, V> PaginatedRequestBuilder<K, V> newPaginatedRequest(Key.Type<K> keyType,
+                                                                    Class<V> valueType) {
+        return delegate.newPaginatedRequest(keyType, valueType);
+    }
+
+    @Override
+    public <K, V> MultipleRequestBuilder<K, V> newMultipleRequest(Key.Type<K> keyType,
+                                                                  Class<V> valueType) {
+        return delegate.newMultipleRequest(keyType, valueType);
+    }
+
+    private static String typeName(Key.Type<?> keyType) {
+        if (keyType == Key.Type.STRING) {
+            return "string";
+        } else if (keyType == Key.Type.NUMBER) {
+            return "number";
+        } else if (keyType == Key.Type.BOOLEAN) {
+            return "boolean";
+        }
+        return "complex";
+    }
+
+    private static String toJson(Object key) {
+        return (key instanceof Key.ComplexKey) ? ((Key.ComplexKey) key).toJson() : GSON.toJson
+                (key);
+    }
+
+    /*
+     * Records each parameter as it is set on the delegate.
+     */
+    private static final class CachingRequestBuilder<K, V> implements
+            UnpaginatedRequestBuilder<K, V> {
+
+        private final UnpaginatedRequestBuilder<K, V> delegate;
+        private final QueryCache queryCache;
+        private final String request;
+        private final Map<String, String> parameters = new TreeMap<String, String>();
+
+        CachingRequestBuilder(UnpaginatedRequestBuilder<K, V> delegate, QueryCache queryCache,
+                              String request) {
+            this.delegate = delegate;
+            this.queryCache = queryCache;
+            this.request = request;
+        }
+
+        private UnpaginatedRequestBuilder<K, V> set(String name, Object value) {
+            parameters.put(name, String.valueOf(value));
+            return this;
+        }
+
+        @Override
+        public ViewRequest<K, V> build() {
+            return new CachingViewRequest<K, V>(delegate.build(), queryCache, request + "?" +
+                    parameters);
+        }
+
+        @Override
+        public UnpaginatedRequestBuilder<K, V> returnThis() {
+            return this;
+        }
+
+        @Override
+        public UnpaginatedRequestBuilder<K, V> limit(int limit) {
+            delegate.limit(limit);
+            return set("limit", limit);
+        }
+
+        @Override
+        public UnpaginatedRequestBuilder<K, V> skip(long skip) {
+            delegate.skip(skip);
+            return set("skip", skip);
+        }
+
+        @Override
+        public UnpaginatedRequestBuilder<K, V> descending(boolean descending) {
+            delegate.descending(descending);
+            return set("descending", descending);
+        }
+
+        @Override
+        public UnpaginatedRequestBuilder<K, V> endKey(K endKey) {
+            delegate.endKey(endKey);
+            return set("end_key", toJson(endKey));
+        }
+
+        @Override
+        public UnpaginatedRequestBuilder<K, V> endKeyDocId(String endKeyDocId) {
+            delegate.endKeyDocId(endKeyDocId);
+            return set("end_key_doc_id", endKeyDocId);
+        }
+
+        @Override
+        public UnpaginatedRequestBuilder<K, V> includeDocs(boolean includeDocs) {
+            delegate.includeDocs(includeDocs);
+            return set("include_docs", includeDocs);
+        }
+
+        @Override
+        public UnpaginatedRequestBuilder<K, V> inclusiveEnd(boolean inclusiveEnd) {
+            delegate.inclusiveEnd(inclusiveEnd);
+            return set("inclusive_end", inclusiveEnd);
+        }
+
+        @Override
+        @SafeVarargs
+        public final UnpaginatedRequestBuilder<K, V> keys(K... keys) {
+            delegate.keys(keys);
+            StringBuilder json = new StringBuilder("[");
+            for (K key : keys) {
+                json.append(json.length() > 1 ? "," : "").append(toJson(key));
+            }
+            return set("keys", json.append("]"));
+        }
+
+        @Override
+        public UnpaginatedRequestBuilder<K, V> stale(String stale) {
+            delegate.stale(stale);
+            return set("stale", stale);
+        }
+
+        @Override
+        public UnpaginatedRequestBuilder<K, V> startKey(K startKey) {
+            delegate.startKey(startKey);
+            return set("start_key", toJson(startKey));
+        }
+
+        @Override
+        public UnpaginatedRequestBuilder<K, V> startKeyDocId(String startKeyDocId) {
+            delegate.startKeyDocId(startKeyDocId);
+            return set("start_key_doc_id", startKeyDocId);
+        }
+
+        @Override
+        public UnpaginatedRequestBuilder<K, V> reduce(boolean reduce) {
+            delegate.reduce(reduce);
+            return set("reduce", reduce);
+        }
+
+        @Override
+        public UnpaginatedRequestBuilder<K, V> group(boolean group) {
+            delegate.group(group);
+            return set("group", group);
+        }
+
+        @Override
+        public UnpaginatedRequestBuilder<K, V> groupLevel(int groupLevel) {
+            delegate.groupLevel(groupLevel);
+            return set("group_level", groupLevel);
+        }
+    }
+
+    private static final class CachingViewRequest<K, V> implements ViewRequest<K, V> {
+
+        private final ViewRequest<K, V> delegate;
+        private final QueryCache queryCache;
+        private final String request;
+
+        CachingViewRequest(ViewRequest<K, V> delegate, QueryCache queryCache, String request) {
+            this.delegate = delegate;
+            this.queryCache = queryCache;
+            this.request = request;
+        }
+
+        @Override
+        public ViewResponse<K, V> getResponse() throws IOException {
+            return queryCache.get(request, () -> new CachedViewResponse<K, V>(delegate
+                    .getResponse()));
+        }
+
+        @Override
+        public ViewResponse<K, V> getResponse(String pageToken) throws IOException {
+            return delegate.getResponse(pageToken);
+        }
+
+        @Override
+        public V getSingleValue() throws IOException {
+            return queryCache.get(request + "#single", delegate::getSingleValue);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.cloudant.client.cache;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/*
+ * Converts JSON to a canonical form, with the members of every object sorted by name and no
+ * insignificant whitespace, so that equivalent JSON documents have the same string.
+ */
+final class CanonicalJson {
+
+    private CanonicalJson() {
+    }
+
+    /*
+     * Return the canonical form of a JSON string.
+     */
+    static String canonicalize(String json) {
+        return canonicalize(new JsonParser().parse(json)).toString();
+    }
+
+    /*
+     * Return a copy of a JSON element with the members of every object sorted by name.
+     */
+    static JsonElement canonicalize(JsonElement json) {
+        if (json.isJsonObject()) {
+            Map<String, JsonElement> members = new TreeMap<String, JsonElement>();
+            for (Map.Entry<String, JsonElement> member : json.getAsJsonObject().entrySet()) {
+                members.put(member.getKey(), canonicalize(member.getValue()));
+            }
+            JsonObject sorted = new JsonObject();
+            members.forEach(sorted::add);
+            return sorted;
+        } else if (json.isJsonArray()) {
+            JsonArray array = new JsonArray();
+            for (JsonElement element : json.getAsJsonArray()) {
+                array.add(canonicalize(element));
+            }
+            return array;
+        }
+        return json;
+    }
+}
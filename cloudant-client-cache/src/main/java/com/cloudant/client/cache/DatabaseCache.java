@@ -15,10 +15,30 @@
 package com.cloudant.client.cache;
 
 import com.cloudant.client.api.Database;
+import com.cloudant.client.api.model.FindByIndexOptions;
+import com.cloudant.client.api.model.IndexField;
 import com.cloudant.client.api.model.Params;
 import com.cloudant.client.api.model.Response;
+import com.cloudant.client.api.views.AllDocsResponse;
+import com.cloudant.client.api.views.ViewRequestBuilder;
+import com.cloudant.client.org.lightcouch.NoDocumentException;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
 
+import org.reactivestreams.Publisher;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * A {@link Database} implementation with a cache.
@@ -28,7 +48,35 @@ import java.util.List;
 public class DatabaseCache extends Database {
 
     protected final Cache<String, Object> cache;
-    
+
+    // Shares loads of the same document between threads, storing the result with cachePut
+    private final SingleFlightLoader<String, Object> loader;
+
+    /**
+     * The default number of ids {@link #findAll(Class, Publisher)} looks up at once.
+     */
+    public static final int DEFAULT_FIND_BATCH_SIZE = 200;
+
+    /**
+     * The default maximum number of batches {@link #findAll(Class, Publisher)} looks up at once.
+     */
+    public static final int DEFAULT_FIND_CONCURRENCY = 4;
+
+    private static final Gson GSON = new Gson();
+    private static final Executor FIND_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "DatabaseCache findAll");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile WriteBehindQueue writeBehind;  // null unless write-behind is enabled
+    private volatile QueryCache queryCache;  // null unless query caching is enabled
+    private volatile AttachmentStore attachmentStore;  // null unless attachments are cached
+    private volatile long latestStreamLifetime;  // milliseconds, 0 unless latest reads are cached
+    private volatile DocumentIdFilter idFilter;  // null unless the id filter is enabled
+    private volatile AccessTrace.Recorder traceRecorder;  // null unless accesses are traced
+    private final ValueStrategy valueStrategy;
+    private volatile BulkExecutor bulkExecutor = BulkExecutor.SEQUENTIAL;
+
     /**
      * Constructor which is designed to work with a variety of different caches.
      *
@@ -36,8 +84,27 @@ public class DatabaseCache extends Database {
      * @param cacheInstance non-null cache instance which has already been created and initialized
      */
     public DatabaseCache(Database database, Cache<String, Object> cacheInstance) {
+        this(database, cacheInstance, ValueStrategy.REFERENCE);
+    }
+
+    /**
+     * Constructor which also sets how documents are stored in the cache and returned from it.
+     * The strategy can not be changed later, as values cached with one strategy may not be
+     * readable with another; a cache shared with other instances must be used with the same
+     * strategy by all of them.
+     *
+     * @param database      non-null data structure with information about the database connection
+     * @param cacheInstance non-null cache instance which has already been created and initialized
+     * @param strategy      non-null value strategy
+     * @see ValueStrategy
+     */
+    public DatabaseCache(Database database, Cache<String, Object> cacheInstance, ValueStrategy
+            strategy) {
         super(database);
         this.cache = cacheInstance;
+        this.valueStrategy = strategy;
+        this.loader = new SingleFlightLoader<String, Object>(cacheInstance, values -> values
+                .forEach(this::cachePut));
     }
 
 
@@ -48,7 +115,7 @@ public class DatabaseCache extends Database {
      * @param object object to cache
      */
     protected void cachePut(String id, Object object) {
-        cache.put(id, object);
+        cache.put(id, valueStrategy.store(object));
     }
 
     /**
@@ -60,7 +127,7 @@ public class DatabaseCache extends Database {
      * @return value of object
      */
     protected <T> T cacheGet(Class<T> classType, String id) {
-        return classType.cast(cache.get(id));
+        return valueStrategy.read(cache.get(id), classType);
     }
 
     /**
@@ -82,48 +149,453 @@ public class DatabaseCache extends Database {
         return cache;
     }
 
+    /**
+     * @return how documents are stored in the cache and returned from it
+     */
+    public ValueStrategy getValueStrategy() {
+        return valueStrategy;
+    }
+
+    /**
+     * Set the executor which puts the documents written by {@link #bulk(List)} into the cache in
+     * parallel, which helps when documents are copied or encoded by the value strategy. By
+     * default they are put on the calling thread.
+     *
+     * @param bulkExecutor the executor
+     * @see BulkExecutor
+     */
+    public void setBulkExecutor(BulkExecutor bulkExecutor) {
+        this.bulkExecutor = bulkExecutor;
+    }
+
+    /**
+     * <P>
+     * Enable write-behind for {@link #save(Object)}. The saved object is put in the cache
+     * immediately and queued to be written to the database in a later {@code _bulk_docs}
+     * request, instead of being written before save returns. Queued saves of the same document
+     * id are coalesced, so only the most recent is written.
+     * </P>
+     * <P>
+     * A batch is written when {@code batchSize} documents are queued or the oldest queued save
+     * is {@code flushInterval} old. Saves block while {@code capacity} documents are queued, so
+     * an application can not get further ahead of the database than that. Objects without an
+     * {@code _id} are saved immediately as they can not be cached before they are written.
+     * </P>
+     * <P>
+     * Documents rejected by the database, for example because of a conflict, and documents in
+     * a request that fails are removed from the cache and passed to the failure handler on the
+     * write-behind thread. Other write operations first {@link #flush()} queued saves so that
+     * writes reach the database in order.
+     * </P>
+     * <P>
+     * As the response to a queued save has no revision, the saved object keeps the revision it
+     * had and saving it again after it has been written conflicts. Written documents are
+     * therefore removed from the cache, unless saved again meanwhile, so that
+     * {@link #find(Class, String)} returns the document with its new revision to modify and save
+     * again. Saves of the same document queued before it is written are coalesced and do not
+     * conflict.
+     * </P>
+     *
+     * @param batchSize      maximum number of documents to write in one request
+     * @param flushInterval  maximum time to wait before writing a queued save
+     * @param unit           TimeUnit of the flush interval
+     * @param capacity       maximum number of queued documents
+     * @param failureHandler handler for documents which could not be written, or {@code null}
+     * @throws IllegalStateException if write-behind is already enabled
+     * @see #disableWriteBehind()
+     */
+    public synchronized void enableWriteBehind(int batchSize, long flushInterval, TimeUnit
+            unit, int capacity, Consumer<WriteFailure> failureHandler) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The batch size must be at least 1");
+        }
+        if (flushInterval < 0) {
+            throw new IllegalArgumentException("The flush interval must not be negative");
+        }
+        if (capacity < batchSize) {
+            throw new IllegalArgumentException("The capacity must be at least the batch size");
+        }
+        if (writeBehind != null) {
+            throw new IllegalStateException("Write-behind is already enabled");
+        }
+        writeBehind = new WriteBehindQueue(batchSize, unit.toMillis(flushInterval), capacity,
+                this::writeBehindBulk, this::cachePut, this::cacheDelete, failureHandler);
+    }
+
+    /**
+     * Write all queued saves to the database, returning when they have been written. Does
+     * nothing if write-behind is not enabled.
+     *
+     * @see #enableWriteBehind
+     */
+    public void flush() {
+        WriteBehindQueue queue = writeBehind;
+        if (queue != null) {
+            queue.flush();
+        }
+    }
+
+    /**
+     * Disable write-behind, writing any queued saves to the database and stopping the
+     * write-behind thread. Subsequent saves are written immediately.
+     *
+     * @see #enableWriteBehind
+     */
+    public synchronized void disableWriteBehind() {
+        WriteBehindQueue queue = writeBehind;
+        if (queue != null) {
+            writeBehind = null;
+            queue.close();
+        }
+    }
+
+    /**
+     * <P>
+     * Enable caching of query results. The results of {@link #findByIndex} queries and of
+     * unpaginated requests built from {@link #getViewRequestBuilder} are stored in the
+     * specified cache for the specified lifetime, keyed by a normalized form of the request, so
+     * that repeated identical queries are served from the cache.
+     * </P>
+     * <P>
+     * Any write through this instance invalidates all of the cached results. Writes by other
+     * clients are not detected, so results may be stale for up to the lifetime. Paginated and
+     * multiple view requests are not cached.
+     * </P>
+     * <P>
+     * Results are keyed under a namespace of the database URI and a random value chosen when
+     * query caching is enabled, so a cache shared with documents, other databases or other
+     * processes never returns their results. Results are therefore not shared between
+     * instances, even of the same database.
+     * </P>
+     *
+     * @param resultCache cache to store query results in, which may be the document cache
+     * @param lifetime    lifetime of cached results
+     * @param unit        TimeUnit of the lifetime
+     * @see #invalidateQueries()
+     */
+    public void enableQueryCache(Cache<String, Object> resultCache, long lifetime, TimeUnit
+            unit) {
+        enableQueryCache(resultCache, lifetime, unit, Ticker.DEFAULT);
+    }
+
+    /**
+     * Enable caching of query results as {@link #enableQueryCache(Cache, long, TimeUnit)} does,
+     * reading the time for the lifetimes of cached results from the specified ticker. If the
+     * result cache is a {@link CacheWithLifetimes} it should use the same ticker.
+     *
+     * @param resultCache cache to store query results in, which may be the document cache
+     * @param lifetime    lifetime of cached results
+     * @param unit        TimeUnit of the lifetime
+     * @param ticker      the ticker, or {@code null} for {@link Ticker#DEFAULT}
+     * @see #invalidateQueries()
+     */
+    public void enableQueryCache(Cache<String, Object> resultCache, long lifetime, TimeUnit
+            unit, Ticker ticker) {
+        if (lifetime < 0) {
+            throw new IllegalArgumentException("The lifetime must not be negative");
+        }
+        queryCache = new QueryCache(resultCache, unit.toMillis(lifetime), getDBUri(), (ticker ==
+                null) ? Ticker.DEFAULT : ticker);
+    }
+
+    /**
+     * <P>
+     * Enable caching of attachments read with {@link #getAttachment} and documents read as
+     * streams with {@link #find(String)}, in an {@link AttachmentStore} which holds at most the
+     * specified number of bytes outside of the Java heap. A stream is stored as the application
+     * reads it and is only stored if the application reads it to the end.
+     * </P>
+     * <P>
+     * Streams read for a specific revision are cached until they are evicted, as the content of
+     * a revision can not change. Streams of the latest revision are not cached, as the document
+     * may be written by other clients; use
+     * {@link #enableAttachmentCache(long, long, long, TimeUnit)} to cache them for a lifetime.
+     * </P>
+     *
+     * @param maxBytes           maximum number of bytes to cache
+     * @param maxAttachmentBytes maximum size in bytes of an attachment to cache
+     * @see AttachmentStore
+     */
+    public void enableAttachmentCache(long maxBytes, long maxAttachmentBytes) {
+        enableAttachmentCache(maxBytes, maxAttachmentBytes, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * <P>
+     * Enable caching of attachments and document streams as
+     * {@link #enableAttachmentCache(long, long)} does, also caching streams of the latest
+     * revision for the specified lifetime.
+     * </P>
+     * <P>
+     * A cached stream of the latest revision is removed when the document is written through
+     * this instance, but a write by another client is not seen until the lifetime has passed.
+     * </P>
+     *
+     * @param maxBytes           maximum number of bytes to cache
+     * @param maxAttachmentBytes maximum size in bytes of an attachment to cache
+     * @param latestLifetime     lifetime of cached streams of the latest revision, or {@code 0}
+     *                           not to cache them
+     * @param unit               TimeUnit of the lifetime
+     * @see AttachmentStore
+     */
+    public void enableAttachmentCache(long maxBytes, long maxAttachmentBytes, long
+            latestLifetime, TimeUnit unit) {
+        if (latestLifetime < 0) {
+            throw new IllegalArgumentException("Lifetime must not be negative: " + latestLifetime);
+        }
+        latestStreamLifetime = unit.toMillis(latestLifetime);
+        attachmentStore = new AttachmentStore(maxBytes, maxAttachmentBytes);
+    }
+
+    /**
+     * Returns the attachment cache so that the application can manage it.
+     *
+     * @return the attachment cache, or {@code null} if attachment caching is not enabled
+     * @see #enableAttachmentCache
+     */
+    public AttachmentStore getAttachmentCache() {
+        return attachmentStore;
+    }
+
+    /**
+     * Invalidate all cached query results, for example after the database has been changed by
+     * another client. Does nothing if query caching is not enabled.
+     *
+     * @see #enableQueryCache
+     */
+    public void invalidateQueries() {
+        QueryCache queries = queryCache;
+        if (queries != null) {
+            queries.invalidate();
+        }
+    }
+
+    /**
+     * <P>
+     * Enable a Bloom filter of the ids of the documents in the database, so that
+     * {@link #contains(String)} and finds of ids which definitely do not exist are answered
+     * without a request to the database. Most ids which do not exist are rejected by the filter;
+     * the remainder, the false positives, are looked up in the database as usual.
+     * </P>
+     * <P>
+     * The filter is seeded with the ids in {@code _all_docs} before this method returns. Ids
+     * written through this instance are added immediately. Documents created by other clients
+     * are only added when the changes feed is read, every poll interval or when
+     * {@link #updateIdFilter()} is called; until then they are reported as not existing.
+     * </P>
+     * <P>
+     * If the changes feed has not been read successfully for two poll intervals, for example
+     * because the database can not be reached, the filter rejects no ids and every id is looked
+     * up in the database until the feed is read again.
+     * </P>
+     *
+     * @param expectedDocuments the number of documents the database is expected to grow to
+     * @param falsePositiveRate the fraction of ids which do not exist to look up in the database
+     * @param pollInterval      time between reads of the changes feed
+     * @param unit              TimeUnit of the poll interval
+     * @throws IllegalArgumentException if the poll interval is not positive
+     * @throws IllegalStateException    if the id filter is already enabled
+     * @see BloomFilter
+     * @see #disableIdFilter()
+     */
+    public synchronized void enableIdFilter(long expectedDocuments, double falsePositiveRate,
+                                            long pollInterval, TimeUnit unit) {
+        if (pollInterval <= 0) {
+            throw new IllegalArgumentException("The poll interval must be positive");
+        }
+        if (idFilter != null) {
+            throw new IllegalStateException("The id filter is already enabled");
+        }
+        idFilter = new DocumentIdFilter(this, expectedDocuments, falsePositiveRate, unit.toMillis
+                (pollInterval));
+    }
+
+    /**
+     * Add the ids of documents created since the id filter was last updated from the changes
+     * feed. Does nothing if the id filter is not enabled.
+     *
+     * @see #enableIdFilter
+     */
+    public void updateIdFilter() {
+        DocumentIdFilter filter = idFilter;
+        if (filter != null) {
+            filter.update();
+        }
+    }
+
+    /**
+     * Disable the id filter, stopping the thread polling the changes feed.
+     *
+     * @see #enableIdFilter
+     */
+    public synchronized void disableIdFilter() {
+        DocumentIdFilter filter = idFilter;
+        if (filter != null) {
+            idFilter = null;
+            filter.close();
+        }
+    }
+
+    /**
+     * Record the ids of the documents read, checked, written and deleted through this instance,
+     * to replay them later with a {@link TraceSimulator}. Reads are recorded by the {@code find},
+     * {@code findAny} and {@code findAll} methods, checks by {@link #contains(String)}, writes
+     * by the methods which cache the written document and deletes by {@link #remove(Object)}.
+     *
+     * @param recorder the recorder, or {@code null} to stop recording. The recorder is not
+     *                 closed when recording stops.
+     * @see AccessTrace#record(java.io.File)
+     */
+    public void setTraceRecorder(AccessTrace.Recorder recorder) {
+        traceRecorder = recorder;
+    }
+
+    private void trace(AccessTrace.Operation operation, String id) {
+        AccessTrace.Recorder recorder = traceRecorder;
+        if (recorder != null) {
+            recorder.record(operation, id);
+        }
+    }
+
+    /*
+     * Return true if the id filter is enabled and the document definitely does not exist.
+     */
+    private boolean definitelyAbsent(String id) {
+        DocumentIdFilter filter = idFilter;
+        return filter != null && !filter.mightContain(id);
+    }
+
+    /*
+     * Write a batch of queued saves.
+     */
+    private List<Response> writeBehindBulk(List<Object> objects) {
+        List<Response> responses = super.bulk(objects);
+        for (Response response : responses) {
+            written(response.getId());
+        }
+        return responses;
+    }
+
+    /*
+     * Invalidate the cached query results and attachments which a write of a document may have
+     * changed.
+     */
+    private void written(String id) {
+        DocumentIdFilter filter = idFilter;
+        if (filter != null) {
+            filter.add(id);
+        }
+        invalidateQueries();
+        AttachmentStore store = attachmentStore;
+        if (store != null && id != null) {
+            store.deleteGroup(id);
+        }
+    }
+
+    /*
+     * Return the _id of an object as it would be serialized, or null if it has none.
+     */
+    private static String documentId(Object object) {
+        JsonElement json = GSON.toJsonTree(object);
+        if (json.isJsonObject()) {
+            JsonElement id = json.getAsJsonObject().get("_id");
+            if (id != null && id.isJsonPrimitive()) {
+                return id.getAsString();
+            }
+        }
+        return null;
+    }
+
+    /*
+     * The response to a save queued by write-behind, which has not been written yet.
+     */
+    private static final class QueuedResponse extends Response {
+
+        private final String id;
+
+        QueuedResponse(String id) {
+            this.id = id;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public String getRev() {
+            return null;
+        }
+
+        @Override
+        public String getError() {
+            return null;
+        }
+
+        @Override
+        public String getReason() {
+            return null;
+        }
+
+        @Override
+        public int getStatusCode() {
+            return 202;
+        }
+
+        @Override
+        public String toString() {
+            return "Response{id=" + id + ", status=202 (queued)}";
+        }
+    }
+
     /* Database methods follow that will interact with the cache */
 
     /**
      * <P>
      * Preferentially use the cache for the find operation. Adds the retrieved T to the cache if
-     * it was not present and was found in the remote database.
+     * it was not present and was found in the remote database. Concurrent finds of the same
+     * missing document share a single remote request. If the id filter is enabled, documents
+     * it rejects are not requested.
      * </P>
      * {@inheritDoc}
      */
     public <T> T find(Class<T> classType, String id) {
+        trace(AccessTrace.Operation.READ, id);
         T value = cacheGet(classType, id);
         if (value != null) {
             return value;
-        } else {
-            value = super.find(classType, id);
-            cachePut(id, value);
-            return value;
         }
+        checkIdFilter(id);
+        return valueStrategy.read(loader.get(id, key -> super.find(classType, key)), classType);
     }
 
     /**
      * <P>
      * Preferentially use the cache for the find operation. Adds the retrieved T to the cache if
-     * it was not present and was found in the remote database.
+     * it was not present and was found in the remote database. Unlike
+     * {@link #find(Class, String)}, concurrent finds do not share a remote request, as the
+     * parameters, such as a revision, may select a different document. If the id filter is
+     * enabled, documents it rejects are not requested.
      * </P>
      * {@inheritDoc}
      */
     public <T> T find(Class<T> classType, String id, Params params) {
+        trace(AccessTrace.Operation.READ, id);
         T value = cacheGet(classType, id);
         if (value != null) {
             return value;
-        } else {
-            value = super.find(classType, id, params);
-            cachePut(id, value);
-            return value;
         }
+        checkIdFilter(id);
+        value = super.find(classType, id, params);
+        cachePut(id, value);
+        return value;
     }
 
     /**
      * <P>
      * Preferentially use the cache for the find operation. Adds the retrieved T to the cache if
-     * it was not present and was found in the remote database.
+     * it was not present and was found in the remote database. Concurrent finds of the same
+     * missing document share a single remote request.
      * </P>
      * <P>
      * Note that this method uses the URI as the cache key (and not document ID) since the
@@ -136,26 +608,309 @@ public class DatabaseCache extends Database {
      * {@inheritDoc}
      */
     public <T> T findAny(Class<T> classType, String uri) {
-        T value = classType.cast(cache.get(uri));
-        if (value != null) {
-            return value;
-        } else {
-            value = super.findAny(classType, uri);
-            cachePut(uri, value);
-            return value;
+        trace(AccessTrace.Operation.READ, uri);
+        return valueStrategy.read(loader.get(uri, key -> super.findAny(classType, key)),
+                classType);
+    }
+
+    /**
+     * Find many documents, returning a publisher which emits them as its subscribers request
+     * them. The ids are read from the id publisher in batches of {@link #DEFAULT_FIND_BATCH_SIZE}
+     * and up to {@link #DEFAULT_FIND_CONCURRENCY} batches are looked up at once.
+     *
+     * @param classType the class of the documents
+     * @param ids       publisher of the ids of the documents to find
+     * @param <T>       the type of the documents
+     * @return publisher of the documents, in the order of their ids
+     * @see #findAll(Class, Publisher, int, int, Executor)
+     */
+    public <T> Publisher<T> findAll(Class<T> classType, Publisher<String> ids) {
+        return findAll(classType, ids, DEFAULT_FIND_BATCH_SIZE, DEFAULT_FIND_CONCURRENCY,
+                FIND_EXECUTOR);
+    }
+
+    /**
+     * <P>
+     * Find many documents, returning a publisher which emits them as its subscribers request
+     * them, without collecting them all in memory. Each batch of ids is looked up with one
+     * {@link Cache#getAll(List)} and the documents missing from the cache are fetched from the
+     * database with one {@code _all_docs} request and added to the cache. Concurrent finds of
+     * the same missing documents share a remote request.
+     * </P>
+     * <P>
+     * Missing and deleted documents are skipped, and if the id filter is enabled, documents it
+     * rejects are not requested. If a request fails, subscribers receive an
+     * {@link UncheckedIOException} or the exception thrown by the client.
+     * </P>
+     *
+     * @param classType   the class of the documents
+     * @param ids         publisher of the ids of the documents to find
+     * @param batchSize   the number of ids to look up at once
+     * @param concurrency the maximum number of batches to look up or hold at once
+     * @param executor    executor to look up batches with, which should allow for the threads
+     *                    blocking while waiting for the database
+     * @param <T>         the type of the documents
+     * @return publisher of the documents, in the order of their ids
+     * @see BatchingPublisher
+     */
+    public <T> Publisher<T> findAll(Class<T> classType, Publisher<String> ids, int batchSize,
+                                    int concurrency, Executor executor) {
+        return new BatchingPublisher<String, T>(ids, batch -> findBatch(classType, batch),
+                batchSize, concurrency, executor);
+    }
+
+    private <T> List<T> findBatch(Class<T> classType, List<String> ids) {
+        for (String id : ids) {
+            trace(AccessTrace.Operation.READ, id);
+        }
+        Map<String, Object> values = loader.getAll(ids, misses -> {
+            Map<String, Object> found = new HashMap<String, Object>();
+            List<String> missing = new ArrayList<String>(misses.size());
+            for (String id : misses) {
+                if (!definitelyAbsent(id)) {
+                    missing.add(id);
+                }
+            }
+            if (missing.isEmpty()) {
+                return found;
+            }
+            try {
+                AllDocsResponse response = getAllDocsRequestBuilder()
+                        .keys(missing.toArray(new String[missing.size()]))
+                        .includeDocs(true)
+                        .build()
+                        .getResponse();
+                // One id and one document, decoded with the client's Gson, for each row
+                List<String> foundIds = response.getDocIds();
+                List<T> docs = response.getDocsAs(classType);
+                for (int i = 0; i < docs.size(); i++) {
+                    // Missing and deleted documents have no doc in the response
+                    T doc = docs.get(i);
+                    if (doc != null) {
+                        found.put(foundIds.get(i), doc);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return found;
+        });
+        List<T> documents = new ArrayList<T>(ids.size());
+        for (String id : ids) {
+            T document = valueStrategy.read(values.get(id), classType);
+            if (document != null) {
+                documents.add(document);
+            }
+        }
+        return documents;
+    }
+
+    /*
+     * Throw the exception the database would if the id filter rejects the document.
+     */
+    private void checkIdFilter(String id) {
+        if (definitelyAbsent(id)) {
+            throw new NoDocumentException("The document " + id + " is not in the id filter");
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <P>
+     * If query caching is enabled the results are cached, keyed by the selector with its fields
+     * in a canonical order, the options and the class. Each result is stored and returned with
+     * the {@link ValueStrategy}, as documents are.
+     * </P>
+     *
+     * @see #enableQueryCache
+     */
+    @Override
+    public <T> List<T> findByIndex(String selectorJson, Class<T> classType, FindByIndexOptions
+            options) {
+        QueryCache queries = queryCache;
+        if (queries == null) {
+            return super.findByIndex(selectorJson, classType, options);
+        }
+        List<String> sort = new ArrayList<String>();
+        for (IndexField field : options.getSort()) {
+            sort.add(field.getName() + ":" + field.getOrder());
+        }
+        String request = "find/" + classType.getName() + "/" + CanonicalJson.canonicalize
+                (selectorJson) + "?fields=" + options.getFields() + "&sort=" + sort + "&limit=" +
+                options.getLimit() + "&skip=" + options.getSkip() + "&r=" + options
+                .getReadQuorum() + "&use_index=" + options.getUseIndex();
+        // Results are stored and read with the value strategy, like cached documents
+        List<Object> values = queries.get(request, () -> {
+            List<Object> stored = new ArrayList<Object>();
+            for (T result : super.findByIndex(selectorJson, classType, options)) {
+                stored.add(valueStrategy.store(result));
+            }
+            return stored;
+        });
+        List<T> results = new ArrayList<T>(values.size());
+        for (Object value : values) {
+            results.add(valueStrategy.read(value, classType));
+        }
+        return results;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <P>
+     * If query caching is enabled the responses to unpaginated requests are cached, keyed by
+     * the view and the request parameters.
+     * </P>
+     *
+     * @see #enableQueryCache
+     */
+    @Override
+    public ViewRequestBuilder getViewRequestBuilder(String designDoc, String viewName) {
+        QueryCache queries = queryCache;
+        ViewRequestBuilder builder = super.getViewRequestBuilder(designDoc, viewName);
+        if (queries == null) {
+            return builder;
+        }
+        return new CachingViewRequestBuilder(this, builder, queries, designDoc, viewName);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <P>
+     * If attachment caching is enabled the document is read from or stored in the attachment
+     * cache.
+     * </P>
+     *
+     * @see #enableAttachmentCache
+     */
+    @Override
+    public InputStream find(String id) {
+        return findStream(id, null, () -> super.find(id));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <P>
+     * If attachment caching is enabled the document is read from or stored in the attachment
+     * cache.
+     * </P>
+     *
+     * @see #enableAttachmentCache
+     */
+    @Override
+    public InputStream find(String id, String rev) {
+        return findStream(id, rev, () -> super.find(id, rev));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <P>
+     * If attachment caching is enabled the attachment is read from or stored in the attachment
+     * cache.
+     * </P>
+     *
+     * @see #enableAttachmentCache
+     */
+    @Override
+    public InputStream getAttachment(String docId, String attachmentName, String revId) {
+        return findStream(docId + "\u0000" + attachmentName, revId, () -> super.getAttachment
+                (docId, attachmentName, revId), docId);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <P>
+     * Cached attachments of the document are removed from the attachment cache.
+     * </P>
+     */
+    @Override
+    public Response saveAttachment(InputStream in, String name, String contentType) {
+        Response response = super.saveAttachment(in, name, contentType);
+        written(response.getId());
+        return response;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <P>
+     * Cached attachments of the document are removed from the attachment cache.
+     * </P>
+     */
+    @Override
+    public Response saveAttachment(InputStream in, String name, String contentType, String
+            docId, String docRev) {
+        Response response = super.saveAttachment(in, name, contentType, docId, docRev);
+        written(response.getId());
+        return response;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <P>
+     * Cached attachments of the document are removed from the attachment cache.
+     * </P>
+     */
+    @Override
+    public Response removeAttachment(Object object, String attachmentName) {
+        Response response = super.removeAttachment(object, attachmentName);
+        written(response.getId());
+        return response;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <P>
+     * Cached attachments of the document are removed from the attachment cache.
+     * </P>
+     */
+    @Override
+    public Response removeAttachment(String id, String rev, String attachmentName) {
+        Response response = super.removeAttachment(id, rev, attachmentName);
+        written(response.getId());
+        return response;
+    }
+
+    private InputStream findStream(String id, String rev, Supplier<InputStream> finder) {
+        return findStream(id, rev, finder, id);
+    }
+
+    /*
+     * Read a stream from the attachment cache, or store it as it is read. Streams of the latest
+     * revision are grouped by document id so that they are removed when the document is written.
+     */
+    private InputStream findStream(String key, String rev, Supplier<InputStream> finder, String
+            docId) {
+        AttachmentStore store = attachmentStore;
+        long lifetime = latestStreamLifetime;
+        if (store == null || (rev == null && lifetime == 0)) {
+            return finder.get();
+        }
+        key = (rev == null) ? key : key + "\u0000" + rev;
+        InputStream cached = store.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        if (rev == null) {
+            return store.cache(key, docId, finder.get(), lifetime);
         }
+        return store.cache(key, null, finder.get());
     }
 
     /**
      * <P>
      * Checks if the cache contains the specified document. If it does not then checks if the
-     * database contains the specified document.
+     * database contains the specified document, unless the id filter is enabled and rejects
+     * the document.
      * </P>
      * {@inheritDoc}
+     *
+     * @see #enableIdFilter
      */
     public boolean contains(String id) {
+        trace(AccessTrace.Operation.CONTAINS, id);
         if (cache.get(id) != null) {
             return true;
+        } else if (definitelyAbsent(id)) {
+            return false;
         } else {
             return super.contains(id);
         }
@@ -164,11 +919,33 @@ public class DatabaseCache extends Database {
     /**
      * {@inheritDoc}
      * <P>
-     * If the operation was successful then the object is also added to the cache.
+     * If the operation was successful then the object is also added to the cache. If
+     * write-behind is enabled the object is added to the cache and queued to be written later,
+     * and the response has a status code of 202 and no revision.
      * </P>
+     *
+     * @see #enableWriteBehind
      */
     public Response save(Object object) {
+        WriteBehindQueue queue = writeBehind;
+        if (queue != null) {
+            String id = documentId(object);
+            if (id != null) {
+                trace(AccessTrace.Operation.WRITE, id);
+                DocumentIdFilter filter = idFilter;
+                if (filter != null) {
+                    filter.add(id);
+                }
+                if (queue.add(id, object)) {
+                    return new QueuedResponse(id);
+                }
+                // The queue has been closed, write anything left in it first
+                queue.flush();
+            }
+        }
         Response response = super.save(object);
+        written(response.getId());
+        trace(AccessTrace.Operation.WRITE, response.getId());
         cachePut(response.getId(), object);
         return response;
     }
@@ -180,7 +957,10 @@ public class DatabaseCache extends Database {
      * </P>
      */
     public Response save(Object object, int writeQuorum) {
+        flush();
         Response response = super.save(object, writeQuorum);
+        written(response.getId());
+        trace(AccessTrace.Operation.WRITE, response.getId());
         cachePut(response.getId(), object);
         return response;
     }
@@ -192,7 +972,10 @@ public class DatabaseCache extends Database {
      * </P>
      */
     public Response post(Object object) {
+        flush();
         Response response = super.post(object);
+        written(response.getId());
+        trace(AccessTrace.Operation.WRITE, response.getId());
         cachePut(response.getId(), object);
         return response;
     }
@@ -204,7 +987,10 @@ public class DatabaseCache extends Database {
      * </P>
      */
     public Response post(Object object, int writeQuorum) {
+        flush();
         Response response = super.post(object, writeQuorum);
+        written(response.getId());
+        trace(AccessTrace.Operation.WRITE, response.getId());
         cachePut(response.getId(), object);
         return response;
     }
@@ -216,7 +1002,10 @@ public class DatabaseCache extends Database {
      * </P>
      */
     public Response update(Object object) {
+        flush();
         Response response = super.update(object);
+        written(response.getId());
+        trace(AccessTrace.Operation.WRITE, response.getId());
         cachePut(response.getId(), object);
         return response;
     }
@@ -228,7 +1017,10 @@ public class DatabaseCache extends Database {
      * </P>
      */
     public Response update(Object object, int writeQuorum) {
+        flush();
         Response response = super.update(object, writeQuorum);
+        written(response.getId());
+        trace(AccessTrace.Operation.WRITE, response.getId());
         cachePut(response.getId(), object);
         return response;
     }
@@ -240,7 +1032,10 @@ public class DatabaseCache extends Database {
      * </P>
      */
     public Response remove(Object object) {
+        flush();
         Response response = super.remove(object);
+        written(response.getId());
+        trace(AccessTrace.Operation.DELETE, response.getId());
         cache.delete(response.getId());
         return response;
     }
@@ -254,16 +1049,19 @@ public class DatabaseCache extends Database {
      */
     @Override
     public List<Response> bulk(List<?> list) {
+        flush();
         List<Response> responses = super.bulk(list);
-        int index = 0;
-        for (Object o : list) {
-            Response response = responses.get(index);
-            // Cache the object we just created/updated if the operation was successful
-            if (response.getError() == null) {
-                cachePut(response.getId(), o);
+        bulkExecutor.forEachRange(list.size(), (from, to) -> {
+            for (int i = from; i < to; i++) {
+                Response response = responses.get(i);
+                written(response.getId());
+                // Cache the object we just created/updated if the operation was successful
+                if (response.getError() == null) {
+                    trace(AccessTrace.Operation.WRITE, response.getId());
+                    cachePut(response.getId(), list.get(i));
+                }
             }
-            index++;
-        }
+        });
         return responses;
     }
 }
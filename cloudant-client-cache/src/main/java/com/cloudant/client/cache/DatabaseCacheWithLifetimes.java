@@ -30,10 +30,14 @@ public class DatabaseCacheWithLifetimes extends DatabaseCache {
     // Although this is stored in super.cache, we store it as the more specific
     // CacheWithLifetimes so it can be used with lifetimes more readily in this class
     private CacheWithLifetimes<String, Object> lifetimeCache;
+    // Lifetime of all objects if the cache was created without an ExpiryPolicy
     protected long lifetime;
+    private final ExpiryPolicy expiryPolicy;
+    private volatile int lifetimeJitter;  // percentage to randomly shorten lifetimes by
 
     /**
-     * Constructor which is designed to work with a variety of different caches.
+     * Constructor which is designed to work with a variety of different caches. All objects are
+     * cached with the same lifetime.
      *
      * @param database      data structure with information about the database connection
      * @param cacheInstance cache instance which has already been created and initialized
@@ -42,20 +46,95 @@ public class DatabaseCacheWithLifetimes extends DatabaseCache {
      */
     public DatabaseCacheWithLifetimes(Database database, CacheWithLifetimes<String, Object>
             cacheInstance, long lifetime, TimeUnit lifetimeUnit) {
-        super(database, cacheInstance);
+        this(database, cacheInstance, lifetime, lifetimeUnit, ValueStrategy.REFERENCE);
+    }
+
+    /**
+     * Constructor for caching all objects with the same lifetime, storing and returning them
+     * with the specified {@link ValueStrategy}.
+     *
+     * @param database      data structure with information about the database connection
+     * @param cacheInstance cache instance which has already been created and initialized
+     * @param lifetime      lifetime for objects in this cache
+     * @param lifetimeUnit  TimeUnit to use for the lifetime
+     * @param strategy      how documents are stored in and read from the cache
+     */
+    public DatabaseCacheWithLifetimes(Database database, CacheWithLifetimes<String, Object>
+            cacheInstance, long lifetime, TimeUnit lifetimeUnit, ValueStrategy strategy) {
+        super(database, cacheInstance, strategy);
         this.lifetimeCache = cacheInstance;
         this.lifetime = lifetimeUnit.toMillis(lifetime);
+        this.expiryPolicy = (id, object) -> this.lifetime;
+    }
+
+    /**
+     * Constructor for caching objects with lifetimes chosen by an {@link ExpiryPolicy}, for
+     * example by document id prefix or document type.
+     *
+     * @param database      data structure with information about the database connection
+     * @param cacheInstance cache instance which has already been created and initialized
+     * @param expiryPolicy  policy which determines the lifetime of each object
+     */
+    public DatabaseCacheWithLifetimes(Database database, CacheWithLifetimes<String, Object>
+            cacheInstance, ExpiryPolicy expiryPolicy) {
+        this(database, cacheInstance, expiryPolicy, ValueStrategy.REFERENCE);
     }
 
     /**
-     * Put an object into the cache.
+     * Constructor for caching objects with lifetimes chosen by an {@link ExpiryPolicy}, storing
+     * and returning them with the specified {@link ValueStrategy}.
+     *
+     * @param database      data structure with information about the database connection
+     * @param cacheInstance cache instance which has already been created and initialized
+     * @param expiryPolicy  policy which determines the lifetime of each object
+     * @param strategy      how documents are stored in and read from the cache
+     */
+    public DatabaseCacheWithLifetimes(Database database, CacheWithLifetimes<String, Object>
+            cacheInstance, ExpiryPolicy expiryPolicy, ValueStrategy strategy) {
+        super(database, cacheInstance, strategy);
+        this.lifetimeCache = cacheInstance;
+        this.expiryPolicy = expiryPolicy;
+    }
+
+    /**
+     * Put an object into the cache with the lifetime given by the expiry policy. An object with a
+     * lifetime of 0 or less is not cached, and any previously cached version is deleted.
      *
      * @param id     the document id
      * @param object object to cache
      */
     @Override
     protected void cachePut(String id, Object object) {
-        lifetimeCache.put(id, object, System.currentTimeMillis() + lifetime);
+        long objectLifetime = Util.jitter(expiryPolicy.getLifetime(id, object),
+                lifetimeJitter);
+        if (objectLifetime > 0) {
+            lifetimeCache.put(id, getValueStrategy().store(object), objectLifetime);
+        } else {
+            lifetimeCache.delete(id);
+        }
+    }
+
+    /**
+     * Randomly shorten the lifetime of each object stored by up to the specified percentage, so
+     * that objects stored together, for example when warming the cache, do not all expire at the
+     * same time. Jitter is disabled by default.
+     *
+     * @param percent maximum percentage to shorten lifetimes by, from 0 to 100
+     * @throws IllegalArgumentException if the percentage is not from 0 to 100
+     */
+    public void setLifetimeJitter(int percent) {
+        if (percent < 0 || percent > 100) {
+            throw new IllegalArgumentException("The lifetime jitter must be from 0 to 100 " +
+                    "percent");
+        }
+        lifetimeJitter = percent;
+    }
+
+    /**
+     * @return the policy which determines the lifetime of each object
+     */
+    public ExpiryPolicy getExpiryPolicy() {
+        return expiryPolicy;
     }
 
     @Override
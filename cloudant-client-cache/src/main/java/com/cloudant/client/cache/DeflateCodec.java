@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.cloudant.client.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * <P>
+ * Compresses byte arrays that are at least a threshold size using raw deflate at the fastest
+ * compression level. Smaller arrays, and arrays that do not get smaller when compressed, are
+ * stored as they are. Each encoded array starts with a header byte indicating whether the data
+ * that follows is compressed, so either form can be decoded.
+ * </P>
+ * <P>
+ * {@link Deflater} and {@link Inflater} instances hold native memory and are expensive to create,
+ * so they are pooled and reused. Instances of this class are thread safe.
+ * </P>
+ */
+public class DeflateCodec {
+
+    /**
+     * Header byte for data stored as it is.
+     */
+    public static final byte UNCOMPRESSED = 0;
+    /**
+     * Header byte for deflated data. The header is followed by the uncompressed length as a four
+     * byte big-endian integer and then the deflated bytes.
+     */
+    public static final byte DEFLATED = 1;
+
+    private static final int POOL_SIZE = Runtime.getRuntime().availableProcessors() * 2;
+    private static final BlockingQueue<Deflater> DEFLATERS = new ArrayBlockingQueue<Deflater>
+            (POOL_SIZE);
+    private static final BlockingQueue<Inflater> INFLATERS = new ArrayBlockingQueue<Inflater>
+            (POOL_SIZE);
+
+    private final int threshold;
+
+    /**
+     * Create a codec.
+     *
+     * @param threshold the minimum size in bytes of data to compress
+     */
+    public DeflateCodec(int threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * @return the minimum size in bytes of data to compress
+     */
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Encode data, compressing it if it is at least the threshold size.
+     *
+     * @param bytes the data to encode
+     * @return the header byte followed by the compressed or uncompressed data
+     */
+    public byte[] encode(byte[] bytes) {
+        if (bytes.length >= threshold) {
+            byte[] compressed = deflate(bytes);
+            if (compressed.length < bytes.length) {
+                return compressed;
+            }
+        }
+        byte[] encoded = new byte[bytes.length + 1];
+        encoded[0] = UNCOMPRESSED;
+        System.arraycopy(bytes, 0, encoded, 1, bytes.length);
+        return encoded;
+    }
+
+    /**
+     * Decode data produced by {@link #encode(byte[])}.
+     *
+     * @param encoded the encoded data
+     * @return the original data, or {@code null} if the encoded data is corrupt
+     */
+    public static byte[] decode(byte[] encoded) {
+        switch (encoded[0]) {
+            case UNCOMPRESSED:
+                byte[] bytes = new byte[encoded.length - 1];
+                System.arraycopy(encoded, 1, bytes, 0, bytes.length);
+                return bytes;
+            case DEFLATED:
+                return inflate(encoded);
+            default:
+                return null;
+        }
+    }
+
+    private static byte[] deflate(byte[] bytes) {
+        Deflater deflater = DEFLATERS.poll();
+        if (deflater == null) {
+            deflater = new Deflater(Deflater.BEST_SPEED, true);
+        }
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2 + 16);
+            out.write(DEFLATED);
+            out.write(bytes.length >>> 24);
+            out.write(bytes.length >>> 16);
+            out.write(bytes.length >>> 8);
+            out.write(bytes.length);
+            byte[] buffer = new byte[Math.min(bytes.length + 16, 64 * 1024)];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buffer);
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.reset();
+            if (!DEFLATERS.offer(deflater)) {
+                deflater.end();
+            }
+        }
+    }
+
+    private static byte[] inflate(byte[] encoded) {
+        int length = ((encoded[1] & 0xff) << 24) | ((encoded[2] & 0xff) << 16) |
+                ((encoded[3] & 0xff) << 8) | (encoded[4] & 0xff);
+        Inflater inflater = INFLATERS.poll();
+        if (inflater == null) {
+            inflater = new Inflater(true);
+        }
+        try {
+            inflater.setInput(encoded, 5, encoded.length - 5);
+            byte[] bytes = new byte[length];
+            int offset = 0;
+            while (offset < length) {
+                int n = inflater.inflate(bytes, offset, length - offset);
+                if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                    // Raw deflate can need one extra byte of input to finish, but if there is
+                    // no more output the data was truncated
+                    return null;
+                }
+                offset += n;
+            }
+            return bytes;
+        } catch (DataFormatException e) {
+            Util.describeException(e, "Exception in DeflateCodec.decode");
+            return null;
+        } finally {
+            inflater.reset();
+            if (!INFLATERS.offer(inflater)) {
+                inflater.end();
+            }
+        }
+    }
+}
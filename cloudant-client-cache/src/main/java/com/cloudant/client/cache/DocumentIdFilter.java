@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+
+package com.cloudant.client.cache;
+
+import com.cloudant.client.api.Database;
+import com.cloudant.client.api.model.ChangesResult;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/*
+ * A Bloom filter of the ids of the documents known to exist in a database, for a DatabaseCache
+ * to answer lookups of ids which definitely do not exist without a request.
+ *
+ * The filter is seeded with the ids in _all_docs, read in pages, and then kept up to date from
+ * the changes feed since the update sequence read before seeding, so that documents created by
+ * other clients meanwhile are not missed. The changes feed is read by update(), which a poller
+ * thread calls every pollInterval milliseconds. Ids written through the DatabaseCache are added
+ * by add(). Deleted documents stay in the filter, which only costs a request when they are looked
+ * up.
+ *
+ * Documents created by other clients are missing from the filter until the changes feed is next
+ * read, so a negative answer is only trusted while the feed was last read successfully within
+ * two poll intervals. If the updates fall behind, for example because the database can not be
+ * reached, every id might be contained and is looked up in the database.
+ */
+final class DocumentIdFilter {
+
+    private static final int PAGE_SIZE = 10000;
+
+    private final Database database;
+    private final BloomFilter filter;
+    private final Thread poller;
+    private final long maxStaleness;  // milliseconds a negative answer can be trusted for
+    private String since;  // guarded by this
+    private volatile long updated;  // time the last successful update started
+    private volatile boolean closed;
+
+    DocumentIdFilter(Database database, long expectedDocuments, double falsePositiveRate, long
+            pollInterval) {
+        this.database = database;
+        this.filter = new BloomFilter(expectedDocuments, falsePositiveRate);
+        this.maxStaleness = (pollInterval > Long.MAX_VALUE / 2) ? Long.MAX_VALUE : 2 *
+                pollInterval;
+        seed();
+        poller = new Thread(() -> poll(pollInterval), "DatabaseCache id filter");
+        poller.setDaemon(true);
+        poller.start();
+    }
+
+    void add(String id) {
+        if (id != null) {
+            filter.put(id);
+        }
+    }
+
+    boolean mightContain(String id) {
+        return System.currentTimeMillis() - updated > maxStaleness || filter.mightContain(id);
+    }
+
+    /*
+     * Add the ids of the documents changed since the last update.
+     */
+    synchronized void update() {
+        long started = System.currentTimeMillis();
+        List<ChangesResult.Row> rows;
+        do {
+            ChangesResult changes = database.changes().since(since).limit(PAGE_SIZE)
+                    .getChanges();
+            rows = changes.getResults();
+            for (ChangesResult.Row row : rows) {
+                add(row.getId());
+            }
+            since = changes.getLastSeq();
+        } while (rows.size() == PAGE_SIZE);
+        updated = started;
+    }
+
+    void close() {
+        closed = true;
+        poller.interrupt();
+    }
+
+    private synchronized void seed() {
+        since = database.info().getUpdateSeq();
+        try {
+            String startKey = null;
+            List<String> ids;
+            do {
+                ids = ((startKey == null) ? database.getAllDocsRequestBuilder() : database
+                        .getAllDocsRequestBuilder().startKey(startKey).skip(1))
+                        .limit(PAGE_SIZE)
+                        .build()
+                        .getResponse()
+                        .getDocIds();
+                for (String id : ids) {
+                    add(id);
+                    startKey = id;
+                }
+            } while (ids.size() == PAGE_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        update();
+    }
+
+    private void poll(long pollInterval) {
+        while (!closed) {
+            try {
+                Thread.sleep(pollInterval);
+                update();
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                // Try again at the next interval
+                Util.describeException(e, "Exception in DatabaseCache id filter update");
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.cloudant.client.cache;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <P>
+ * Determines how long a document is cached by a {@link DatabaseCacheWithLifetimes}, so that
+ * different documents can be cached for different times, for example reference data for hours
+ * and frequently changing documents for seconds.
+ * </P>
+ * <P>
+ * Policies can be combined, for example:
+ * </P>
+ * <pre>
+ * {@code
+ * Map<String, Long> lifetimes = new HashMap<>();
+ * lifetimes.put("country:", TimeUnit.HOURS.toMillis(6));
+ * lifetimes.put("stock:", TimeUnit.SECONDS.toMillis(5));
+ * ExpiryPolicy policy = ExpiryPolicy.byIdPrefix(lifetimes,
+ *         ExpiryPolicy.fixed(1, TimeUnit.MINUTES));
+ * }
+ * </pre>
+ */
+@FunctionalInterface
+public interface ExpiryPolicy {
+
+    /**
+     * Return the lifetime of a document in the cache.
+     *
+     * @param id     the document id
+     * @param object the object to cache
+     * @return lifetime in milliseconds, or a value {@code <= 0} if the object should not be
+     * cached
+     */
+    long getLifetime(String id, Object object);
+
+    /**
+     * Return a policy with the same lifetime for every document.
+     *
+     * @param lifetime the lifetime
+     * @param unit     TimeUnit of the lifetime
+     * @return the policy
+     */
+    static ExpiryPolicy fixed(long lifetime, TimeUnit unit) {
+        long millis = unit.toMillis(lifetime);
+        return (id, object) -> millis;
+    }
+
+    /**
+     * Return a policy which chooses the lifetime by the longest prefix of the document id which
+     * is in the map.
+     *
+     * @param lifetimes map of id prefix to lifetime in milliseconds
+     * @param otherwise policy for ids which do not start with any of the prefixes
+     * @return the policy
+     */
+    static ExpiryPolicy byIdPrefix(Map<String, Long> lifetimes, ExpiryPolicy otherwise) {
+        TreeMap<String, Long> prefixes = new TreeMap<String, Long>(lifetimes);
+        return (id, object) -> {
+            // Candidate prefixes sort at or before the id; check from the longest down
+            for (String prefix = prefixes.floorKey(id); prefix != null; prefix = prefixes
+                    .lowerKey(prefix)) {
+                if (id.startsWith(prefix)) {
+                    return prefixes.get(prefix);
+                }
+                if (prefix.isEmpty() || prefix.charAt(0) != id.charAt(0)) {
+                    break;
+                }
+            }
+            Long all = prefixes.get("");
+            return (all != null) ? all : otherwise.getLifetime(id, object);
+        };
+    }
+
+    /**
+     * Return a policy which chooses the lifetime by the class of the object. The lifetime of the
+     * nearest superclass in the map is used if the object's class is not in the map.
+     *
+     * @param lifetimes map of class to lifetime in milliseconds
+     * @param otherwise policy for objects whose class and superclasses are not in the map
+     * @return the policy
+     */
+    static ExpiryPolicy byClass(Map<Class<?>, Long> lifetimes, ExpiryPolicy otherwise) {
+        Map<Class<?>, Long> classes = new HashMap<Class<?>, Long>(lifetimes);
+        return (id, object) -> {
+            for (Class<?> c = object.getClass(); c != null; c = c.getSuperclass()) {
+                Long lifetime = classes.get(c);
+                if (lifetime != null) {
+                    return lifetime;
+                }
+            }
+            return otherwise.getLifetime(id, object);
+        };
+    }
+
+    /**
+     * Return a policy which chooses the lifetime by the value of a top level field of the
+     * document, for example a {@code type} field. The field is read from the object as it is
+     * serialized to JSON.
+     *
+     * @param field     name of the field
+     * @param lifetimes map of field value to lifetime in milliseconds
+     * @param otherwise policy for documents without the field or with other values
+     * @return the policy
+     */
+    static ExpiryPolicy byField(String field, Map<String, Long> lifetimes, ExpiryPolicy
+            otherwise) {
+        Map<String, Long> values = new HashMap<String, Long>(lifetimes);
+        Gson gson = new Gson();
+        return (id, object) -> {
+            JsonElement json = gson.toJsonTree(object);
+            if (json.isJsonObject()) {
+                JsonElement value = json.getAsJsonObject().get(field);
+                if (value != null && value.isJsonPrimitive()) {
+                    Long lifetime = values.get(value.getAsString());
+                    if (lifetime != null) {
+                        return lifetime;
+                    }
+                }
+            }
+            return otherwise.getLifetime(id, object);
+        };
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+
+package com.cloudant.client.cache;
+
+import com.google.gson.Gson;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+
+/*
+ * The copy and encoded ValueStrategy implementations. Documents are deep copied by converting
+ * them to a Gson JSON tree and back, or cached as an EncodedValue holding their JSON bytes.
+ */
+final class GsonValueStrategy implements ValueStrategy {
+
+    private final Gson gson;
+    private final boolean encode;
+
+    GsonValueStrategy(Gson gson, boolean encode) {
+        this.gson = gson;
+        this.encode = encode;
+    }
+
+    @Override
+    public Object store(Object object) {
+        if (encode) {
+            return new EncodedValue(gson.toJson(object).getBytes(StandardCharsets.UTF_8));
+        }
+        return gson.fromJson(gson.toJsonTree(object), object.getClass());
+    }
+
+    @Override
+    public <T> T read(Object value, Class<T> classType) {
+        if (value instanceof EncodedValue) {
+            return gson.fromJson(new String(((EncodedValue) value).json, StandardCharsets.UTF_8),
+                    classType);
+        }
+        // A cached copy or a loaded document which may be returned to other callers
+        return (value == null) ? null : gson.fromJson(gson.toJsonTree(value), classType);
+    }
+
+    /*
+     * A document cached as UTF-8 encoded JSON.
+     */
+    static final class EncodedValue implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        final byte[] json;
+
+        EncodedValue(byte[] json) {
+            this.json = json;
+        }
+    }
+}
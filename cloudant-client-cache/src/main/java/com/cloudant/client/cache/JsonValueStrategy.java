@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+
+package com.cloudant.client.cache;
+
+import com.google.gson.Gson;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+
+/*
+ * The json ValueStrategy implementation. Documents are cached as a JsonDocument holding their
+ * canonical JSON, which is decoded to the class each caller asks for. The decoded instances are
+ * memoized in the JsonDocument, so callers asking for the same class share an instance as they
+ * would with the REFERENCE strategy.
+ */
+final class JsonValueStrategy implements ValueStrategy {
+
+    private final Gson gson;
+
+    JsonValueStrategy(Gson gson) {
+        this.gson = gson;
+    }
+
+    @Override
+    public Object store(Object object) {
+        return new JsonDocument(CanonicalJson.canonicalize(gson.toJsonTree(object)).toString());
+    }
+
+    @Override
+    public <T> T read(Object value, Class<T> classType) {
+        if (value instanceof JsonDocument) {
+            return ((JsonDocument) value).view(classType, gson);
+        }
+        // A loaded document is shared like a cached one unless it is the wrong class
+        return (value == null || classType.isInstance(value)) ? classType.cast(value) : gson
+                .fromJson(gson.toJsonTree(value), classType);
+    }
+
+    /*
+     * A document cached as UTF-8 encoded canonical JSON with the views decoded from it.
+     */
+    static final class JsonDocument implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        // Views of a few classes are kept, replacing the oldest when another class is decoded
+        private static final int MAX_VIEWS = 4;
+
+        final byte[] json;
+
+        // Alternating classes and decoded views. A view lost to a concurrent update is decoded
+        // again when next read.
+        private transient volatile Object[] views = new Object[0];
+
+        JsonDocument(String json) {
+            this.json = json.getBytes(StandardCharsets.UTF_8);
+        }
+
+        <T> T view(Class<T> classType, Gson gson) {
+            Object[] current = views;
+            if (current == null) {
+                // Deserialized without the transient field initialized
+                current = new Object[0];
+            }
+            for (int i = 0; i < current.length; i += 2) {
+                if (current[i] == classType) {
+                    return classType.cast(current[i + 1]);
+                }
+            }
+            T decoded = gson.fromJson(new String(json, StandardCharsets.UTF_8), classType);
+            int kept = Math.min(current.length, (MAX_VIEWS - 1) * 2);
+            Object[] updated = new Object[kept + 2];
+            System.arraycopy(current, current.length - kept, updated, 0, kept);
+            updated[kept] = classType;
+            updated[kept + 1] = decoded;
+            views = updated;
+            return decoded;
+        }
+
+        @Override
+        public String toString() {
+            return new String(json, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -14,11 +14,18 @@
 
 package com.cloudant.client.cache;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.AbstractMap;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * A Least Recently Used (LRU) cache. New objects are added to the cache up to the capacity after
@@ -28,7 +35,7 @@ import java.util.stream.Collectors;
  * @param <K> the type of the cache keys
  * @param <V> the type of the cache values
  */
-public class LRUCache<K, V> implements Cache<K, V> {
+public class LRUCache<K, V> implements LoadingCache<K, V>, Resizable {
 
     /*
     * LRU map of database object instances.
@@ -38,21 +45,56 @@ public class LRUCache<K, V> implements Cache<K, V> {
     */
     private final Map<K, V> lruMap;
 
+    private final SingleFlightLoader<K, V> loader = new SingleFlightLoader<K, V>(this);
+
+    private volatile int capacity;
+
     /**
      * Create a new LRUCache with the specified capacity.
      *
      * @param cacheCapacity maximum number of entries to store
      */
     public LRUCache(final int cacheCapacity) {
+        this.capacity = cacheCapacity;
         this.lruMap = Collections.synchronizedMap(new LinkedHashMap<K, V>(
                 (cacheCapacity * 4 / 3) + 1, 0.75f, true) {
 
             protected boolean removeEldestEntry(Map.Entry eldest) {
-                return size() > cacheCapacity;
+                return size() > capacity;
             }
         });
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getMaximumSize() {
+        return capacity;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <P>
+     * When the cache shrinks the least recently used entries are evicted.
+     * </P>
+     */
+    @Override
+    public void setMaximumSize(long maximumSize) {
+        if (maximumSize < 1 || maximumSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The maximum size must be from 1 to " + Integer
+                    .MAX_VALUE);
+        }
+        synchronized (lruMap) {
+            capacity = (int) maximumSize;
+            Iterator<K> eldest = lruMap.keySet().iterator();
+            while (lruMap.size() > capacity) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -96,6 +138,73 @@ public class LRUCache<K, V> implements Cache<K, V> {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        return this.loader.get(key, loader);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<K, V> getAll(List<K> keys, Function<? super List<K>, ? extends Map<K, V>>
+            bulkLoader) {
+        return loader.getAll(keys, bulkLoader);
+    }
+
+    /**
+     * Write the most recently used entries to a snapshot file, most recently used first, so that
+     * they can be reloaded with a {@link CacheWarmer}. Values are written with an expiration time
+     * of {@link Long#MAX_VALUE} as this cache does not expire entries.
+     *
+     * @param file          the file to write, replaced if it exists
+     * @param maxEntries    the maximum number of entries to write
+     * @param includeValues {@code true} to include values, {@code false} to write only the keys
+     * @return the number of entries written
+     * @throws IOException if the file could not be written
+     * @see CacheSnapshot
+     */
+    public int exportSnapshot(File file, int maxEntries, boolean includeValues) throws
+            IOException {
+        try (Stream<Map.Entry<K, CacheEntry<V>>> entries = entries()) {
+            return CacheSnapshot.write(file, entries.iterator(), maxEntries, includeValues);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <P>
+     * The map is ordered by access and has no way to resume a traversal from a key, so the keys
+     * and values are copied into two arrays while the cache is locked. Unlike the other caches
+     * this holds the lock for one pass over the map and needs two references per entry; the
+     * cache entries themselves are created lazily as the stream is consumed. Entries are
+     * streamed from most to least recently used.
+     * </P>
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Stream<Map.Entry<K, CacheEntry<V>>> entries() {
+        Object[] keys;
+        Object[] values;
+        synchronized (lruMap) {
+            keys = new Object[lruMap.size()];
+            values = new Object[keys.length];
+            int i = 0;
+            for (Map.Entry<K, V> entry : lruMap.entrySet()) {
+                keys[i] = entry.getKey();
+                values[i++] = entry.getValue();
+            }
+        }
+        // The map iterates from least to most recently used
+        int last = keys.length - 1;
+        return IntStream.rangeClosed(0, last).mapToObj(i -> new AbstractMap
+                .SimpleImmutableEntry<K, CacheEntry<V>>((K) keys[last - i], new CacheEntry<V>((V)
+                values[last - i], Long.MAX_VALUE)));
+    }
+
     /**
      * This cache implementation does not provide any statistics. Calling {@link Stats#getStats()
      * } will return {@code null}.
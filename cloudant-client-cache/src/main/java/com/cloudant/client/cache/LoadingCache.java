@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.cloudant.client.cache;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A cache which can load missing values. Concurrent requests for the same missing key share a
+ * single load, so a popular key which is missing or has expired does not cause a stampede of
+ * requests to the underlying data source.
+ *
+ * @param <K> the type of the cache keys
+ * @param <V> the type of the cache values
+ * @see SingleFlightLoader
+ */
+public interface LoadingCache<K, V> extends Cache<K, V> {
+
+    /**
+     * Look up a value in the cache, loading and caching it if it is not present or has expired.
+     * If the value is already being loaded by another thread, wait for that load instead.
+     *
+     * @param key    key corresponding to value
+     * @param loader function to load the value for a key, returning {@code null} if there is no
+     *               value; {@code null} values are not cached
+     * @return value corresponding to key, or {@code null} if the loader returned {@code null}
+     */
+    V get(K key, Function<? super K, ? extends V> loader);
+
+    /**
+     * Look up one or more values in the cache, loading and caching all of the missing values
+     * with a single call to the bulk loader. Values already being loaded by other threads are
+     * waited for rather than loaded again.
+     *
+     * @param keys       List containing the keys to look up
+     * @param bulkLoader function to load the values for a list of keys, returning a map which
+     *                   omits keys that have no value
+     * @return map containing the cached and loaded key-value pairs
+     */
+    Map<K, V> getAll(List<K> keys, Function<? super List<K>, ? extends Map<K, V>> bulkLoader);
+}
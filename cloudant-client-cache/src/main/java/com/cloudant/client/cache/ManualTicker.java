@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+
+package com.cloudant.client.cache;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link Ticker} whose time only changes when it is set or advanced, for testing expiration
+ * without waiting.
+ */
+public final class ManualTicker implements Ticker {
+
+    private final AtomicLong time;
+
+    /**
+     * Create a ticker starting at the current system time.
+     */
+    public ManualTicker() {
+        this(System.currentTimeMillis());
+    }
+
+    /**
+     * Create a ticker starting at the specified time.
+     *
+     * @param time milliseconds since January 1, 1970
+     */
+    public ManualTicker(long time) {
+        this.time = new AtomicLong(time);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long currentTimeMillis() {
+        return time.get();
+    }
+
+    /**
+     * Set the time.
+     *
+     * @param time milliseconds since January 1, 1970
+     */
+    public void set(long time) {
+        this.time.set(time);
+    }
+
+    /**
+     * Advance the time.
+     *
+     * @param duration amount to advance the time by
+     * @param unit     TimeUnit of the duration
+     */
+    public void advance(long duration, TimeUnit unit) {
+        time.addAndGet(unit.toMillis(duration));
+    }
+}
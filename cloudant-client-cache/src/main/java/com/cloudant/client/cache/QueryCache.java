@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.cloudant.client.cache;
+
+import java.net.URI;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Caches query results for a DatabaseCache, keyed by a normalized description of the request.
+ *
+ * Results are stored as CacheEntry values so that they expire after the lifetime in any cache.
+ * Writes invalidate every cached result by incrementing a generation number which is part of
+ * every key, so invalidation does not need to find or delete the cached results, which are
+ * evicted or expire as usual.
+ *
+ * The result cache may be shared with documents, other databases and other processes, so every
+ * key starts with a namespace made of a prefix which can not be a document id (ids starting with
+ * an underscore are reserved), the database URI and a random nonce. The nonce keeps an instance
+ * from reading results cached by another instance, whose generation it can not see, such as the
+ * results left in a shared cache by a process which has been restarted.
+ */
+final class QueryCache {
+
+    /*
+     * A query which may throw a checked exception.
+     */
+    interface Query<R, E extends Exception> {
+        R run() throws E;
+    }
+
+    private final Cache<String, Object> cache;
+    private final long lifetime;
+    private final Ticker ticker;
+    private final String namespace;
+    private final AtomicLong generation = new AtomicLong();
+
+    QueryCache(Cache<String, Object> cache, long lifetime, URI database, Ticker ticker) {
+        this.cache = cache;
+        this.lifetime = lifetime;
+        this.ticker = ticker;
+        this.namespace = "_query/" + database + "/" + UUID.randomUUID() + "/";
+    }
+
+    /*
+     * Invalidate all cached results.
+     */
+    void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    /*
+     * Return the cached result of a request, or run the query and cache its result.
+     */
+    @SuppressWarnings("unchecked")
+    <R, E extends Exception> R get(String request, Query<R, E> query) throws E {
+        long currentGeneration = generation.get();
+        String key = namespace + currentGeneration + "/" + request;
+        Object cached = cache.get(key);
+        if (cached instanceof CacheEntry) {
+            CacheEntry<R> cacheEntry = (CacheEntry<R>) cached;
+            if (cacheEntry.getExpirationTime() >= ticker.currentTimeMillis()) {
+                return cacheEntry.getValue();
+            }
+        }
+        R result = query.run();
+        // A write during the query may not be reflected in the result, so it is not cached
+        if (generation.get() == currentGeneration) {
+            CacheEntry<R> cacheEntry = new CacheEntry<R>(result, ticker.currentTimeMillis() +
+                    lifetime);
+            if (cache instanceof CacheWithLifetimes) {
+                ((CacheWithLifetimes<String, Object>) cache).put(key, cacheEntry, lifetime);
+            } else {
+                cache.put(key, cacheEntry);
+            }
+        }
+        return result;
+    }
+}
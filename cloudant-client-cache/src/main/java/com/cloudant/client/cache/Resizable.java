@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+
+package com.cloudant.client.cache;
+
+/**
+ * A cache whose maximum size can be changed while it is in use, for example by
+ * {@link AdaptiveCapacity} in response to heap pressure.
+ */
+public interface Resizable {
+
+    /**
+     * @return the maximum number of entries the cache holds before replacing entries
+     */
+    long getMaximumSize();
+
+    /**
+     * Change the maximum number of entries the cache holds. If the cache holds more entries
+     * than the new maximum, entries are evicted before this method returns, so that the memory
+     * they use can be reclaimed.
+     *
+     * @param maximumSize the new maximum number of entries
+     * @throws IllegalArgumentException if the cache does not support the size
+     */
+    void setMaximumSize(long maximumSize);
+}
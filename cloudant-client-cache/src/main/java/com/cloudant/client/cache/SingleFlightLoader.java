@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.cloudant.client.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * <P>
+ * Loads missing values into a cache, ensuring that each missing key is loaded by only one
+ * thread at a time. Other threads requesting a key while it is being loaded wait for that load
+ * and share its result or exception. Loads are tracked per key, so unrelated keys are loaded
+ * concurrently.
+ * </P>
+ * <P>
+ * Cache implementations use this to implement {@link LoadingCache}, and it can also be used to
+ * add loading to any {@link Cache}. Coordination is within a single instance of this class, so
+ * all threads loading into a cache should share one instance.
+ * </P>
+ *
+ * @param <K> the type of the cache keys
+ * @param <V> the type of the cache values
+ */
+public class SingleFlightLoader<K, V> {
+
+    private final Cache<K, V> cache;
+    private final Consumer<Map<K, V>> store;
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new
+            ConcurrentHashMap<K, CompletableFuture<V>>();
+
+    /**
+     * Create a loader which stores loaded values with {@link Cache#putAll(Map)}.
+     *
+     * @param cache the cache to look up and store values in
+     */
+    public SingleFlightLoader(Cache<K, V> cache) {
+        this(cache, cache::putAll);
+    }
+
+    /**
+     * Create a loader which stores loaded values with the specified function, for example to
+     * cache them with a particular lifetime.
+     *
+     * @param cache the cache to look up values in
+     * @param store function to store loaded values in the cache
+     */
+    public SingleFlightLoader(Cache<K, V> cache, Consumer<Map<K, V>> store) {
+        this.cache = cache;
+        this.store = store;
+    }
+
+    /**
+     * Look up a value in the cache, loading and storing it if it is missing.
+     *
+     * @param key    key corresponding to value
+     * @param loader function to load the value for a key, returning {@code null} if there is no
+     *               value
+     * @return value corresponding to key, or {@code null} if there is no value
+     * @see LoadingCache#get(Object, Function)
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V value = cache.get(key);
+        if (value != null) {
+            return value;
+        }
+        CompletableFuture<V> future = new CompletableFuture<V>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return await(existing);
+        }
+        try {
+            // Another thread may have stored the value between the lookup and claiming the key
+            value = cache.get(key);
+            if (value == null) {
+                value = loader.apply(key);
+                if (value != null) {
+                    store.accept(Collections.singletonMap(key, value));
+                }
+            }
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * Look up values in the cache, loading and storing the missing values with a single call to
+     * the bulk loader.
+     *
+     * @param keys       List containing the keys to look up
+     * @param bulkLoader function to load the values for a list of keys, returning a map which
+     *                   omits keys that have no value
+     * @return map containing the cached and loaded key-value pairs
+     * @see LoadingCache#getAll(List, Function)
+     */
+    public Map<K, V> getAll(List<K> keys, Function<? super List<K>, ? extends Map<K, V>>
+            bulkLoader) {
+        Map<K, V> result = new HashMap<K, V>(cache.getAll(keys));
+        Map<K, CompletableFuture<V>> owned = new LinkedHashMap<K, CompletableFuture<V>>();
+        Map<K, CompletableFuture<V>> waiting = new LinkedHashMap<K, CompletableFuture<V>>();
+        for (K key : keys) {
+            if (result.containsKey(key) || owned.containsKey(key) || waiting.containsKey(key)) {
+                continue;
+            }
+            CompletableFuture<V> future = new CompletableFuture<V>();
+            CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+            if (existing == null) {
+                owned.put(key, future);
+            } else {
+                waiting.put(key, existing);
+            }
+        }
+        // Load the claimed keys before waiting for other threads, so that two threads which
+        // have each claimed a key the other is waiting for can not deadlock
+        if (!owned.isEmpty()) {
+            try {
+                Map<K, V> values = new HashMap<K, V>(cache.getAll(new ArrayList<K>(owned
+                        .keySet())));
+                List<K> missing = new ArrayList<K>();
+                for (K key : owned.keySet()) {
+                    if (!values.containsKey(key)) {
+                        missing.add(key);
+                    }
+                }
+                if (!missing.isEmpty()) {
+                    Map<K, V> loaded = new HashMap<K, V>();
+                    for (Map.Entry<K, V> entry : bulkLoader.apply(missing).entrySet()) {
+                        if (owned.containsKey(entry.getKey()) && entry.getValue() != null) {
+                            loaded.put(entry.getKey(), entry.getValue());
+                        }
+                    }
+                    if (!loaded.isEmpty()) {
+                        store.accept(loaded);
+                    }
+                    values.putAll(loaded);
+                }
+                result.putAll(values);
+                for (Map.Entry<K, CompletableFuture<V>> entry : owned.entrySet()) {
+                    entry.getValue().complete(values.get(entry.getKey()));
+                }
+            } catch (RuntimeException | Error e) {
+                for (CompletableFuture<V> future : owned.values()) {
+                    future.completeExceptionally(e);
+                }
+                throw e;
+            } finally {
+                for (Map.Entry<K, CompletableFuture<V>> entry : owned.entrySet()) {
+                    inFlight.remove(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        for (Map.Entry<K, CompletableFuture<V>> entry : waiting.entrySet()) {
+            V value = await(entry.getValue());
+            if (value != null) {
+                result.put(entry.getKey(), value);
+            }
+        }
+        return result;
+    }
+
+    /*
+     * Wait for a load by another thread, rethrowing its exception.
+     */
+    private static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+
+package com.cloudant.client.cache;
+
+/**
+ * <P>
+ * A source of the current time used to set and check the expiration times of cache entries.
+ * </P>
+ * <P>
+ * The time is read from a ticker on every cache operation which uses lifetimes. A
+ * {@link CachedTicker} reduces the cost of reading the time when caches are used at a high rate,
+ * and a {@link ManualTicker} allows tests to advance time without waiting. Set the ticker of a
+ * cache with {@link CacheWithLifetimes#setTicker(Ticker)}; caches without one read the default
+ * ticker set with {@link Util#setTicker(Ticker)}.
+ * </P>
+ */
+@FunctionalInterface
+public interface Ticker {
+
+    /**
+     * A ticker which reads the system time on every call.
+     */
+    Ticker SYSTEM = System::currentTimeMillis;
+
+    /**
+     * A ticker which reads the default ticker set with {@link Util#setTicker(Ticker)}, used by
+     * caches which have not been given a ticker of their own.
+     */
+    Ticker DEFAULT = Util::getTime;
+
+    /**
+     * @return milliseconds since January 1, 1970
+     */
+    long currentTimeMillis();
+}
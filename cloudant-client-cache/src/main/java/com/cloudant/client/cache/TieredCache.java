@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.cloudant.client.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * <P>
+ * A two level cache. Lookups are served from the first level if possible, otherwise from the
+ * second level; values found in the second level are promoted to the first level for the
+ * remainder of their lifetime. Writes and deletions are applied to both levels.
+ * </P>
+ * <P>
+ * A typical use is a small, fast in-process cache in front of a larger persistent or remote
+ * cache.
+ * </P>
+ *
+ * @param <K> the type of the cache keys
+ * @param <V> the type of the cache values
+ */
+public class TieredCache<K, V> implements CacheWithLifetimes<K, V> {
+
+    private final CacheWithLifetimes<K, V> firstLevel;
+    private final CacheWithLifetimes<K, V> secondLevel;
+    private volatile Ticker ticker = Ticker.DEFAULT;
+
+    /**
+     * Create a two level cache from two existing caches.
+     *
+     * @param firstLevel  the cache to consult first, usually the faster of the two
+     * @param secondLevel the cache to consult on a first level miss
+     */
+    public TieredCache(CacheWithLifetimes<K, V> firstLevel, CacheWithLifetimes<K, V>
+            secondLevel) {
+        this.firstLevel = firstLevel;
+        this.secondLevel = secondLevel;
+    }
+
+    /**
+     * @return the first level cache
+     */
+    public CacheWithLifetimes<K, V> getFirstLevel() {
+        return firstLevel;
+    }
+
+    /**
+     * @return the second level cache
+     */
+    public CacheWithLifetimes<K, V> getSecondLevel() {
+        return secondLevel;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <P>
+     * The ticker is also set on both levels, so that the remaining lifetime of a promoted value
+     * is measured by the same clock as its expiration time.
+     * </P>
+     */
+    @Override
+    public void setTicker(Ticker ticker) {
+        firstLevel.setTicker(ticker);
+        secondLevel.setTicker(ticker);
+        this.ticker = (ticker == null) ? Ticker.DEFAULT : ticker;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <P>
+     * The jitter is set on both levels, so a value promoted to the first level may have its
+     * remaining lifetime shortened again.
+     * </P>
+     */
+    @Override
+    public void setLifetimeJitter(int percent) {
+        firstLevel.setLifetimeJitter(percent);
+        secondLevel.setLifetimeJitter(percent);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+        firstLevel.clear();
+        secondLevel.clear();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void delete(K key) {
+        firstLevel.delete(key);
+        secondLevel.delete(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void deleteAll(List<K> keys) {
+        firstLevel.deleteAll(keys);
+        secondLevel.deleteAll(keys);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <P>
+     * As every entry is written to the second level these are the entries of the second level.
+     * </P>
+     */
+    @Override
+    public Stream<Map.Entry<K, CacheEntry<V>>> entries() {
+        return secondLevel.entries();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V get(K key) {
+        V value = firstLevel.get(key);
+        if (value != null) {
+            return value;
+        }
+        return getAndPromote(key, ticker.currentTimeMillis());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<K, V> getAll(List<K> keys) {
+        Map<K, V> hashMap = firstLevel.getAll(keys);
+        if (hashMap.size() == keys.size()) {
+            return hashMap;
+        }
+        long currentTime = ticker.currentTimeMillis();
+        for (K key : keys) {
+            if (!hashMap.containsKey(key)) {
+                V value = getAndPromote(key, currentTime);
+                if (value != null) {
+                    hashMap.put(key, value);
+                }
+            }
+        }
+        return hashMap;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CacheEntry<V> getCacheEntry(K key) {
+        CacheEntry<V> cacheEntry = firstLevel.getCacheEntry(key);
+        if (cacheEntry != null) {
+            return cacheEntry;
+        }
+        return secondLevel.getCacheEntry(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <P>
+     * The statistics are a list containing the {@link Stats} of the first and second levels.
+     * </P>
+     */
+    @Override
+    public Stats<List<Stats>> getStatistics() {
+        final List<Stats> stats = new ArrayList<Stats>(Arrays.asList(firstLevel.getStatistics(),
+                secondLevel.getStatistics()));
+        return () -> stats;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void put(K key, V value) {
+        firstLevel.put(key, value);
+        secondLevel.put(key, value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void put(K key, V value, long lifetime) {
+        firstLevel.put(key, value, lifetime);
+        secondLevel.put(key, value, lifetime);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void putAll(Map<K, V> map) {
+        firstLevel.putAll(map);
+        secondLevel.putAll(map);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void putAll(Map<K, V> map, long lifetime) {
+        firstLevel.putAll(map, lifetime);
+        secondLevel.putAll(map, lifetime);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <P>
+     * As every entry is written to the second level this is the size of the second level.
+     * </P>
+     */
+    @Override
+    public long size() {
+        return secondLevel.size();
+    }
+
+    /*
+     * Look up a key in the second level and, if it has not expired, copy it to the first level
+     * with its remaining lifetime.
+     */
+    private V getAndPromote(K key, long currentTime) {
+        CacheEntry<V> cacheEntry = secondLevel.getCacheEntry(key);
+        if (cacheEntry == null || cacheEntry.getValue() == null) {
+            return null;
+        }
+        if (cacheEntry.getExpirationTime() < currentTime) {
+            return null;
+        }
+        // Read the time again so the first level's expiration time matches the second level's
+        firstLevel.put(key, cacheEntry.getValue(), cacheEntry.getExpirationTime() -
+                ticker.currentTimeMillis());
+        return cacheEntry.getValue();
+    }
+}
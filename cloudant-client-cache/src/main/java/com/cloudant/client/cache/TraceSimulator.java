@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+
+package com.cloudant.client.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * <P>
+ * Replays an {@link AccessTrace} against several cache configurations to compare their hit
+ * ratios and the load they leave on the database, so that a cache can be chosen and sized from
+ * recorded accesses rather than by trying configurations in production.
+ * </P>
+ * <P>
+ * Each configuration is a cache engine, for example an {@link LRUCache} or a cache with a
+ * particular lifetime, created at each of a list of capacities. Every cache sees every access in
+ * a single pass over the trace: a read is a hit if the cache holds the id and otherwise a
+ * database request after which the id is cached, as {@link DatabaseCache#find(Class, String)}
+ * does; a contains check is counted as a read but does not cache the id when it misses, as
+ * {@link DatabaseCache#contains(String)} does; a write is a database request after which the id
+ * is cached; and a delete is a database request which removes the id from the cache.
+ * </P>
+ * <P>
+ * Caches with lifetimes are given a {@link ManualTicker} following the times in the trace, so
+ * that lifetimes expire as they would have, without changing the time seen by other caches.
+ * </P>
+ */
+public class TraceSimulator {
+
+    private static final Object VALUE = Boolean.TRUE;
+
+    private final Map<String, IntFunction<? extends Cache<String, Object>>> engines = new
+            LinkedHashMap<String, IntFunction<? extends Cache<String, Object>>>();
+    private final Set<Integer> capacities = new LinkedHashSet<Integer>();
+
+    /**
+     * Create a simulator.
+     *
+     * @param capacities the capacities to create each engine at, for example the maximum number
+     *                   of entries
+     * @throws IllegalArgumentException if no capacities are specified
+     */
+    public TraceSimulator(int... capacities) {
+        if (capacities.length == 0) {
+            throw new IllegalArgumentException("At least one capacity must be specified");
+        }
+        for (int capacity : capacities) {
+            this.capacities.add(capacity);
+        }
+    }
+
+    /**
+     * Add a cache engine to simulate.
+     *
+     * @param name    name of the engine in the results, for example including its lifetime
+     * @param factory function creating an empty cache of the engine with a capacity
+     * @return this simulator
+     */
+    public TraceSimulator addEngine(String name, IntFunction<? extends Cache<String, Object>>
+            factory) {
+        engines.put(name, factory);
+        return this;
+    }
+
+    /**
+     * Replay a trace against every engine at every capacity.
+     *
+     * @param trace the trace file
+     * @return the result of each engine and capacity, grouped by engine
+     * @throws IOException                   if the trace could not be read
+     * @throws UnsupportedOperationException if a cache with lifetimes can not use another
+     *                                       ticker
+     */
+    public List<Result> run(File trace) throws IOException {
+        List<Result> results = new ArrayList<Result>();
+        List<Cache<String, Object>> caches = new ArrayList<Cache<String, Object>>();
+        ManualTicker ticker = new ManualTicker();
+        for (Map.Entry<String, IntFunction<? extends Cache<String, Object>>> engine : engines
+                .entrySet()) {
+            for (int capacity : capacities) {
+                results.add(new Result(engine.getKey(), capacity));
+                Cache<String, Object> cache = engine.getValue().apply(capacity);
+                if (cache instanceof CacheWithLifetimes) {
+                    ((CacheWithLifetimes<String, Object>) cache).setTicker(ticker);
+                }
+                caches.add(cache);
+            }
+        }
+        try {
+            AccessTrace.replay(trace, (time, operation, id) -> {
+                ticker.set(time);
+                for (int i = 0; i < caches.size(); i++) {
+                    results.get(i).replay(caches.get(i), time, operation, id);
+                }
+            });
+        } finally {
+            for (Cache<String, Object> cache : caches) {
+                cache.clear();
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Print the hit ratio and database requests per second of each engine against capacity, as
+     * a table with a row per engine and a column per capacity.
+     *
+     * @param results the results of {@link #run(File)}
+     * @param out     the stream to print to
+     */
+    public static void print(List<Result> results, PrintStream out) {
+        Map<String, List<Result>> byEngine = new LinkedHashMap<String, List<Result>>();
+        Set<Integer> capacities = new LinkedHashSet<Integer>();
+        int width = "capacity".length();
+        for (Result result : results) {
+            List<Result> engineResults = byEngine.get(result.getEngine());
+            if (engineResults == null) {
+                engineResults = new ArrayList<Result>();
+                byEngine.put(result.getEngine(), engineResults);
+            }
+            engineResults.add(result);
+            capacities.add(result.getCapacity());
+            width = Math.max(width, result.getEngine().length());
+        }
+        String nameFormat = "%-" + width + "s";
+        for (int table = 0; table < 2; table++) {
+            out.println((table == 0) ? "Hit ratio" : "Database requests per second");
+            out.printf(nameFormat, "capacity");
+            for (int capacity : capacities) {
+                out.printf(" %10d", capacity);
+            }
+            out.println();
+            for (Map.Entry<String, List<Result>> engine : byEngine.entrySet()) {
+                out.printf(nameFormat, engine.getKey());
+                for (Result result : engine.getValue()) {
+                    out.printf(" %10.4f", (table == 0) ? result.getHitRatio() : result
+                            .getDatabaseRequestsPerSecond());
+                }
+                out.println();
+            }
+            out.println();
+        }
+    }
+
+    /**
+     * The accesses, hits and database requests of one engine at one capacity.
+     */
+    public static final class Result {
+
+        private final String engine;
+        private final int capacity;
+        private long reads;
+        private long hits;
+        private long writes;
+        private long deletes;
+        private long firstTime = -1;
+        private long lastTime;
+
+        private Result(String engine, int capacity) {
+            this.engine = engine;
+            this.capacity = capacity;
+        }
+
+        private void replay(Cache<String, Object> cache, long time, AccessTrace.Operation
+                operation, String id) {
+            if (firstTime < 0) {
+                firstTime = time;
+            }
+            lastTime = time;
+            switch (operation) {
+                case READ:
+                    reads++;
+                    if (cache.get(id) != null) {
+                        hits++;
+                    } else {
+                        cache.put(id, VALUE);
+                    }
+                    break;
+                case CONTAINS:
+                    reads++;
+                    if (cache.get(id) != null) {
+                        hits++;
+                    }
+                    break;
+                case WRITE:
+                    writes++;
+                    cache.put(id, VALUE);
+                    break;
+                case DELETE:
+                    deletes++;
+                    cache.delete(id);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown operation " + operation);
+            }
+        }
+
+        /**
+         * @return the name of the engine
+         */
+        public String getEngine() {
+            return engine;
+        }
+
+        /**
+         * @return the capacity of the cache
+         */
+        public int getCapacity() {
+            return capacity;
+        }
+
+        /**
+         * @return the number of reads, including contains checks
+         */
+        public long getReads() {
+            return reads;
+        }
+
+        /**
+         * @return the number of reads found in the cache
+         */
+        public long getHits() {
+            return hits;
+        }
+
+        /**
+         * @return the fraction of reads found in the cache, or 0 if there were no reads
+         */
+        public double getHitRatio() {
+            return (reads == 0) ? 0 : (double) hits / reads;
+        }
+
+        /**
+         * @return the number of requests to the database: reads which missed, writes and deletes
+         */
+        public long getDatabaseRequests() {
+            return reads - hits + writes + deletes;
+        }
+
+        /**
+         * @return the average number of database requests per second over the time covered by
+         * the trace
+         */
+        public double getDatabaseRequestsPerSecond() {
+            long duration = Math.max(1, lastTime - firstTime);
+            return getDatabaseRequests() * 1000.0 / duration;
+        }
+
+        @Override
+        public String toString() {
+            return engine + " with capacity " + capacity + ": hit ratio " + getHitRatio() + ", " +
+                    getDatabaseRequests() + " database requests";
+        }
+    }
+}
@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
@@ -32,6 +33,8 @@ import java.util.zip.GZIPOutputStream;
  */
 public class Util {
 
+    private static volatile Ticker ticker = Ticker.SYSTEM;
+
     /**
      * Compress a serializable object using gzip
      *
@@ -82,11 +85,46 @@ public class Util {
     }
 
     /**
-     * Return the current time
+     * Return the current time from the default ticker
      *
      * @return Milliseconds since January 1, 1970
      */
     public static long getTime() {
-        return System.currentTimeMillis();
+        return ticker.currentTimeMillis();
+    }
+
+    /**
+     * Set the default ticker, which caches read the current time from unless they have been
+     * given a ticker with {@link CacheWithLifetimes#setTicker(Ticker)}. By default the system
+     * time is read on every call.
+     *
+     * @param ticker the ticker, or {@code null} to use the system time
+     */
+    public static void setTicker(Ticker ticker) {
+        Util.ticker = (ticker == null || ticker == Ticker.DEFAULT) ? Ticker.SYSTEM : ticker;
+    }
+
+    /**
+     * @return the default ticker which caches read the current time from
+     */
+    public static Ticker getTicker() {
+        return ticker;
+    }
+
+    /**
+     * Randomly shorten a lifetime by up to the specified percentage, so that objects cached at
+     * the same time with the same lifetime do not all expire at the same time.
+     *
+     * @param lifetime lifetime in milliseconds
+     * @param percent  maximum percentage to shorten the lifetime by, from 0 to 100
+     * @return the shortened lifetime, or the lifetime unchanged if it or the percentage is 0 or
+     * less
+     */
+    public static long jitter(long lifetime, int percent) {
+        if (lifetime <= 0 || percent <= 0) {
+            return lifetime;
+        }
+        long spread = (long) (lifetime * (percent / 100.0));
+        return Math.max(1, lifetime - ThreadLocalRandom.current().nextLong(spread + 1));
     }
 }
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+
+package com.cloudant.client.cache;
+
+import com.google.gson.Gson;
+
+/**
+ * <P>
+ * Determines how a {@link DatabaseCache} stores documents in its cache and what it returns when
+ * a document is read from the cache.
+ * </P>
+ * <P>
+ * By default the {@link #REFERENCE} strategy caches the object that was saved or found and
+ * returns that same instance to every caller, so a caller modifying a returned document modifies
+ * the cached document seen by all other callers. The {@link #copy(Gson)} and
+ * {@link #encoded(Gson)} strategies isolate callers from each other at the cost of converting
+ * documents with Gson on every read. The {@link #json(Gson)} strategy lets callers read a cached
+ * document as different classes.
+ * </P>
+ */
+public interface ValueStrategy {
+
+    /**
+     * Cache the object itself and return the cached instance to every caller.
+     */
+    ValueStrategy REFERENCE = new ValueStrategy() {
+
+        @Override
+        public Object store(Object object) {
+            return object;
+        }
+
+        @Override
+        public <T> T read(Object value, Class<T> classType) {
+            return classType.cast(value);
+        }
+    };
+
+    /**
+     * Return the value to put in the cache for a document.
+     *
+     * @param object the document
+     * @return the value to cache
+     */
+    Object store(Object object);
+
+    /**
+     * Return a document for a caller from a value read from the cache, or from a document just
+     * loaded from the database which may be shared with other callers.
+     *
+     * @param value     a cached value or a loaded document
+     * @param classType the class of the document
+     * @param <T>       the type of the document
+     * @return the document
+     */
+    <T> T read(Object value, Class<T> classType);
+
+    /**
+     * Return a strategy which caches a deep copy of each document and returns a new deep copy
+     * on every read. Copies are made by converting to and from a Gson JSON tree, so documents
+     * must round trip through the Gson instance.
+     *
+     * @param gson Gson instance used to copy documents, such as the client's
+     * @return the strategy
+     */
+    static ValueStrategy copy(Gson gson) {
+        return new GsonValueStrategy(gson, false);
+    }
+
+    /**
+     * Return a strategy which caches each document as UTF-8 encoded JSON and decodes it on
+     * every read. Cached values are compact and {@link java.io.Serializable} whatever the class
+     * of the document, so this also suits caches which serialize their values.
+     *
+     * @param gson Gson instance used to encode and decode documents, such as the client's
+     * @return the strategy
+     */
+    static ValueStrategy encoded(Gson gson) {
+        return new GsonValueStrategy(gson, true);
+    }
+
+    /**
+     * Return a strategy which caches each document as canonical JSON, with the members of every
+     * object sorted by name, and decodes it to whichever class a caller asks for, so a document
+     * cached by a caller using one class can be read by callers using another, such as
+     * {@code JsonObject} or {@code Map}, without caching it twice. Each cached document
+     * remembers its decoded instances for a few classes, which are shared between callers
+     * asking for the same class as with {@link #REFERENCE}.
+     *
+     * @param gson Gson instance used to encode and decode documents, such as the client's
+     * @return the strategy
+     */
+    static ValueStrategy json(Gson gson) {
+        return new JsonValueStrategy(gson);
+    }
+}
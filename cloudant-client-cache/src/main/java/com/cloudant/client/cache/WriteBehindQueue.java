@@ -0,0 +1,286 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.cloudant.client.cache;
+
+import com.cloudant.client.api.model.Response;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/*
+ * Queues document writes for a write-behind DatabaseCache and writes them in batches with a bulk
+ * function on a background thread.
+ *
+ * Writes are coalesced by document id: a write replaces any queued write of the same id, keeping
+ * its place in the queue. A batch is written when batchSize ids are queued or the oldest queued
+ * write is flushInterval milliseconds old. Adding a new id blocks while capacity ids are queued.
+ * Batches are written one at a time, so writes of the same id reach the database in order.
+ *
+ * The cache is updated with the queue lock held: a queued object is stored when it is added, and
+ * a written or failed object is evicted unless it has been queued again, so that a write which
+ * completes while the same id is being saved again can not remove the newer object. Written
+ * objects are evicted because their revision is out of date, so saving them again would
+ * conflict; the next read loads the document with its new revision.
+ *
+ * If the background thread dies, for example with an Error while writing a batch, the queue is
+ * closed so that adds return false instead of waiting for space.
+ */
+final class WriteBehindQueue {
+
+    private final int batchSize;
+    private final long flushInterval;
+    private final int capacity;
+    private final Function<List<Object>, List<Response>> bulk;
+    private final BiConsumer<String, Object> store;
+    private final Consumer<String> evict;
+    private final Consumer<WriteFailure> failureHandler;
+
+    // Guards pending, oldestPendingTime and closed
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Condition ready = lock.newCondition();
+    private final LinkedHashMap<String, Object> pending = new LinkedHashMap<String, Object>();
+    private long oldestPendingTime;
+    private boolean closed;
+
+    // Held while taking and writing a batch, so that batches are written in order
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Thread flusher;
+
+    WriteBehindQueue(int batchSize, long flushInterval, int capacity, Function<List<Object>,
+            List<Response>> bulk, BiConsumer<String, Object> store, Consumer<String> evict,
+            Consumer<WriteFailure> failureHandler) {
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.capacity = capacity;
+        this.bulk = bulk;
+        this.store = store;
+        this.evict = evict;
+        this.failureHandler = failureHandler;
+        this.flusher = new Thread(this::run, "DatabaseCache write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /*
+     * Store an object in the cache and queue a write, waiting for space if the queue is full.
+     * Returns false if the queue has been closed, in which case the object is not stored and the
+     * caller must write the document itself.
+     */
+    boolean add(String id, Object object) {
+        lock.lock();
+        try {
+            while (!closed && !pending.containsKey(id) && pending.size() >= capacity) {
+                ready.signal();
+                notFull.awaitUninterruptibly();
+            }
+            if (closed) {
+                return false;
+            }
+            boolean wasEmpty = pending.isEmpty();
+            if (wasEmpty) {
+                oldestPendingTime = System.currentTimeMillis();
+            }
+            store.accept(id, object);
+            pending.put(id, object);
+            // Wake the flusher to start timing the new write or to write a full batch
+            if (wasEmpty || pending.size() >= batchSize) {
+                ready.signal();
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*
+     * Write all queued writes, returning when they have been written.
+     */
+    void flush() {
+        writeLock.lock();
+        try {
+            while (writeBatch()) {
+                // Keep writing until the queue is empty
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /*
+     * Stop the background thread and write any queued writes. Subsequent adds return false.
+     */
+    void close() {
+        lock.lock();
+        try {
+            closed = true;
+            ready.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        boolean interrupted = false;
+        while (flusher.isAlive()) {
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        flush();
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        try {
+            flushWhenDue();
+        } finally {
+            // Do not leave adds waiting for a thread which has stopped
+            lock.lock();
+            try {
+                closed = true;
+                ready.signalAll();
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void flushWhenDue() {
+        while (true) {
+            lock.lock();
+            try {
+                long wait;
+                while (!closed && (wait = timeUntilDue()) > 0) {
+                    ready.await(wait, TimeUnit.MILLISECONDS);
+                }
+                if (closed) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+            writeLock.lock();
+            try {
+                writeBatch();
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    /*
+     * The time in milliseconds until a batch should be written, or 0 if it should be written
+     * now. Called with the lock held.
+     */
+    private long timeUntilDue() {
+        if (pending.isEmpty()) {
+            return Long.MAX_VALUE;
+        }
+        if (pending.size() >= batchSize) {
+            return 0;
+        }
+        return Math.max(0, oldestPendingTime + flushInterval - System.currentTimeMillis());
+    }
+
+    /*
+     * Take a batch from the queue and write it, returning false if the queue was empty. Called
+     * with the write lock held.
+     */
+    private boolean writeBatch() {
+        List<String> ids = new ArrayList<String>(batchSize);
+        List<Object> objects = new ArrayList<Object>(batchSize);
+        lock.lock();
+        try {
+            Iterator<Map.Entry<String, Object>> iterator = pending.entrySet().iterator();
+            while (iterator.hasNext() && ids.size() < batchSize) {
+                Map.Entry<String, Object> entry = iterator.next();
+                ids.add(entry.getKey());
+                objects.add(entry.getValue());
+                iterator.remove();
+            }
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (ids.isEmpty()) {
+            return false;
+        }
+        List<Response> responses;
+        try {
+            responses = bulk.apply(objects);
+        } catch (RuntimeException e) {
+            for (int i = 0; i < ids.size(); i++) {
+                fail(new WriteFailure(ids.get(i), objects.get(i), null, null, e));
+            }
+            return true;
+        } catch (Error e) {
+            // The cache must not keep objects which may not have been written
+            for (String id : ids) {
+                evictUnlessQueued(id);
+            }
+            throw e;
+        }
+        for (int i = 0; i < ids.size(); i++) {
+            Response response = responses.get(i);
+            if (response.getError() != null) {
+                fail(new WriteFailure(ids.get(i), objects.get(i), response.getError(), response
+                        .getReason(), null));
+            } else {
+                evictUnlessQueued(ids.get(i));
+            }
+        }
+        return true;
+    }
+
+    /*
+     * Evict a written or failed object from the cache unless it has been queued again since.
+     */
+    private void evictUnlessQueued(String id) {
+        lock.lock();
+        try {
+            if (!pending.containsKey(id)) {
+                evict.accept(id);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void fail(WriteFailure failure) {
+        evictUnlessQueued(failure.getId());
+        if (failureHandler != null) {
+            try {
+                failureHandler.accept(failure);
+            } catch (RuntimeException e) {
+                // A failing handler must not stop the remaining writes
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.cloudant.client.cache;
+
+/**
+ * A document which could not be written to the database by a write-behind {@link DatabaseCache}.
+ * Either the database rejected the document, for example because of a conflict, in which case
+ * the error and reason are those in the {@code _bulk_docs} response, or the whole request failed
+ * with an exception.
+ *
+ * @see DatabaseCache#enableWriteBehind
+ */
+public class WriteFailure {
+
+    private final String id;
+    private final Object object;
+    private final String error;
+    private final String reason;
+    private final RuntimeException exception;
+
+    WriteFailure(String id, Object object, String error, String reason, RuntimeException
+            exception) {
+        this.id = id;
+        this.object = object;
+        this.error = error;
+        this.reason = reason;
+        this.exception = exception;
+    }
+
+    /**
+     * @return the document id
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return the object which could not be written
+     */
+    public Object getObject() {
+        return object;
+    }
+
+    /**
+     * @return the error returned by the database, for example {@code conflict}, or {@code null}
+     * if the request failed with an exception
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * @return the reason for the error returned by the database, or {@code null}
+     */
+    public String getReason() {
+        return reason;
+    }
+
+    /**
+     * @return the exception thrown by the bulk request, or {@code null} if the database rejected
+     * only this document
+     */
+    public RuntimeException getException() {
+        return exception;
+    }
+
+    @Override
+    public String toString() {
+        return "WriteFailure{id=" + id + ", error=" + error + ", reason=" + reason + ", " +
+                "exception=" + exception + "}";
+    }
+}
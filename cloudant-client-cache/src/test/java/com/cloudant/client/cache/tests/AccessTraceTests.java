@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+
+package com.cloudant.client.cache.tests;
+
+import static org.junit.Assert.assertEquals;
+
+import com.cloudant.client.cache.AccessTrace;
+import com.cloudant.client.cache.LRUCache;
+import com.cloudant.client.cache.ManualTicker;
+import com.cloudant.client.cache.TraceSimulator;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for recording and replaying access traces and simulating caches with them.
+ */
+public class AccessTraceTests {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ManualTicker ticker = new ManualTicker(1000000);
+
+    private File record(String... reads) throws Exception {
+        File file = folder.newFile();
+        try (AccessTrace.Recorder recorder = AccessTrace.record(file, ticker)) {
+            for (String id : reads) {
+                recorder.record(AccessTrace.Operation.READ, id);
+                ticker.advance(1, TimeUnit.SECONDS);
+            }
+        }
+        return file;
+    }
+
+    private static List<String> replay(File file) throws Exception {
+        List<String> accesses = new ArrayList<String>();
+        AccessTrace.replay(file, (time, operation, id) -> accesses.add(time + " " + operation +
+                " " + id));
+        return accesses;
+    }
+
+    /**
+     * Test that accesses are replayed with their times, operations and ids.
+     *
+     * @throws Exception if the trace can not be written or read
+     */
+    @Test
+    public void testRecordAndReplay() throws Exception {
+        File file = folder.newFile();
+        try (AccessTrace.Recorder recorder = AccessTrace.record(file, ticker)) {
+            recorder.record(AccessTrace.Operation.READ, "a");
+            ticker.advance(5, TimeUnit.MILLISECONDS);
+            recorder.record(AccessTrace.Operation.WRITE, "b");
+            recorder.record(AccessTrace.Operation.READ, "a");
+            ticker.advance(300, TimeUnit.SECONDS);
+            recorder.record(AccessTrace.Operation.DELETE, "b");
+            assertEquals("The accesses should be counted", 4, recorder.getCount());
+        }
+        assertEquals("The accesses should be replayed in order", Arrays.asList(
+                "1000000 READ a", "1000005 WRITE b", "1000005 READ a", "1300005 DELETE b"),
+                replay(file));
+    }
+
+    /**
+     * Test that a trace which was not closed is replayed up to the last complete access.
+     *
+     * @throws Exception if the trace can not be written or read
+     */
+    @Test
+    public void testIncompleteTrace() throws Exception {
+        File file = record("first", "second", "third");
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            // Remove the end marker and the last character of the third id
+            raf.setLength(raf.length() - 2);
+        }
+        assertEquals("The complete accesses should be replayed", Arrays.asList("1000000 READ " +
+                "first", "1001000 READ second"), replay(file));
+    }
+
+    /**
+     * Test the hits and database requests of LRU caches of different capacities.
+     *
+     * @throws Exception if the trace can not be written or read
+     */
+    @Test
+    public void testSimulateLRUCache() throws Exception {
+        File file = record("a", "b", "a", "c", "a", "b");
+        List<TraceSimulator.Result> results = new TraceSimulator(1, 2, 3).addEngine("LRU",
+                LRUCache::new).run(file);
+        assertEquals("There should be a result for each capacity", 3, results.size());
+        assertEquals("A single entry cache should never hit", 0, results.get(0).getHits());
+        assertEquals("Two entries should hit the repeated reads of a", 2, results.get(1)
+                .getHits());
+        assertEquals("Three entries should hold every id", 3, results.get(2).getHits());
+        assertEquals("Misses should be database requests", 3, results.get(2)
+                .getDatabaseRequests());
+        assertEquals("The hit ratio should be hits per read", 0.5, results.get(2).getHitRatio(),
+                0.0001);
+        assertEquals("The requests should be spread over the 5 seconds of the trace", 0.6,
+                results.get(2).getDatabaseRequestsPerSecond(), 0.0001);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TraceSimulator.print(results, new PrintStream(out, true));
+        assertEquals("The hit ratio table should have a row for the engine", String.format
+                ("%-8s %10.4f %10.4f %10.4f", "LRU", 0.0, 2 / 6.0, 0.5), out.toString().split
+                (System.lineSeparator())[2]);
+    }
+
+    /**
+     * Test that writes are cached and deletes remove entries during a simulation.
+     *
+     * @throws Exception if the trace can not be written or read
+     */
+    @Test
+    public void testSimulateWritesAndDeletes() throws Exception {
+        File file = folder.newFile();
+        try (AccessTrace.Recorder recorder = AccessTrace.record(file, ticker)) {
+            recorder.record(AccessTrace.Operation.WRITE, "a");
+            recorder.record(AccessTrace.Operation.READ, "a");
+            recorder.record(AccessTrace.Operation.DELETE, "a");
+            recorder.record(AccessTrace.Operation.READ, "a");
+        }
+        TraceSimulator.Result result = new TraceSimulator(10).addEngine("LRU", LRUCache::new)
+                .run(file).get(0);
+        assertEquals("Only the read after the write should hit", 1, result.getHits());
+        assertEquals("The write, delete and miss should be database requests", 3, result
+                .getDatabaseRequests());
+    }
+
+    /**
+     * Test that a contains check is counted as a read but does not cache the id when it misses.
+     *
+     * @throws Exception if the trace can not be written or read
+     */
+    @Test
+    public void testSimulateContains() throws Exception {
+        File file = folder.newFile();
+        try (AccessTrace.Recorder recorder = AccessTrace.record(file, ticker)) {
+            recorder.record(AccessTrace.Operation.CONTAINS, "a");
+            recorder.record(AccessTrace.Operation.CONTAINS, "a");
+            recorder.record(AccessTrace.Operation.READ, "a");
+            recorder.record(AccessTrace.Operation.CONTAINS, "a");
+        }
+        assertEquals("The checks should be replayed", "1000000 CONTAINS a", replay(file).get(0));
+        TraceSimulator.Result result = new TraceSimulator(10).addEngine("LRU", LRUCache::new)
+                .run(file).get(0);
+        assertEquals("The checks should be counted as reads", 4, result.getReads());
+        assertEquals("Only the check after the read should hit", 1, result.getHits());
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.cloudant.client.cache.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import com.cloudant.client.cache.AdaptiveCapacity;
+import com.cloudant.client.cache.LRUCache;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class AdaptiveCapacityTests {
+
+    private LRUCache<String, Integer> cache;
+    private double usage;
+    private AdaptiveCapacity capacity;
+
+    @Before
+    public void setUp() {
+        cache = new LRUCache<String, Integer>(100);
+        for (int i = 1; i <= 100; i++) {
+            cache.put("key" + i, i);
+        }
+        usage = 0.6;
+        capacity = new AdaptiveCapacity(cache, 10, 200, 0.5, 0.8, () -> usage);
+    }
+
+    /**
+     * Test that usage between the thresholds leaves the size unchanged.
+     */
+    @Test
+    public void testWithinThresholds() {
+        assertEquals("The target should be the cache size", 100, capacity.adjust());
+        assertEquals("The usage should be recorded", 0.6, capacity.getLastUsage(), 0);
+        assertEquals("No entries should be evicted", 100, cache.size());
+    }
+
+    /**
+     * Test that high usage shrinks the cache, evicting the least recently used entries, and that
+     * it does not shrink below the minimum size.
+     */
+    @Test
+    public void testShrink() {
+        assertNotNull("The entry should be present", cache.get("key1"));
+        usage = 0.9;
+        assertEquals("The target should shrink by a quarter", 75, capacity.adjust());
+        assertEquals("The cache should be resized", 75, cache.getMaximumSize());
+        assertEquals("Entries should be evicted", 75, cache.size());
+        assertNotNull("The recently used entry should be kept", cache.get("key1"));
+        for (int i = 0; i < 20; i++) {
+            capacity.adjust();
+        }
+        assertEquals("The target should stop at the minimum", 10, capacity.getTargetSize());
+        assertEquals("Entries should be evicted", 10, cache.size());
+    }
+
+    /**
+     * Test that low usage grows the cache up to the maximum size.
+     */
+    @Test
+    public void testGrow() {
+        usage = 0.1;
+        assertEquals("The target should grow by a tenth", 110, capacity.adjust());
+        assertEquals("The cache should be resized", 110, cache.getMaximumSize());
+        for (int i = 0; i < 20; i++) {
+            capacity.adjust();
+        }
+        assertEquals("The target should stop at the maximum", 200, capacity.getTargetSize());
+        assertEquals("The cache should be resized", 200, cache.getMaximumSize());
+    }
+
+    /**
+     * Test that a cache larger than the maximum size is shrunk when the capacity is created.
+     */
+    @Test
+    public void testInitialSizeClamped() {
+        new AdaptiveCapacity(cache, 10, 50, 0.5, 0.8, () -> usage);
+        assertEquals("The cache should be resized", 50, cache.getMaximumSize());
+        assertEquals("Entries should be evicted", 50, cache.size());
+    }
+
+    /**
+     * Test that a capacity monitoring the heap starts within the bounds and can be closed.
+     */
+    @Test
+    public void testHeapMonitor() {
+        try (AdaptiveCapacity heap = new AdaptiveCapacity(cache, 10, 200, 0.5, 0.8, 1,
+                TimeUnit.SECONDS)) {
+            long target = heap.adjust();
+            assertEquals("The cache should be resized to the target", target, cache
+                    .getMaximumSize());
+            assertTrue("The target should be within the bounds", target >= 10 && target <= 200);
+            assertTrue("The heap usage should be a fraction", heap.getLastUsage() >= 0 && heap
+                    .getLastUsage() <= 1);
+        }
+    }
+
+    /**
+     * Test that closing a capacity monitoring the heap restores the collection usage thresholds
+     * it replaced.
+     */
+    @Test
+    public void testHeapMonitorRestoresThresholds() {
+        Map<String, Long> thresholds = new HashMap<String, Long>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.isCollectionUsageThresholdSupported()) {
+                thresholds.put(pool.getName(), pool.getCollectionUsageThreshold());
+            }
+        }
+        new AdaptiveCapacity(cache, 10, 200, 0.5, 0.8, 1, TimeUnit.SECONDS).close();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.isCollectionUsageThresholdSupported()) {
+                assertEquals("The threshold should be restored", thresholds.get(pool.getName()),
+                        Long.valueOf(pool.getCollectionUsageThreshold()));
+            }
+        }
+    }
+
+    /**
+     * Test that the statistics report the target size, last usage and adjustments.
+     */
+    @Test
+    public void testStatistics() {
+        usage = 0.9;
+        capacity.adjust();
+        usage = 0.1;
+        capacity.adjust();
+        Map<String, Number> stats = capacity.getStatistics().getStats();
+        assertEquals("The target size should be reported", capacity.getTargetSize(), stats.get
+                ("targetSize"));
+        assertEquals("The last usage should be reported", 0.1, stats.get("lastUsage")
+                .doubleValue(), 0);
+        assertEquals("The shrink should be counted", 1L, stats.get("shrinks"));
+        assertEquals("The grow should be counted", 1L, stats.get("grows"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSizes() {
+        new AdaptiveCapacity(cache, 100, 10, 0.5, 0.8, () -> usage);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidThresholds() {
+        new AdaptiveCapacity(cache, 10, 100, 0.8, 0.5, () -> usage);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidInterval() {
+        new AdaptiveCapacity(cache, 10, 100, 0.5, 0.8, 0, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.cloudant.client.cache.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import com.cloudant.client.cache.AttachmentStore;
+import com.cloudant.client.cache.ManualTicker;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for storing streams in an {@link AttachmentStore}.
+ */
+public class AttachmentStoreTests {
+
+    private static byte[] bytes(int length, int seed) {
+        byte[] bytes = new byte[length];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        try (InputStream stream = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1000];
+            int n;
+            while ((n = stream.read(buffer)) >= 0) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * Test that a stream read to the end is stored over several chunks and can be read back
+     * repeatedly.
+     */
+    @Test
+    public void testStoreAndRead() throws IOException {
+        AttachmentStore store = new AttachmentStore(1 << 20, 1 << 20);
+        byte[] data = bytes(100000, 1);
+        assertArrayEquals("The source bytes should be returned", data, readAll(store.cache("a",
+                null, new ByteArrayInputStream(data))));
+        assertEquals("The stream should be stored", data.length, store.size());
+        assertArrayEquals("The stored bytes should be returned", data, readAll(store.get("a")));
+        assertArrayEquals("The stored bytes should be returned again", data, readAll(store.get
+                ("a")));
+    }
+
+    /**
+     * Test that a stream closed before the end or larger than the maximum entry size is not
+     * stored.
+     */
+    @Test
+    public void testIncompleteAndLargeNotStored() throws IOException {
+        AttachmentStore store = new AttachmentStore(1 << 20, 10000);
+        try (InputStream in = store.cache("a", null, new ByteArrayInputStream(bytes(5000, 1)))) {
+            assertEquals("The first byte should be read", 100, in.read(new byte[100]));
+        }
+        assertNull("A partly read stream should not be stored", store.get("a"));
+
+        byte[] large = bytes(20000, 2);
+        assertArrayEquals("The source bytes should be returned", large, readAll(store.cache("b",
+                null, new ByteArrayInputStream(large))));
+        assertNull("A stream larger than the maximum should not be stored", store.get("b"));
+        assertEquals("Nothing should be stored", 0, store.count());
+    }
+
+    /**
+     * Test that the least recently used streams are evicted to keep within the maximum size,
+     * and that a stream being read when it is evicted is still read correctly.
+     */
+    @Test
+    public void testEviction() throws IOException {
+        AttachmentStore store = new AttachmentStore(30000, 10000);
+        byte[] first = bytes(10000, 1);
+        readAll(store.cache("first", null, new ByteArrayInputStream(first)));
+        readAll(store.cache("second", null, new ByteArrayInputStream(bytes(10000, 2))));
+        readAll(store.cache("third", null, new ByteArrayInputStream(bytes(10000, 3))));
+
+        InputStream reading = store.get("first");
+        assertEquals("The first byte should be read", first[0], (byte) reading.read());
+        readAll(store.get("second"));
+        readAll(store.get("third"));
+        readAll(store.cache("fourth", null, new ByteArrayInputStream(bytes(10000, 4))));
+        // The memory of the first stream can not be reused while it is being read
+        assertNull("The least recently used stream should be evicted", store.get("first"));
+        assertNull("The next least recently used stream should be evicted", store.get
+                ("second"));
+        assertNotNull("A recently used stream should not be evicted", store.get("third"));
+        assertEquals("The store should be within the maximum size", 20000, store.size());
+
+        byte[] rest = readAll(reading);
+        assertEquals("The evicted stream should still be readable", first.length - 1, rest
+                .length);
+        assertEquals("The evicted stream should be unchanged", first[first.length - 1],
+                rest[rest.length - 1]);
+    }
+
+    /**
+     * Test that the chunks of a stream which is neither read to the end nor closed are reused
+     * once the stream has been garbage collected.
+     */
+    @Test
+    public void testUnclosedStreamFreed() throws IOException {
+        // A single chunk, which the unclosed stream takes
+        AttachmentStore store = new AttachmentStore(10000, 10000);
+        readPartly(store);
+        byte[] data = bytes(10000, 2);
+        for (int i = 0; i < 20 && store.count() == 0; i++) {
+            System.gc();
+            readAll(store.cache("b", null, new ByteArrayInputStream(data)));
+        }
+        assertArrayEquals("The chunk of the unclosed stream should be reused", data, readAll
+                (store.get("b")));
+    }
+
+    private static void readPartly(AttachmentStore store) throws IOException {
+        InputStream in = store.cache("a", null, new ByteArrayInputStream(bytes(10000, 1)));
+        assertEquals("The first bytes should be read", 5000, in.read(new byte[5000]));
+    }
+
+    /**
+     * Test that deleting a group deletes its streams and prevents a stream of the group being
+     * read at the time from being stored.
+     */
+    @Test
+    public void testDeleteGroup() throws IOException {
+        AttachmentStore store = new AttachmentStore(1 << 20, 1 << 20);
+        readAll(store.cache("doc/a", "doc", new ByteArrayInputStream(bytes(100, 1))));
+        readAll(store.cache("other/a", "other", new ByteArrayInputStream(bytes(100, 2))));
+        InputStream reading = store.cache("doc/b", "doc", new ByteArrayInputStream(bytes(100,
+                3)));
+        reading.read();
+
+        store.deleteGroup("doc");
+        readAll(reading);
+        assertNull("The stream of the group should be deleted", store.get("doc/a"));
+        assertNull("The stream being read should not be stored", store.get("doc/b"));
+        assertNotNull("Streams of other groups should not be deleted", store.get("other/a"));
+    }
+
+    /**
+     * Test that a stream stored with a lifetime is not returned after the lifetime has passed.
+     */
+    @Test
+    public void testLifetime() throws IOException {
+        AttachmentStore store = new AttachmentStore(1 << 20, 1 << 20);
+        ManualTicker ticker = new ManualTicker();
+        store.setTicker(ticker);
+        readAll(store.cache("a", null, new ByteArrayInputStream(bytes(100, 1)), 1000));
+        readAll(store.cache("b", null, new ByteArrayInputStream(bytes(100, 2))));
+
+        ticker.advance(1, TimeUnit.SECONDS);
+        assertNotNull("The stream should be returned until its lifetime has passed", store.get
+                ("a"));
+        ticker.advance(1, TimeUnit.MILLISECONDS);
+        assertNull("The expired stream should not be returned", store.get("a"));
+        assertEquals("The expired stream should be removed", 1, store.count());
+        assertNotNull("A stream without a lifetime should be returned", store.get("b"));
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+
+package com.cloudant.client.cache.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.cloudant.client.cache.BatchingPublisher;
+
+import org.junit.After;
+import org.junit.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Tests for looking up the values of a stream of keys with a {@link BatchingPublisher}.
+ */
+public class BatchingPublisherTests {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /*
+     * Records the values and termination of a subscription.
+     */
+    private static final class RecordingSubscriber<T> implements Subscriber<T> {
+
+        private final List<T> values = new CopyOnWriteArrayList<T>();
+        private final CountDownLatch terminated = new CountDownLatch(1);
+        private final long initialRequest;
+        private volatile Subscription subscription;
+        private volatile Throwable error;
+
+        RecordingSubscriber(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+            if (initialRequest > 0) {
+                subscription.request(initialRequest);
+            }
+        }
+
+        @Override
+        public void onNext(T value) {
+            values.add(value);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            terminated.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            terminated.countDown();
+        }
+
+        boolean await() throws InterruptedException {
+            return terminated.await(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static List<Integer> range(int count) {
+        List<Integer> keys = new ArrayList<Integer>(count);
+        for (int i = 0; i < count; i++) {
+            keys.add(i);
+        }
+        return keys;
+    }
+
+    // Looks up the even keys, as strings
+    private static final Function<List<Integer>, List<String>> EVEN = keys -> {
+        List<String> values = new ArrayList<String>();
+        for (Integer key : keys) {
+            if (key % 2 == 0) {
+                values.add(String.valueOf(key));
+            }
+        }
+        return values;
+    };
+
+    /**
+     * Test that the values of every key are emitted in the order of the keys.
+     */
+    @Test
+    public void testValuesInOrder() throws InterruptedException {
+        ListPublisher<Integer> keys = new ListPublisher<Integer>(range(1000));
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<String>(Long.MAX_VALUE);
+        new BatchingPublisher<Integer, String>(keys, EVEN, 7, 3, executor).subscribe(subscriber);
+        assertTrue("The subscription should complete", subscriber.await());
+        assertNull("There should be no error", subscriber.error);
+        assertEquals("Every value should be emitted", 500, subscriber.values.size());
+        for (int i = 0; i < 500; i++) {
+            assertEquals("The values should be in the order of their keys", String.valueOf(i *
+                    2), subscriber.values.get(i));
+        }
+    }
+
+    /**
+     * Test that only the requested values are emitted and that keys are only requested for a
+     * bounded number of batches ahead of the subscriber.
+     */
+    @Test
+    public void testBackpressure() throws InterruptedException {
+        ListPublisher<Integer> keys = new ListPublisher<Integer>(range(10000));
+        AtomicInteger lookups = new AtomicInteger();
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<String>(5);
+        new BatchingPublisher<Integer, String>(keys, batch -> {
+            lookups.incrementAndGet();
+            return EVEN.apply(batch);
+        }, 10, 2, executor).subscribe(subscriber);
+        Thread.sleep(200);
+        assertEquals("Only the requested values should be emitted", 5, subscriber.values.size());
+        assertTrue("Keys should only be requested for a few batches", keys.getRequested() <=
+                30);
+        assertTrue("Only a few batches should be looked up", lookups.get() <= 3);
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertTrue("The subscription should complete", subscriber.await());
+        assertEquals("Every value should be emitted", 5000, subscriber.values.size());
+    }
+
+    /**
+     * Test that a failed lookup is signalled to the subscriber and cancels the keys.
+     */
+    @Test
+    public void testLookupFailure() throws InterruptedException {
+        ListPublisher<Integer> keys = new ListPublisher<Integer>(range(1000));
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<String>(Long.MAX_VALUE);
+        IllegalStateException failure = new IllegalStateException("lookup failed");
+        new BatchingPublisher<Integer, String>(keys, batch -> {
+            if (batch.contains(50)) {
+                throw failure;
+            }
+            return EVEN.apply(batch);
+        }, 10, 2, executor).subscribe(subscriber);
+        assertTrue("The subscription should terminate", subscriber.await());
+        assertEquals("The lookup failure should be signalled", failure, subscriber.error);
+        assertTrue("The keys should be cancelled", keys.isCancelled());
+        assertTrue("The values before the failed batch should be emitted", subscriber.values
+                .size() <= 25);
+    }
+
+    /**
+     * Test that cancelling the subscription cancels the keys.
+     */
+    @Test
+    public void testCancel() throws InterruptedException {
+        ListPublisher<Integer> keys = new ListPublisher<Integer>(range(1000));
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<String>(1);
+        new BatchingPublisher<Integer, String>(keys, EVEN, 10, 2, executor).subscribe(subscriber);
+        Thread.sleep(100);
+        subscriber.subscription.cancel();
+        // The cancellation may be handled by a lookup thread
+        Thread.sleep(100);
+        assertTrue("The keys should be cancelled", keys.isCancelled());
+        assertEquals("Only the requested value should be emitted", 1, subscriber.values.size());
+    }
+
+    /**
+     * Test that requesting a non-positive number of values is signalled as an error.
+     */
+    @Test
+    public void testInvalidRequest() throws InterruptedException {
+        ListPublisher<Integer> keys = new ListPublisher<Integer>(range(1000));
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<String>(0);
+        new BatchingPublisher<Integer, String>(keys, EVEN, 10, 2, executor).subscribe(subscriber);
+        subscriber.subscription.request(0);
+        assertTrue("The subscription should terminate", subscriber.await());
+        assertTrue("The invalid request should be signalled", subscriber.error instanceof
+                IllegalArgumentException);
+        assertTrue("The keys should be cancelled", keys.isCancelled());
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+
+package com.cloudant.client.cache.tests;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.cloudant.client.cache.BloomFilter;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link BloomFilter}.
+ */
+public class BloomFilterTests {
+
+    /**
+     * Test that every added string is found and that the false positive rate is close to the
+     * configured rate.
+     */
+    @Test
+    public void testFalsePositiveRate() {
+        BloomFilter filter = new BloomFilter(10000, 0.01);
+        for (int i = 0; i < 10000; i++) {
+            filter.put("doc-" + i);
+        }
+        for (int i = 0; i < 10000; i++) {
+            assertTrue("An added string should be found", filter.mightContain("doc-" + i));
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100000; i++) {
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue("The false positive rate should be about 1%, was " + falsePositives /
+                1000.0 + "%", falsePositives < 2000);
+    }
+
+    /**
+     * Test that put reports whether the filter changed.
+     */
+    @Test
+    public void testPut() {
+        BloomFilter filter = new BloomFilter(100, 0.01);
+        assertFalse("The string should not be found before it is added", filter.mightContain
+                ("a"));
+        assertTrue("Adding a new string should change the filter", filter.put("a"));
+        assertFalse("Adding the string again should not change the filter", filter.put("a"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidFalsePositiveRate() {
+        new BloomFilter(100, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidExpectedInsertions() {
+        new BloomFilter(0, 0.01);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+
+package com.cloudant.client.cache.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.cloudant.client.cache.BulkExecutor;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Tests for running bulk operations with a {@link BulkExecutor}.
+ */
+public class BulkExecutorTests {
+
+    /**
+     * Test that every entry is processed exactly once, by several threads.
+     */
+    @Test
+    public void testParallel() {
+        BulkExecutor executor = new BulkExecutor(100, 10);
+        AtomicIntegerArray counts = new AtomicIntegerArray(1005);
+        Set<Thread> threads = Collections.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
+        executor.forEachRange(counts.length(), (from, to) -> {
+            assertTrue("Chunks should not be larger than the chunk size", to - from <= 10);
+            threads.add(Thread.currentThread());
+            for (int i = from; i < to; i++) {
+                counts.incrementAndGet(i);
+            }
+        });
+        for (int i = 0; i < counts.length(); i++) {
+            assertEquals("Each entry should be processed once", 1, counts.get(i));
+        }
+        assertTrue("The calling thread should process a chunk", threads.contains(Thread
+                .currentThread()));
+    }
+
+    /**
+     * Test that fewer entries than the threshold are processed in one range on the calling
+     * thread.
+     */
+    @Test
+    public void testBelowThreshold() {
+        BulkExecutor executor = new BulkExecutor(100, 10);
+        Thread caller = Thread.currentThread();
+        int[] calls = new int[1];
+        executor.forEachRange(99, (from, to) -> {
+            assertEquals("The whole range should be processed", 99, to - from);
+            assertEquals("The calling thread should be used", caller, Thread.currentThread());
+            calls[0]++;
+        });
+        assertEquals("The range should be processed once", 1, calls[0]);
+    }
+
+    /**
+     * Test that an exception from a chunk is thrown after all of the chunks have finished.
+     */
+    @Test
+    public void testException() {
+        BulkExecutor executor = new BulkExecutor(10, 10);
+        AtomicIntegerArray counts = new AtomicIntegerArray(100);
+        try {
+            executor.forEachRange(counts.length(), (from, to) -> {
+                if (from == 0) {
+                    throw new IllegalStateException("failed");
+                }
+                for (int i = from; i < to; i++) {
+                    counts.incrementAndGet(i);
+                }
+            });
+            fail("The exception should be thrown");
+        } catch (IllegalStateException e) {
+            assertEquals("failed", e.getMessage());
+        }
+        assertEquals("The other chunks should have finished", 1, counts.get(99));
+    }
+}
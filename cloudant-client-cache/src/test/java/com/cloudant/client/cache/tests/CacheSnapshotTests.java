@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.cloudant.client.cache.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import com.cloudant.client.cache.Cache;
+import com.cloudant.client.cache.CacheEntry;
+import com.cloudant.client.cache.CacheSnapshot;
+import com.cloudant.client.cache.CacheWarmer;
+import com.cloudant.client.cache.LRUCache;
+import com.cloudant.client.cache.Stats;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for writing cache snapshots and warming caches from them.
+ */
+public class CacheSnapshotTests {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Test that an LRUCache snapshot lists the most recently used entries first and is limited
+     * to the maximum number of entries.
+     *
+     * @throws Exception if the snapshot can not be written or read
+     */
+    @Test
+    public void testLRUCacheExportOrder() throws Exception {
+        LRUCache<String, Integer> cache = new LRUCache<>(10);
+        cache.put("key1", 1);
+        cache.put("key2", 2);
+        cache.put("key3", 3);
+        // Access key1 so it becomes the most recently used
+        cache.get("key1");
+
+        File file = folder.newFile();
+        assertEquals("Two entries should be written", 2, cache.exportSnapshot(file, 2, true));
+        Map<String, CacheEntry<Integer>> entries = CacheSnapshot.read(file);
+        assertEquals("The snapshot should be in most recently used order",
+                Arrays.asList("key1", "key3"), new ArrayList<>(entries.keySet()));
+        assertEquals("The snapshot should contain the value", 1, entries.get("key1").getValue()
+                .intValue());
+    }
+
+    /**
+     * Test that a snapshot written without values contains only keys.
+     *
+     * @throws Exception if the snapshot can not be written or read
+     */
+    @Test
+    public void testKeysOnly() throws Exception {
+        File file = folder.newFile();
+        CacheSnapshot.writeKeys(file, Arrays.asList("a", "b"));
+        Map<String, CacheEntry<Object>> entries = CacheSnapshot.read(file);
+        assertEquals("The snapshot should contain the keys", Arrays.asList("a", "b"),
+                new ArrayList<>(entries.keySet()));
+        assertNull("The snapshot should not contain a value", entries.get("a"));
+    }
+
+    /**
+     * Test that a CacheWarmer repopulates a cache from the values in a snapshot.
+     *
+     * @throws Exception if the snapshot can not be written or read
+     */
+    @Test
+    public void testWarmFromValues() throws Exception {
+        LRUCache<String, Integer> cache = new LRUCache<>(100);
+        for (int i = 0; i < 50; i++) {
+            cache.put("key" + i, i);
+        }
+        File file = folder.newFile();
+        cache.exportSnapshot(file, 100, true);
+
+        LRUCache<String, Integer> newCache = new LRUCache<>(100);
+        int loaded = new CacheWarmer(4, 7, 0).loadValues(file, newCache);
+        assertEquals("All of the values should be loaded", 50, loaded);
+        assertEquals("The new cache should contain all the values", 50, newCache.size());
+        assertEquals("The values should be correct", 42, newCache.get("key42").intValue());
+    }
+
+    /**
+     * Test that a custom cache which does not stream its entries fails clearly, rather than
+     * writing an empty snapshot, when its entries are traversed.
+     */
+    @Test
+    public void testCustomCacheEntriesUnsupported() {
+        MapCache cache = new MapCache();
+        cache.put("key1", 1);
+        try {
+            cache.forEachEntry((key, entry) -> fail("No entries should be visited"));
+            fail("Traversing the entries should throw");
+        } catch (UnsupportedOperationException e) {
+            assertEquals("This cache can not stream its entries", e.getMessage());
+        }
+    }
+
+    /**
+     * A minimal cache that implements only the required methods of {@link Cache}.
+     */
+    private static final class MapCache implements Cache<String, Integer> {
+
+        private final Map<String, Integer> map = new HashMap<>();
+
+        @Override
+        public void clear() {
+            map.clear();
+        }
+
+        @Override
+        public void delete(String key) {
+            map.remove(key);
+        }
+
+        @Override
+        public void deleteAll(List<String> keys) {
+            keys.forEach(map::remove);
+        }
+
+        @Override
+        public Integer get(String key) {
+            return map.get(key);
+        }
+
+        @Override
+        public Map<String, Integer> getAll(List<String> keys) {
+            Map<String, Integer> values = new HashMap<>();
+            for (String key : keys) {
+                if (map.containsKey(key)) {
+                    values.put(key, map.get(key));
+                }
+            }
+            return values;
+        }
+
+        @Override
+        public Stats<Void> getStatistics() {
+            return () -> null;
+        }
+
+        @Override
+        public void put(String key, Integer value) {
+            map.put(key, value);
+        }
+
+        @Override
+        public void putAll(Map<String, Integer> values) {
+            map.putAll(values);
+        }
+
+        @Override
+        public long size() {
+            return map.size();
+        }
+    }
+}
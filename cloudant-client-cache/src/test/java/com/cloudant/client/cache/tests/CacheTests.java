@@ -18,6 +18,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 
 import com.cloudant.client.cache.Cache;
+import com.cloudant.client.cache.CacheEntry;
 
 import org.junit.After;
 import org.junit.Before;
@@ -27,6 +28,8 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * <P>
@@ -225,6 +228,28 @@ public abstract class CacheTests<T extends Cache<String, Integer>> {
         assertEntry(key2, 72);
     }
 
+    /**
+     * Tests that entries and forEachEntry return every entry in the cache.
+     */
+    @Test
+    public void testEntries() {
+        populateCache(5);
+        Map<String, Integer> expected = new HashMap<>();
+        for (int i = 1; i <= 5; i++) {
+            expected.put("key" + i, i);
+        }
+        Map<String, Integer> streamed;
+        try (Stream<Map.Entry<String, CacheEntry<Integer>>> entries = cache.entries()) {
+            streamed = entries.collect(Collectors.toMap(Map.Entry::getKey, entry -> entry
+                    .getValue().getValue()));
+        }
+        assertEquals("The stream should contain every entry", expected, streamed);
+
+        final Map<String, Integer> visited = new HashMap<>();
+        cache.forEachEntry((key, cacheEntry) -> visited.put(key, cacheEntry.getValue()));
+        assertEquals("Every entry should be visited", expected, visited);
+    }
+
     /**
      * Assert that the cache size is equal to the expected size
      *
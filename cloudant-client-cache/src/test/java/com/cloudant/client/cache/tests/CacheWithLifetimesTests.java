@@ -14,10 +14,26 @@
 
 package com.cloudant.client.cache.tests;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.cloudant.client.cache.CacheEntry;
 import com.cloudant.client.cache.CacheWithLifetimes;
+import com.cloudant.client.cache.ManualTicker;
 
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
 /**
  * Extension of CacheTests that includes some additional testing related to lifetimes.
  *
@@ -78,4 +94,70 @@ public abstract class CacheWithLifetimesTests<T extends CacheWithLifetimes<Strin
         assertNoEntries(1);
     }
 
+    /**
+     * Tests that expired entries are not returned by entries.
+     *
+     * @throws InterruptedException if the sleep is interrupted
+     */
+    @Test
+    public void testEntriesExcludeExpired() throws InterruptedException {
+        cache.put(key1, 1, 1);
+        cache.put(key2, 2);
+        Thread.sleep(10);
+        try (Stream<Map.Entry<String, CacheEntry<Integer>>> entries = cache.entries()) {
+            assertEquals("Only the unexpired entry should be returned", Arrays.asList(key2),
+                    entries.map(Map.Entry::getKey).collect(Collectors.toList()));
+        }
+    }
+
+    /**
+     * Test that get and getAll agree on expiry when the cache reads the time from its own
+     * ticker.
+     */
+    @Test
+    public void testTickerGetAll() {
+        ManualTicker ticker = new ManualTicker();
+        cache.setTicker(ticker);
+        cache.put(key1, 1, 60000);
+        cache.put(key2, 2, 120000);
+        ticker.advance(90, TimeUnit.SECONDS);
+        assertEquals("Only the unexpired entry should be returned by getAll", Collections
+                .singletonMap(key2, 2), cache.getAll(Arrays.asList(key1, key2)));
+        assertNull("The expired entry should not be returned by get", cache.get(key1));
+        assertEquals("The unexpired entry should be returned by get", Integer.valueOf(2), cache
+                .get(key2));
+    }
+
+    /**
+     * Test that lifetime jitter spreads the expiration times of entries stored together within
+     * the jitter range.
+     */
+    @Test
+    public void testLifetimeJitter() {
+        ManualTicker ticker = new ManualTicker();
+        cache.setTicker(ticker);
+        cache.setLifetimeJitter(50);
+        Map<String, Integer> map = new HashMap<String, Integer>();
+        for (int i = 0; i < 100; i++) {
+            map.put("jitter" + i, i);
+        }
+        cache.putAll(map, 100000);
+        long now = ticker.currentTimeMillis();
+        Set<Long> expirationTimes = new HashSet<Long>();
+        for (String key : map.keySet()) {
+            long expirationTime = cache.getCacheEntry(key).getExpirationTime();
+            assertTrue("The lifetime should be shortened by at most half", expirationTime >=
+                    now + 50000 && expirationTime <= now + 100000);
+            expirationTimes.add(expirationTime);
+        }
+        assertTrue("The expiration times should be spread out", expirationTimes.size() > 50);
+    }
+
+    /**
+     * Test that a jitter outside 0 to 100 percent is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidLifetimeJitter() {
+        cache.setLifetimeJitter(101);
+    }
 }
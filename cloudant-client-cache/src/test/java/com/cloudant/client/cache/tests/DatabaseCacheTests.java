@@ -14,32 +14,60 @@
 
 package com.cloudant.client.cache.tests;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import com.cloudant.client.api.ClientBuilder;
 import com.cloudant.client.api.CloudantClient;
 import com.cloudant.client.api.Database;
 import com.cloudant.client.api.model.Params;
 import com.cloudant.client.api.model.Response;
+import com.cloudant.client.cache.AccessTrace;
 import com.cloudant.client.cache.Cache;
+import com.cloudant.client.cache.CacheSnapshot;
+import com.cloudant.client.cache.CacheWarmer;
 import com.cloudant.client.cache.DatabaseCache;
 import com.cloudant.client.cache.LRUCache;
+import com.cloudant.client.cache.ValueStrategy;
+import com.cloudant.client.cache.WriteFailure;
+import com.cloudant.client.org.lightcouch.NoDocumentException;
+import com.google.gson.JsonObject;
 
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
+import org.junit.Rule;
 import org.junit.Test;
-
+import org.junit.rules.TemporaryFolder;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.Serializable;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
 /**
  * This class provides tests for the DatabaseCache, validating that the cache can operate
@@ -59,6 +87,9 @@ public class DatabaseCacheTests {
     protected static final long CACHE_LIFETIME = TimeUnit.MINUTES.toMillis(1);
     private static CloudantClient client;
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     // Test instance resources
     private Cache<String, Object> cache = null;
     private String dbName = null;
@@ -357,6 +388,409 @@ public class DatabaseCacheTests {
         assertNull("The testField should be null", foo1FromCache.testField);
     }
 
+    /**
+     * Test that write-behind saves are cached immediately, coalesced and written on flush, and
+     * that a rejected save is reported and removed from the cache.
+     */
+    @Test
+    public void testWriteBehindSave() {
+        DatabaseCache cachedDb = (DatabaseCache) db;
+        Database remoteDb = client.database(dbName, false);
+        List<WriteFailure> failures = new CopyOnWriteArrayList<>();
+        cachedDb.enableWriteBehind(5, 1, TimeUnit.MINUTES, 10, failures::add);
+        try {
+            List<Foo> foos = generateFoos(3);
+            foos.forEach(cachedDb::save);
+            Foo updated = new Foo(foos.get(0)._id);
+            updated.testField = "updated";
+            Response response = cachedDb.save(updated);
+            assertEquals("The save should be queued", 202, response.getStatusCode());
+            assertCacheSize(3);
+            assertCachePut(updated);
+            assertFalse("The save should not have been written", remoteDb.contains(updated._id));
+
+            cachedDb.flush();
+            assertEquals("The latest save should be written", "updated", remoteDb.find(Foo
+                    .class, updated._id).testField);
+            assertTrue("The other saves should be written", remoteDb.contains(foos.get(2)._id));
+
+            // Saving a new document with an existing id conflicts
+            cachedDb.save(new Foo(foos.get(1)._id));
+            cachedDb.flush();
+            assertEquals("The conflict should be reported", 1, failures.size());
+            assertEquals("The conflict should be reported", "conflict", failures.get(0)
+                    .getError());
+            assertNull("The conflicting document should be removed from the cache", cache.get
+                    (foos.get(1)._id));
+        } finally {
+            cachedDb.disableWriteBehind();
+        }
+    }
+
+    /**
+     * Test that a document saved with write-behind can be found with its new revision and saved
+     * again after it has been written.
+     */
+    @Test
+    public void testWriteBehindSaveAgain() {
+        DatabaseCache cachedDb = (DatabaseCache) db;
+        Database remoteDb = client.database(dbName, false);
+        List<WriteFailure> failures = new CopyOnWriteArrayList<>();
+        cachedDb.enableWriteBehind(5, 1, TimeUnit.MINUTES, 10, failures::add);
+        try {
+            cachedDb.save(foo);
+            cachedDb.flush();
+            assertNull("The written document should be removed from the cache", cache.get(foo
+                    ._id));
+            for (int i = 1; i <= 3; i++) {
+                Foo found = cachedDb.find(Foo.class, foo._id);
+                assertNotNull("The document should have its new revision", found._rev);
+                found.testField = "update " + i;
+                cachedDb.save(found);
+                cachedDb.flush();
+            }
+            assertTrue("The saves should not conflict: " + failures, failures.isEmpty());
+            assertEquals("The last save should be written", "update 3", remoteDb.find(Foo.class,
+                    foo._id).testField);
+        } finally {
+            cachedDb.disableWriteBehind();
+        }
+    }
+
+    /**
+     * Test that with the encoded value strategy each find returns a separate copy of the saved
+     * document.
+     */
+    @Test
+    public void testEncodedValues() {
+        DatabaseCache cachedDb = new DatabaseCache(client.database(dbName, false), cache,
+                ValueStrategy.encoded(client.getGson()));
+        cachedDb.save(foo);
+        foo.testField = "changed after save";
+
+        Foo first = cachedDb.find(Foo.class, foo._id);
+        assertNotEquals("Changes to the saved object should not be cached", foo.testField,
+                first.testField);
+        first.testField = "changed after find";
+        Foo second = cachedDb.find(Foo.class, foo._id);
+        assertNotEquals("Changes to a found object should not be cached", first.testField,
+                second.testField);
+    }
+
+    /**
+     * Test that with the JSON value strategy a cached document can be found as another class.
+     */
+    @Test
+    public void testJsonValues() {
+        DatabaseCache cachedDb = new DatabaseCache(client.database(dbName, false), cache,
+                ValueStrategy.json(client.getGson()));
+        cachedDb.save(foo);
+        assertEquals("The document should be found as its class", foo, cachedDb.find(Foo.class,
+                foo._id));
+        assertEquals("The document should be found as a JsonObject", foo._id, cachedDb.find
+                (JsonObject.class, foo._id).get("_id").getAsString());
+    }
+
+    /**
+     * Test that query results are cached by a normalized selector and invalidated by writes.
+     */
+    @Test
+    public void testQueryCache() {
+        DatabaseCache cachedDb = (DatabaseCache) db;
+        Database remoteDb = client.database(dbName, false);
+        cachedDb.enableQueryCache(new LRUCache<>(CACHE_SIZE), 1, TimeUnit.MINUTES);
+        List<Foo> foos = generateFoos(3);
+        foos.forEach(f -> f.testField = "match");
+        remoteDb.save(foos.get(0));
+
+        String selector = "{\"selector\": {\"testField\": \"match\", \"_id\": {\"$gt\": " +
+                "null}}}";
+        assertEquals("One document should match", 1, cachedDb.findByIndex(selector, Foo.class)
+                .size());
+
+        // A write by another client is not seen by an equivalent query
+        remoteDb.save(foos.get(1));
+        String reordered = "{\"selector\":{\"_id\":{\"$gt\":null},\"testField\":\"match\"}}";
+        assertEquals("The cached result should be returned", 1, cachedDb.findByIndex(reordered,
+                Foo.class).size());
+
+        // A write through the cache invalidates the cached result
+        cachedDb.save(foos.get(2));
+        assertEquals("The query should be run again", 3, cachedDb.findByIndex(selector, Foo
+                .class).size());
+    }
+
+    /**
+     * Test that cached query results are copied by the value strategy, so that changes to a
+     * returned document are not seen by other callers.
+     */
+    @Test
+    public void testQueryCacheValueStrategy() {
+        DatabaseCache cachedDb = new DatabaseCache(client.database(dbName, false), cache,
+                ValueStrategy.copy(client.getGson()));
+        cachedDb.enableQueryCache(new LRUCache<>(CACHE_SIZE), 1, TimeUnit.MINUTES);
+        foo.testField = "match";
+        cachedDb.save(foo);
+
+        String selector = "{\"selector\": {\"testField\": \"match\", \"_id\": {\"$gt\": " +
+                "null}}}";
+        cachedDb.findByIndex(selector, Foo.class).get(0).testField = "changed";
+        assertEquals("The cached result should not be changed", "match", cachedDb.findByIndex
+                (selector, Foo.class).get(0).testField);
+    }
+
+    /**
+     * Test that two databases with the same query and one result cache get their own results.
+     */
+    @Test
+    public void testQueryCacheSharedBetweenDatabases() {
+        String otherName = "database-cache-tests-" + UUID.randomUUID().toString();
+        Database otherRemoteDb = client.database(otherName, true);
+        try {
+            Cache<String, Object> resultCache = new LRUCache<>(CACHE_SIZE);
+            DatabaseCache cachedDb = (DatabaseCache) db;
+            DatabaseCache otherCachedDb = new DatabaseCache(otherRemoteDb, new LRUCache<>
+                    (CACHE_SIZE));
+            cachedDb.enableQueryCache(resultCache, 1, TimeUnit.MINUTES);
+            otherCachedDb.enableQueryCache(resultCache, 1, TimeUnit.MINUTES);
+            List<Foo> foos = generateFoos(3);
+            foos.forEach(f -> f.testField = "match");
+            client.database(dbName, false).save(foos.get(0));
+            otherRemoteDb.save(foos.get(1));
+            otherRemoteDb.save(foos.get(2));
+
+            String selector = "{\"selector\": {\"testField\": \"match\"}}";
+            assertEquals("One document should match in the first database", 1, cachedDb
+                    .findByIndex(selector, Foo.class).size());
+            assertEquals("Two documents should match in the second database", 2, otherCachedDb
+                    .findByIndex(selector, Foo.class).size());
+            assertEquals("The first database should get its own cached result", 1, cachedDb
+                    .findByIndex(selector, Foo.class).size());
+            for (String key : resultCache.entries().map(Map.Entry::getKey).collect(Collectors
+                    .toList())) {
+                assertTrue("Query results should be cached under a reserved prefix", key
+                        .startsWith("_query/"));
+            }
+        } finally {
+            client.deleteDB(otherName);
+        }
+    }
+
+    /**
+     * Test that an attachment of the latest revision read to the end is cached for its lifetime
+     * and is removed from the cache when the document is written.
+     */
+    @Test
+    public void testAttachmentCache() throws Exception {
+        DatabaseCache cachedDb = (DatabaseCache) db;
+        cachedDb.enableAttachmentCache(1 << 20, 1 << 16, 1, TimeUnit.MINUTES);
+        Response created = cachedDb.save(foo);
+        byte[] content = "attachment content".getBytes("UTF-8");
+        cachedDb.saveAttachment(new ByteArrayInputStream(content), "a.txt", "text/plain", foo
+                ._id, created.getRev());
+
+        assertArrayEquals("The attachment should be read", content, readAll(cachedDb
+                .getAttachment(foo._id, "a.txt")));
+        assertEquals("The attachment should be cached", 1, cachedDb.getAttachmentCache().count());
+        assertArrayEquals("The cached attachment should be read", content, readAll(cachedDb
+                .getAttachment(foo._id, "a.txt")));
+
+        Foo latest = client.database(dbName, false).find(Foo.class, foo._id);
+        cachedDb.removeAttachment(latest._id, latest._rev, "a.txt");
+        assertEquals("The attachment should be removed from the cache", 0, cachedDb
+                .getAttachmentCache().count());
+    }
+
+    /**
+     * Test that an attachment of the latest revision is not cached without a lifetime, while an
+     * attachment of a specific revision is.
+     */
+    @Test
+    public void testAttachmentCacheLatestRevision() throws Exception {
+        DatabaseCache cachedDb = (DatabaseCache) db;
+        cachedDb.enableAttachmentCache(1 << 20, 1 << 16);
+        Response created = cachedDb.save(foo);
+        byte[] content = "attachment content".getBytes("UTF-8");
+        Response attached = cachedDb.saveAttachment(new ByteArrayInputStream(content), "a.txt",
+                "text/plain", foo._id, created.getRev());
+
+        readAll(cachedDb.getAttachment(foo._id, "a.txt"));
+        assertEquals("The latest revision should not be cached", 0, cachedDb
+                .getAttachmentCache().count());
+        readAll(cachedDb.getAttachment(foo._id, "a.txt", attached.getRev()));
+        assertEquals("The specific revision should be cached", 1, cachedDb.getAttachmentCache()
+                .count());
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        try (InputStream stream = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            int n;
+            while ((n = stream.read(buffer)) >= 0) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * Test that a CacheWarmer fetches the documents listed in a snapshot into the cache,
+     * ignoring IDs that are not in the database.
+     *
+     * @throws Exception if the snapshot can not be written
+     */
+    @Test
+    public void testWarmFromSnapshotIds() throws Exception {
+        List<Foo> foos = generateFoos(10);
+        db.bulk(foos);
+        cache.clear();
+
+        List<String> ids = new ArrayList<>();
+        foos.forEach(f -> ids.add(f._id));
+        ids.add("missing-" + UUID.randomUUID().toString());
+        File file = folder.newFile();
+        CacheSnapshot.writeKeys(file, ids);
+
+        int loaded = new CacheWarmer(2, 3, 0).loadDocuments(file, (DatabaseCache) db, Foo.class);
+        assertEquals("The existing documents should be loaded", 10, loaded);
+        assertCacheSize(10);
+        for (Foo f : foos) {
+            assertEquals("The cached document should have the correct id", f._id,
+                    ((Foo) cache.get(f._id))._id);
+        }
+    }
+
+    /**
+     * Test that the id filter reports documents written through the cache and seeded from the
+     * database as existing, rejects missing documents, and adds documents created by other
+     * clients when it is updated.
+     */
+    @Test
+    public void testIdFilter() {
+        DatabaseCache cachedDb = (DatabaseCache) db;
+        List<Foo> foos = generateFoos(5);
+        db.bulk(foos);
+        cache.clear();
+        cachedDb.enableIdFilter(1000, 0.001, 1, TimeUnit.HOURS);
+        try {
+            for (Foo f : foos) {
+                assertTrue("A seeded document should exist", db.contains(f._id));
+            }
+            cachedDb.save(foo);
+            cache.clear();
+            assertTrue("A saved document should exist", db.contains(foo._id));
+            assertFalse("A missing document should not exist", db.contains("missing"));
+            try {
+                db.find(Foo.class, "missing");
+                fail("Finding a missing document should throw");
+            } catch (NoDocumentException e) {
+                // Expected
+            }
+
+            Foo other = new Foo(UUID.randomUUID().toString());
+            client.database(dbName, false).save(other);
+            cachedDb.updateIdFilter();
+            assertTrue("A document created by another client should exist after the update",
+                    db.contains(other._id));
+        } finally {
+            cachedDb.disableIdFilter();
+        }
+    }
+
+    /**
+     * Test that the id filter can not be enabled without polling the changes feed, which would
+     * report documents created by other clients as missing indefinitely.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testIdFilterPollInterval() {
+        ((DatabaseCache) db).enableIdFilter(1000, 0.001, 0, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Test that reads, writes and deletes through the cache are recorded in a trace.
+     *
+     * @throws Exception if the trace can not be written or read
+     */
+    @Test
+    public void testTraceRecorder() throws Exception {
+        DatabaseCache cachedDb = (DatabaseCache) db;
+        File file = folder.newFile();
+        try (AccessTrace.Recorder recorder = AccessTrace.record(file)) {
+            cachedDb.setTraceRecorder(recorder);
+            Response r = db.post(foo);
+            db.find(Foo.class, foo._id);
+            db.contains("missing");
+            foo._rev = r.getRev();
+            db.remove(foo);
+            cachedDb.setTraceRecorder(null);
+            db.contains(foo._id);
+        }
+        List<String> accesses = new ArrayList<>();
+        AccessTrace.replay(file, (time, operation, id) -> accesses.add(operation + " " + id));
+        assertEquals("The accesses should be recorded in order", Arrays.asList("WRITE " + foo
+                ._id, "READ " + foo._id, "READ missing", "DELETE " + foo._id), accesses);
+    }
+
+    /**
+     * Test that findAll emits the cached and fetched documents in the order of their ids,
+     * skipping missing documents, and caches the fetched documents.
+     *
+     * @throws Exception if the documents are not emitted
+     */
+    @Test
+    public void testFindAll() throws Exception {
+        List<Foo> foos = generateFoos(8);
+        db.bulk(foos);
+        cache.clear();
+        db.find(Foo.class, foos.get(0)._id);
+
+        List<String> ids = new ArrayList<>();
+        foos.forEach(f -> ids.add(f._id));
+        ids.add(3, "missing-" + UUID.randomUUID().toString());
+        List<Foo> found = new CopyOnWriteArrayList<>();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        CountDownLatch completed = new CountDownLatch(1);
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            ((DatabaseCache) db).findAll(Foo.class, new ListPublisher<>(ids), 3, 2, executor)
+                    .subscribe(new Subscriber<Foo>() {
+                        @Override
+                        public void onSubscribe(Subscription subscription) {
+                            subscription.request(Long.MAX_VALUE);
+                        }
+
+                        @Override
+                        public void onNext(Foo f) {
+                            found.add(f);
+                        }
+
+                        @Override
+                        public void onError(Throwable throwable) {
+                            error.set(throwable);
+                            completed.countDown();
+                        }
+
+                        @Override
+                        public void onComplete() {
+                            completed.countDown();
+                        }
+                    });
+            assertTrue("The documents should be emitted", completed.await(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        if (error.get() != null) {
+            throw new AssertionError("The documents should be emitted without error", error
+                    .get());
+        }
+        List<String> foundIds = new ArrayList<>();
+        found.forEach(f -> foundIds.add(f._id));
+        ids.remove(3);
+        assertEquals("The existing documents should be emitted in order", ids, foundIds);
+        assertCacheSize(8);
+    }
+
     /**
      * Assert that the cache contains a single entry and that it is the expected foo.
      */
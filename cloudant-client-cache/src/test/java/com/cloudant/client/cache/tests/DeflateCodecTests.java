@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.cloudant.client.cache.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.cloudant.client.cache.DeflateCodec;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Tests for compressing values with {@link DeflateCodec}.
+ */
+public class DeflateCodecTests {
+
+    private static byte[] json(int fields) {
+        StringBuilder builder = new StringBuilder("{");
+        for (int i = 0; i < fields; i++) {
+            builder.append("\"field").append(i).append("\":\"value").append(i).append("\",");
+        }
+        return builder.append("\"_id\":\"doc\"}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Test that data at least the threshold size is compressed and decodes to the original.
+     */
+    @Test
+    public void testCompressedRoundTrip() {
+        byte[] bytes = json(1000);
+        byte[] encoded = new DeflateCodec(1024).encode(bytes);
+        assertEquals("The data should be compressed", DeflateCodec.DEFLATED, encoded[0]);
+        assertTrue("The encoded data should be smaller", encoded.length < bytes.length / 2);
+        assertArrayEquals("The data should decode to the original", bytes, DeflateCodec.decode
+                (encoded));
+    }
+
+    /**
+     * Test that data smaller than the threshold, or which does not compress, is stored as it is.
+     */
+    @Test
+    public void testUncompressed() {
+        byte[] small = json(2);
+        byte[] encoded = new DeflateCodec(1024).encode(small);
+        assertEquals("Data below the threshold should not be compressed", DeflateCodec
+                .UNCOMPRESSED, encoded[0]);
+        assertArrayEquals("The data should decode to the original", small, DeflateCodec.decode
+                (encoded));
+
+        byte[] random = new byte[4096];
+        new Random(42).nextBytes(random);
+        encoded = new DeflateCodec(0).encode(random);
+        assertEquals("Incompressible data should not be compressed", DeflateCodec
+                .UNCOMPRESSED, encoded[0]);
+        assertArrayEquals("The data should decode to the original", random, DeflateCodec.decode
+                (encoded));
+    }
+
+    /**
+     * Test that truncated compressed data decodes to null.
+     */
+    @Test
+    public void testTruncated() {
+        byte[] encoded = new DeflateCodec(0).encode(json(1000));
+        assertNull("Truncated data should not decode", DeflateCodec.decode(Arrays.copyOf
+                (encoded, encoded.length / 2)));
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.cloudant.client.cache.tests;
+
+import static org.junit.Assert.assertEquals;
+
+import com.cloudant.client.cache.ExpiryPolicy;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for the {@link ExpiryPolicy} factories.
+ */
+public class ExpiryPolicyTests {
+
+    private static final ExpiryPolicy DEFAULT = ExpiryPolicy.fixed(1, TimeUnit.MINUTES);
+
+    private static class Document {
+        String type;
+
+        Document(String type) {
+            this.type = type;
+        }
+    }
+
+    private static class Order extends Document {
+        Order() {
+            super("order");
+        }
+    }
+
+    @Test
+    public void testFixed() {
+        assertEquals("The lifetime should be in milliseconds", 60000, DEFAULT.getLifetime("a",
+                "value"));
+    }
+
+    /**
+     * Test that the longest matching prefix is used.
+     */
+    @Test
+    public void testByIdPrefix() {
+        Map<String, Long> lifetimes = new HashMap<String, Long>();
+        lifetimes.put("a", 1L);
+        lifetimes.put("ab", 2L);
+        lifetimes.put("abd", 3L);
+        lifetimes.put("b:", 4L);
+        ExpiryPolicy policy = ExpiryPolicy.byIdPrefix(lifetimes, DEFAULT);
+        assertEquals(1, policy.getLifetime("a", "value"));
+        assertEquals(1, policy.getLifetime("aa", "value"));
+        assertEquals(2, policy.getLifetime("abc", "value"));
+        assertEquals(3, policy.getLifetime("abde", "value"));
+        assertEquals(4, policy.getLifetime("b:1", "value"));
+        assertEquals("Unmatched ids should use the default", 60000, policy.getLifetime("b",
+                "value"));
+        assertEquals("Unmatched ids should use the default", 60000, policy.getLifetime("c",
+                "value"));
+    }
+
+    /**
+     * Test that the nearest superclass in the map is used.
+     */
+    @Test
+    public void testByClass() {
+        Map<Class<?>, Long> lifetimes = new HashMap<Class<?>, Long>();
+        lifetimes.put(Document.class, 1L);
+        lifetimes.put(String.class, 2L);
+        ExpiryPolicy policy = ExpiryPolicy.byClass(lifetimes, DEFAULT);
+        assertEquals(1, policy.getLifetime("a", new Order()));
+        assertEquals(2, policy.getLifetime("a", "value"));
+        assertEquals("Unmatched classes should use the default", 60000, policy.getLifetime("a",
+                1));
+    }
+
+    @Test
+    public void testByField() {
+        Map<String, Long> lifetimes = new HashMap<String, Long>();
+        lifetimes.put("order", 1L);
+        ExpiryPolicy policy = ExpiryPolicy.byField("type", lifetimes, DEFAULT);
+        assertEquals(1, policy.getLifetime("a", new Order()));
+        assertEquals("Other values should use the default", 60000, policy.getLifetime("a", new
+                Document("customer")));
+        assertEquals("Documents without the field should use the default", 60000, policy
+                .getLifetime("a", new Document(null)));
+    }
+}
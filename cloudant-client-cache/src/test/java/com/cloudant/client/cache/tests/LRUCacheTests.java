@@ -58,4 +58,28 @@ public class LRUCacheTests extends CacheTests<LRUCache<String, Integer>> {
         assertEquals("The entry key6 should be present in the cache", 6, cache.get("key6")
                 .intValue());
     }
+
+    /**
+     * Test that shrinking the LRU cache evicts the least recently used entries and that it can
+     * grow again.
+     */
+    @Test
+    public void testSetMaximumSize() {
+        populateCache(5);
+        assertNotNull("The entry should be present in the cache", cache.get("key1"));
+        cache.setMaximumSize(3);
+        assertEquals("The maximum size should be changed", 3, cache.getMaximumSize());
+        assertCacheSize(3);
+        assertNull("The entry key2 should have been evicted", cache.get("key2"));
+        assertNull("The entry key3 should have been evicted", cache.get("key3"));
+        assertNotNull("The entry key1 should be present in the cache", cache.get("key1"));
+        cache.setMaximumSize(10);
+        populateCache(10);
+        assertCacheSize(10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetMaximumSizeInvalid() {
+        cache.setMaximumSize(0);
+    }
 }
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+
+package com.cloudant.client.cache.tests;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A publisher of the items of a list, emitted as they are requested, which records the demand
+ * and cancellation of its subscriber.
+ *
+ * @param <T> the type of the items
+ */
+public class ListPublisher<T> implements Publisher<T> {
+
+    private final List<T> items;
+    private final AtomicLong requested = new AtomicLong();
+    private volatile boolean cancelled;
+
+    public ListPublisher(List<T> items) {
+        this.items = items;
+    }
+
+    /**
+     * @return the total number of items requested
+     */
+    public long getRequested() {
+        return requested.get();
+    }
+
+    /**
+     * @return true if the subscription was cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T> subscriber) {
+        subscriber.onSubscribe(new Subscription() {
+
+            private final AtomicLong demand = new AtomicLong();
+            private int next;
+
+            @Override
+            public void request(long n) {
+                requested.addAndGet(n);
+                if (demand.getAndAdd(n) != 0) {
+                    // Already emitting
+                    return;
+                }
+                long current = n;
+                while (true) {
+                    long emitted = 0;
+                    while (emitted != current && next < items.size() && !cancelled) {
+                        subscriber.onNext(items.get(next++));
+                        emitted++;
+                    }
+                    if (cancelled) {
+                        return;
+                    }
+                    if (next == items.size()) {
+                        next++;
+                        subscriber.onComplete();
+                        return;
+                    }
+                    current = demand.addAndGet(-emitted);
+                    if (current == 0) {
+                        return;
+                    }
+                }
+            }
+
+            @Override
+            public void cancel() {
+                cancelled = true;
+            }
+        });
+    }
+}
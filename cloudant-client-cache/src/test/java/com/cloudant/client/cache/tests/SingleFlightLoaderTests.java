@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.cloudant.client.cache.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.cloudant.client.cache.LRUCache;
+import com.cloudant.client.cache.LoadingCache;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for loading missing values with {@link LoadingCache}, using an {@link LRUCache}.
+ */
+public class SingleFlightLoaderTests {
+
+    private static final int THREADS = 8;
+
+    private LoadingCache<String, Integer> cache;
+    private AtomicInteger loads;
+
+    @Before
+    public void setup() {
+        cache = new LRUCache<String, Integer>(5);
+        loads = new AtomicInteger();
+    }
+
+    /*
+     * Run the task in several threads at the same time and return the results.
+     */
+    private <R> List<R> concurrently(Callable<R> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<R>> futures = new ArrayList<Future<R>>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            List<R> results = new ArrayList<R>();
+            for (Future<R> future : futures) {
+                results.add(future.get(10, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /*
+     * A slow loader, so that concurrent requests overlap with the load.
+     */
+    private Integer slowLoad(String key) {
+        loads.incrementAndGet();
+        try {
+            Thread.sleep(200);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return Integer.valueOf(key.substring(3));
+    }
+
+    /**
+     * Test that a missing value is loaded and cached, and that a cached value is not loaded.
+     */
+    @Test
+    public void testGetLoadsMissingValue() {
+        assertEquals("The value should be loaded", Integer.valueOf(1), cache.get("key1",
+                this::slowLoad));
+        assertEquals("The value should be cached", Integer.valueOf(1), cache.get("key1"));
+        assertEquals("The cached value should be returned", Integer.valueOf(1), cache.get
+                ("key1", this::slowLoad));
+        assertEquals("The value should be loaded once", 1, loads.get());
+    }
+
+    /**
+     * Test that concurrent gets of the same missing key share a single load.
+     */
+    @Test
+    public void testConcurrentGetLoadsOnce() throws Exception {
+        for (Integer value : concurrently(() -> cache.get("key2", this::slowLoad))) {
+            assertEquals("Every thread should get the loaded value", Integer.valueOf(2), value);
+        }
+        assertEquals("The value should be loaded once", 1, loads.get());
+    }
+
+    /**
+     * Test that a null value is not cached and that a loader exception is thrown to every thread
+     * waiting for the load, without caching anything.
+     */
+    @Test
+    public void testGetNullAndException() throws Exception {
+        assertNull("A null value should be returned", cache.get("key1", key -> null));
+        assertEquals("A null value should not be cached", 0, cache.size());
+
+        List<String> errors = concurrently(() -> {
+            try {
+                cache.get("key1", key -> {
+                    slowLoad(key);
+                    throw new IllegalStateException("load failed");
+                });
+                return null;
+            } catch (IllegalStateException e) {
+                return e.getMessage();
+            }
+        });
+        for (String error : errors) {
+            assertEquals("Every thread should get the exception", "load failed", error);
+        }
+        assertEquals("The failed load should not be cached", 0, cache.size());
+        assertEquals("The value should be loadable after a failure", Integer.valueOf(1), cache
+                .get("key1", this::slowLoad));
+    }
+
+    /**
+     * Test that getAll loads only the missing keys with a single call to the bulk loader and
+     * caches the loaded values, omitting keys the loader has no value for.
+     */
+    @Test
+    public void testGetAllLoadsMissingValues() {
+        cache.put("key1", 1);
+        List<List<String>> requests = new ArrayList<List<String>>();
+        Map<String, Integer> values = cache.getAll(Arrays.asList("key1", "key2", "key3",
+                "key4"), keys -> {
+            requests.add(new ArrayList<String>(keys));
+            Map<String, Integer> loaded = new HashMap<String, Integer>();
+            for (String key : keys) {
+                if (!key.equals("key4")) {
+                    loaded.put(key, Integer.valueOf(key.substring(3)));
+                }
+            }
+            return loaded;
+        });
+        assertEquals("The missing keys should be loaded in one request", Arrays.asList(Arrays
+                .asList("key2", "key3", "key4")), requests);
+        assertEquals("The cached and loaded values should be returned", 3, values.size());
+        assertEquals("The loaded value should be returned", Integer.valueOf(3), values.get
+                ("key3"));
+        assertEquals("The loaded values should be cached", 3, cache.size());
+    }
+
+    /**
+     * Test that concurrent bulk gets of overlapping keys load each key once.
+     */
+    @Test
+    public void testConcurrentGetAllLoadsOnce() throws Exception {
+        List<String> keys = Arrays.asList("key1", "key2", "key3");
+        List<Map<String, Integer>> results = concurrently(() -> cache.getAll(keys, missing -> {
+            Map<String, Integer> loaded = new HashMap<String, Integer>();
+            for (String key : missing) {
+                loaded.put(key, slowLoad(key));
+            }
+            return loaded;
+        }));
+        for (Map<String, Integer> result : results) {
+            assertEquals("Every thread should get all the values", 3, result.size());
+        }
+        assertEquals("Each value should be loaded once", 3, loads.get());
+        assertEquals("The loaded values should be cached", 3, cache.size());
+    }
+}
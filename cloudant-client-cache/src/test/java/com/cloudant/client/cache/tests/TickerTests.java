@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+
+package com.cloudant.client.cache.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.cloudant.client.cache.CachedTicker;
+import com.cloudant.client.cache.ManualTicker;
+import com.cloudant.client.cache.Ticker;
+import com.cloudant.client.cache.Util;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for the {@link Ticker} implementations.
+ */
+public class TickerTests {
+
+    @After
+    public void resetTicker() {
+        Util.setTicker(null);
+    }
+
+    /**
+     * Test that a cached ticker's time is updated at about the resolution and follows the system
+     * time after it is closed.
+     *
+     * @throws InterruptedException if interrupted while sleeping
+     */
+    @Test
+    public void testCachedTicker() throws InterruptedException {
+        try (CachedTicker ticker = new CachedTicker(5, TimeUnit.MILLISECONDS)) {
+            long start = ticker.currentTimeMillis();
+            Thread.sleep(100);
+            long time = ticker.currentTimeMillis();
+            assertTrue("The time should be updated", time >= start + 50);
+            assertTrue("The time should not be ahead of the system time", time <= System
+                    .currentTimeMillis());
+        }
+    }
+
+    @Test
+    public void testManualTicker() {
+        ManualTicker ticker = new ManualTicker(1000);
+        assertEquals(1000, ticker.currentTimeMillis());
+        ticker.advance(2, TimeUnit.SECONDS);
+        assertEquals(3000, ticker.currentTimeMillis());
+        ticker.set(10);
+        assertEquals(10, ticker.currentTimeMillis());
+    }
+
+    /**
+     * Test that Util.getTime reads the ticker which has been set.
+     */
+    @Test
+    public void testSetTicker() {
+        ManualTicker ticker = new ManualTicker(1000);
+        Util.setTicker(ticker);
+        assertSame(ticker, Util.getTicker());
+        assertEquals(1000, Util.getTime());
+        Util.setTicker(null);
+        assertSame("The system ticker should be restored", Ticker.SYSTEM, Util.getTicker());
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.cloudant.client.cache.tests;
+
+import com.cloudant.client.cache.ValueStrategy;
+import com.google.gson.Gson;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <P>
+ * Measures the cost of each {@link ValueStrategy}: the time taken to store a document in the
+ * cache and to read it back, and for the encoded strategy the number of bytes cached. Run from
+ * the command line, with the test classes on the class path, with a JSON document and optionally
+ * the number of iterations, for example:
+ * </P>
+ * <pre>
+ * java com.cloudant.client.cache.tests.ValueStrategyBenchmark document.json 100000
+ * </pre>
+ * <P>
+ * The document is decoded as a {@code Map}, so the times are those of a document without a
+ * custom class; documents decoded to application classes with type adapters may cost more.
+ * </P>
+ *
+ * @see ValueStrategy
+ */
+public final class ValueStrategyBenchmark {
+
+    private static final int DEFAULT_ITERATIONS = 100000;
+
+    // Written with the reads so that they can not be optimized away
+    private static volatile int sink;
+
+    private ValueStrategyBenchmark() {
+    }
+
+    /**
+     * The measured cost of a value strategy.
+     */
+    public static final class Result {
+
+        private final String name;
+        private final double storeNanos;
+        private final double readNanos;
+        private final long cachedBytes;
+
+        Result(String name, double storeNanos, double readNanos, long cachedBytes) {
+            this.name = name;
+            this.storeNanos = storeNanos;
+            this.readNanos = readNanos;
+            this.cachedBytes = cachedBytes;
+        }
+
+        /**
+         * @return the name of the strategy
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the mean time in nanoseconds to store the document
+         */
+        public double getStoreNanos() {
+            return storeNanos;
+        }
+
+        /**
+         * @return the mean time in nanoseconds to read the document
+         */
+        public double getReadNanos() {
+            return readNanos;
+        }
+
+        /**
+         * @return the number of JSON bytes cached by the encoded strategy, otherwise -1
+         */
+        public long getCachedBytes() {
+            return cachedBytes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-10s %12.0f %12.0f %12s", name, storeNanos, readNanos,
+                    (cachedBytes < 0) ? "-" : Long.toString(cachedBytes));
+        }
+    }
+
+    /**
+     * Measure a strategy by storing and reading a document, after running the same number of
+     * iterations to warm up.
+     *
+     * @param name       the name of the strategy
+     * @param strategy   the strategy to measure
+     * @param document   the document to store and read
+     * @param classType  the class to read the document as
+     * @param iterations the number of times to store and to read the document
+     * @return the measured cost
+     * @throws IllegalArgumentException if the number of iterations is not positive
+     */
+    public static Result measure(String name, ValueStrategy strategy, Object document, Class<?>
+            classType, int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("The number of iterations must be positive");
+        }
+        Object value = null;
+        long storeNanos = 0;
+        long readNanos = 0;
+        int checksum = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                value = strategy.store(document);
+            }
+            storeNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                checksum += System.identityHashCode(strategy.read(value, classType));
+            }
+            readNanos = System.nanoTime() - start;
+        }
+        sink = checksum;
+        return new Result(name, (double) storeNanos / iterations, (double) readNanos /
+                iterations, -1);
+    }
+
+    /**
+     * Measure every strategy with a document.
+     *
+     * @param gson       the Gson instance to use in the strategies
+     * @param json       the document as JSON
+     * @param iterations the number of times to store and to read the document
+     * @return the measured cost of each strategy
+     */
+    public static List<Result> measureAll(Gson gson, String json, int iterations) {
+        Object document = gson.fromJson(json, Map.class);
+        List<Result> results = new ArrayList<Result>();
+        results.add(measure("reference", ValueStrategy.REFERENCE, document, Map.class,
+                iterations));
+        results.add(measure("copy", ValueStrategy.copy(gson), document, Map.class, iterations));
+        Result encoded = measure("encoded", ValueStrategy.encoded(gson), document, Map.class,
+                iterations);
+        // The encoded strategy caches the document's JSON as UTF-8
+        results.add(new Result(encoded.name, encoded.storeNanos, encoded.readNanos, gson.toJson
+                (document).getBytes(StandardCharsets.UTF_8).length));
+        results.add(measure("json", ValueStrategy.json(gson), document, Map.class, iterations));
+        return results;
+    }
+
+    /**
+     * Print results as a table.
+     *
+     * @param results the results to print
+     * @param out     the stream to print to
+     */
+    public static void print(List<Result> results, PrintStream out) {
+        out.println(String.format("%-10s %12s %12s %12s", "strategy", "store ns", "read ns",
+                "bytes"));
+        for (Result result : results) {
+            out.println(result);
+        }
+    }
+
+    /**
+     * Measure every strategy and print the results.
+     *
+     * @param args the JSON document file and optionally the number of iterations
+     * @throws IOException if the document could not be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: ValueStrategyBenchmark <JSON document file> " +
+                    "[iterations]");
+            System.exit(1);
+        }
+        String json = new String(Files.readAllBytes(Paths.get(args[0])), StandardCharsets.UTF_8);
+        int iterations = (args.length > 1) ? Integer.parseInt(args[1]) : DEFAULT_ITERATIONS;
+        print(measureAll(new Gson(), json, iterations), System.out);
+    }
+}
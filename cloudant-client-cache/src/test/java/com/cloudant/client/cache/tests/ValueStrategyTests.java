@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2026 IBM Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+
+package com.cloudant.client.cache.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.cloudant.client.cache.Serializer;
+import com.cloudant.client.cache.ValueStrategy;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for the {@link ValueStrategy} implementations.
+ */
+public class ValueStrategyTests {
+
+    private static class Document {
+        String _id = "doc";
+        List<String> tags = new ArrayList<String>();
+    }
+
+    @Test
+    public void testReference() {
+        Document document = new Document();
+        Object cached = ValueStrategy.REFERENCE.store(document);
+        assertSame("The document should be cached", document, cached);
+        assertSame("The cached document should be returned", document, ValueStrategy.REFERENCE
+                .read(cached, Document.class));
+    }
+
+    /**
+     * Test that changes to the stored document or to a returned document do not change the
+     * cached document.
+     */
+    @Test
+    public void testCopy() {
+        assertIsolated(ValueStrategy.copy(new Gson()));
+    }
+
+    /**
+     * Test that documents are cached as serializable values, isolated from changes.
+     */
+    @Test
+    public void testEncoded() {
+        ValueStrategy strategy = ValueStrategy.encoded(new Gson());
+        assertTrue("The cached value should be serializable", strategy.store(new Document())
+                instanceof Serializable);
+        Object roundTripped = Serializer.deserializeFromByteArray(Serializer
+                .serializeToByteArray((Serializable) strategy.store(new Document())));
+        assertEquals("The document should be decoded after serialization", "doc", strategy.read
+                (roundTripped, Document.class)._id);
+        assertIsolated(strategy);
+    }
+
+    /**
+     * Test that a document is cached as canonical JSON which can be read as different classes,
+     * sharing the instance decoded for each class.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testJson() {
+        ValueStrategy strategy = ValueStrategy.json(new Gson());
+        Document document = new Document();
+        document.tags.add("a");
+        Object cached = strategy.store(document);
+        assertEquals("The members should be sorted", "{\"_id\":\"doc\",\"tags\":[\"a\"]}",
+                cached.toString());
+
+        Document read = strategy.read(cached, Document.class);
+        assertEquals("The document should be decoded", "a", read.tags.get(0));
+        assertSame("The decoded document should be shared", read, strategy.read(cached,
+                Document.class));
+        assertEquals("The document should be decoded as a JsonObject", "doc", strategy.read
+                (cached, JsonObject.class).get("_id").getAsString());
+        assertEquals("The document should be decoded as a Map", "doc", strategy.read(cached,
+                Map.class).get("_id"));
+
+        Object roundTripped = Serializer.deserializeFromByteArray(Serializer
+                .serializeToByteArray((Serializable) cached));
+        assertEquals("The document should be decoded after serialization", "doc", strategy.read
+                (roundTripped, Document.class)._id);
+    }
+
+    private static void assertIsolated(ValueStrategy strategy) {
+        Document document = new Document();
+        document.tags.add("a");
+        Object cached = strategy.store(document);
+        document.tags.add("stored");
+
+        Document first = strategy.read(cached, Document.class);
+        assertEquals("The cached document should be returned", "doc", first._id);
+        assertEquals("Changes after storing should not be cached", 1, first.tags.size());
+        first.tags.add("read");
+        Document second = strategy.read(cached, Document.class);
+        assertNotSame("Each read should return a new instance", first, second);
+        assertEquals("Changes to a returned document should not be cached", 1, second.tags
+                .size());
+
+        // A loaded document shared between callers is copied too
+        assertNotSame("A loaded document should be copied", document, strategy.read(document,
+                Document.class));
+    }
+
+    /**
+     * Test that the benchmark measures every strategy and the size of encoded documents.
+     */
+    @Test
+    public void testBenchmark() {
+        Gson gson = new Gson();
+        String json = "{\"_id\":\"doc\",\"tags\":[\"a\",\"b\"]}";
+        List<ValueStrategyBenchmark.Result> results = ValueStrategyBenchmark.measureAll(gson,
+                json, 10);
+        assertEquals("Every strategy should be measured", 4, results.size());
+        for (ValueStrategyBenchmark.Result result : results) {
+            assertTrue("The times should be measured", result.getStoreNanos() >= 0 && result
+                    .getReadNanos() >= 0);
+        }
+        assertEquals("The encoded size should be measured", json.length(), results.get(2)
+                .getCachedBytes());
+        assertEquals("Only the encoded size should be measured", -1, results.get(0)
+                .getCachedBytes());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBenchmarkIterations() {
+        ValueStrategyBenchmark.measure("reference", ValueStrategy.REFERENCE, new Document(),
+                Document.class, 0);
+    }
+}